@@ -0,0 +1,107 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * end-to-end throughput of {@link MailClient#sendMail} against an in-process {@link SmtpSinkServer} on localhost
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class SendMailBenchmark {
+
+  private static final int PORT = 1588;
+  private static final int BATCH = 100;
+
+  @Param({"1", "8"})
+  public int maxPoolSize;
+
+  @Param({"2"})
+  public int sinkInstances;
+
+  // simulates the lookup of the recipient on the server, 0 measures the client overhead only
+  @Param({"0"})
+  public long rcptLatency;
+
+  private Vertx vertx;
+  private SmtpSinkServer sink;
+  private MailClient mailClient;
+  private MailMessage message;
+
+  @Setup
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    sink = new SmtpSinkServer(vertx)
+      .setPort(PORT)
+      .setInstances(sinkInstances)
+      .setLatency("RCPT", rcptLatency)
+      .start();
+    MailConfig config = new MailConfig()
+      .setHostname("localhost")
+      .setPort(PORT)
+      .setStarttls(StartTLSOptions.DISABLED)
+      .setOwnHostname("benchmark.example.com")
+      .setMaxPoolSize(maxPoolSize);
+    mailClient = MailClient.createNonShared(vertx, config);
+    message = new MailMessage()
+      .setFrom("sender@example.com")
+      .setTo("user@example.com")
+      .setSubject("benchmark message")
+      .setText("this is a message sent by the benchmark\n");
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    mailClient.close();
+    sink.stop();
+    CountDownLatch closed = new CountDownLatch(1);
+    vertx.close(v -> closed.countDown());
+    closed.await(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void sendMail() throws Exception {
+    CountDownLatch latch = new CountDownLatch(BATCH);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    for (int i = 0; i < BATCH; i++) {
+      mailClient.sendMail(message, result -> {
+        if (result.failed()) {
+          failure.set(result.cause());
+        }
+        latch.countDown();
+      });
+    }
+    if (!latch.await(30, TimeUnit.SECONDS)) {
+      throw new IllegalStateException("timeout waiting for the send operations");
+    }
+    if (failure.get() != null) {
+      throw new IllegalStateException("send operation failed", failure.get());
+    }
+  }
+
+}
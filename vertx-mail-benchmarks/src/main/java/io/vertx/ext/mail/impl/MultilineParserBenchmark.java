@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark parsing of single and multiline server replies with {@link MultilineParser}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MultilineParserBenchmark {
+
+  private Buffer singleLine;
+  private Buffer ehloReply;
+  private MultilineParser parser;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    singleLine = Buffer.buffer("250 2.1.0 Ok\r\n");
+    ehloReply = Buffer.buffer("250-mail.example.com\r\n"
+      + "250-PIPELINING\r\n"
+      + "250-SIZE 10240000\r\n"
+      + "250-VRFY\r\n"
+      + "250-ETRN\r\n"
+      + "250-STARTTLS\r\n"
+      + "250-AUTH PLAIN LOGIN CRAM-MD5\r\n"
+      + "250-ENHANCEDSTATUSCODES\r\n"
+      + "250-8BITMIME\r\n"
+      + "250 DSN\r\n");
+    parser = new MultilineParser(blackhole::consume);
+    // the first line determines the line ending mode
+    parser.handle(Buffer.buffer("220 mail.example.com ESMTP\r\n"));
+  }
+
+  // the buffers are copied since the parser may keep a reference to the input buffer
+
+  @Benchmark
+  public void singleLine() {
+    parser.handle(singleLine.copy());
+  }
+
+  @Benchmark
+  public void multiLine() {
+    parser.handle(ehloReply.copy());
+  }
+
+}
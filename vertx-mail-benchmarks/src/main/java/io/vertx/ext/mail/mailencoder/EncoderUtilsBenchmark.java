@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark the encoding helpers in {@link Utils}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EncoderUtilsBenchmark {
+
+  private String asciiText;
+  private String nonAsciiText;
+  private String asciiSubject;
+  private String nonAsciiSubject;
+  private byte[] binary;
+
+  @Setup
+  public void setup() {
+    StringBuilder ascii = new StringBuilder();
+    StringBuilder nonAscii = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      ascii.append("The quick brown fox jumps over the lazy dog. 0123456789\n");
+      nonAscii.append("Falsches Üben von Xylophonmusik quält jeden größeren Zwerg.\n");
+    }
+    asciiText = ascii.toString();
+    nonAsciiText = nonAscii.toString();
+    asciiSubject = "Your order has been shipped";
+    nonAsciiSubject = "Ihre Bestellung wurde verschickt – Grüße";
+    binary = new byte[64 * 1024];
+    new Random(0).nextBytes(binary);
+  }
+
+  @Benchmark
+  public String encodeQPAscii() {
+    return Utils.encodeQP(asciiText);
+  }
+
+  @Benchmark
+  public String encodeQPNonAscii() {
+    return Utils.encodeQP(nonAsciiText);
+  }
+
+  @Benchmark
+  public String encodeHeaderAscii() {
+    return Utils.encodeHeader(asciiSubject, 9);
+  }
+
+  @Benchmark
+  public String encodeHeaderNonAscii() {
+    return Utils.encodeHeader(nonAsciiSubject, 9);
+  }
+
+  @Benchmark
+  public String base64() {
+    return Utils.base64(binary);
+  }
+
+  @Benchmark
+  public String base64Text() {
+    return Utils.base64(asciiText.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.mail.MailAttachment;
+import io.vertx.ext.mail.MailMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark encoding of typical messages with {@link MailEncoder#encode()}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MailEncoderBenchmark {
+
+  private static final String HOSTNAME = "benchmark.example.com";
+
+  @Param({"1024"})
+  public int textSize;
+
+  @Param({"1048576"})
+  public int attachmentSize;
+
+  private MailMessage textMessage;
+  private MailMessage htmlInlineMessage;
+  private MailMessage attachmentMessage;
+  private MailMessage nonAsciiMessage;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+
+    textMessage = baseMessage()
+      .setText(asciiText(textSize));
+
+    byte[] image = new byte[16 * 1024];
+    random.nextBytes(image);
+    htmlInlineMessage = baseMessage()
+      .setText(asciiText(textSize))
+      .setHtml("<html><body><p>" + asciiText(textSize) + "</p><img src=\"cid:image1@example.com\"></body></html>")
+      .setInlineAttachment(new MailAttachment()
+        .setData(Buffer.buffer(image))
+        .setName("image.png")
+        .setContentType("image/png")
+        .setContentId("<image1@example.com>"));
+
+    byte[] data = new byte[attachmentSize];
+    random.nextBytes(data);
+    attachmentMessage = baseMessage()
+      .setText(asciiText(textSize))
+      .setAttachment(new MailAttachment()
+        .setData(Buffer.buffer(data))
+        .setName("data.bin")
+        .setContentType("application/octet-stream"));
+
+    nonAsciiMessage = new MailMessage()
+      .setFrom("Jürgen Müller <juergen@example.com>")
+      .setTo(Arrays.asList("Zoë Ångström <zoe@example.com>", "Иван Петров <ivan@example.com>"))
+      .setSubject("Grüße aus Köln, Привет из Москвы")
+      .setText(nonAsciiText(textSize));
+  }
+
+  private static MailMessage baseMessage() {
+    return new MailMessage()
+      .setFrom("sender@example.com")
+      .setTo(Arrays.asList("user1@example.com", "User Two <user2@example.com>"))
+      .setSubject("benchmark message");
+  }
+
+  private static String asciiText(int size) {
+    StringBuilder sb = new StringBuilder(size);
+    String line = "The quick brown fox jumps over the lazy dog. 0123456789\n";
+    while (sb.length() < size) {
+      sb.append(line);
+    }
+    return sb.substring(0, size);
+  }
+
+  private static String nonAsciiText(int size) {
+    StringBuilder sb = new StringBuilder(size);
+    String line = "Falsches Üben von Xylophonmusik quält jeden größeren Zwerg. Съешь же ещё этих мягких булок.\n";
+    while (sb.length() < size) {
+      sb.append(line);
+    }
+    return sb.substring(0, size);
+  }
+
+  @Benchmark
+  public String textOnly() {
+    return new MailEncoder(textMessage, HOSTNAME).encode();
+  }
+
+  @Benchmark
+  public String htmlInline() {
+    return new MailEncoder(htmlInlineMessage, HOSTNAME).encode();
+  }
+
+  @Benchmark
+  public String largeAttachment() {
+    return new MailEncoder(attachmentMessage, HOSTNAME).encode();
+  }
+
+  @Benchmark
+  public String nonAscii() {
+    return new MailEncoder(nonAsciiMessage, HOSTNAME).encode();
+  }
+
+}
@@ -22,9 +22,17 @@ import io.vertx.docgen.Source;
 import io.vertx.ext.mail.MailAttachment;
 import io.vertx.ext.mail.MailClient;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailEnvelope;
 import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.SendPriority;
 import io.vertx.ext.mail.StartTLSOptions;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * code chunks for the adoc documentation 
  *
@@ -90,4 +98,32 @@ public class Examples {
     });
   }
 
+  public void sendMailWithOptions(Vertx vertx, MailMessage message, MailClient mailClient) {
+    MailSendOptions options = new MailSendOptions()
+      .setPriority(SendPriority.HIGH)
+      .setAcquireTimeout(5000);
+    mailClient.sendMailWithOptions(message, options, result -> {
+      if (result.succeeded()) {
+        System.out.println(result.result());
+      } else {
+        result.cause().printStackTrace();
+      }
+    });
+  }
+
+  public void sendMailEnvelopes(Vertx vertx, MailMessage message, MailClient mailClient) {
+    List<MailEnvelope> envelopes = new ArrayList<>();
+    for (String recipient : Arrays.asList("user1@example.com", "user2@example.com")) {
+      String bounceAddress = "bounce+" + recipient.replace('@', '=') + "@example.com";
+      envelopes.add(new MailEnvelope(bounceAddress, Collections.singletonList(recipient)));
+    }
+    mailClient.sendMailEnvelopes(message, envelopes, result -> {
+      if (result.succeeded()) {
+        System.out.println(result.result().getSucceededCount() + " envelopes sent");
+      } else {
+        result.cause().printStackTrace();
+      }
+    });
+  }
+
 }
@@ -53,21 +53,41 @@ public class MailAttachment {
 
   /**
    * create a copy of a MailAttachment object
+   * <p>
+   * the copy doesn't duplicate the data, it gets a read-only view of the data Buffer of the other object, so changes
+   * to the Buffer of the other object are visible in the copy. Before 3.5 the data was copied, code that changes the
+   * Buffer of a copy now gets a {@link java.nio.ReadOnlyBufferException} and has to use {@link #deepCopy()} to get
+   * a writable copy of the data.
    *
    * @param other object to be copied
    */
   public MailAttachment(final MailAttachment other) {
     Objects.requireNonNull(other);
-    this.data = other.data == null ? null : other.data.copy();
+    this.data = other.data == null ? null : readOnly(other.data);
     this.name = other.name;
     this.contentType = other.contentType;
     this.disposition = other.disposition;
     this.description = other.description;
-    this.description = other.description;
     this.contentId = other.contentId;
     this.headers = other.headers == null ? null : new CaseInsensitiveHeaders().addAll(other.headers);
   }
 
+  private static Buffer readOnly(Buffer buffer) {
+    return Buffer.buffer(buffer.getByteBuf().asReadOnly());
+  }
+
+  /**
+   * create a copy of this object that doesn't share the data Buffer
+   *
+   * @return the copy
+   */
+  @GenIgnore
+  public MailAttachment deepCopy() {
+    MailAttachment copy = new MailAttachment(this);
+    copy.data = data == null ? null : data.copy();
+    return copy;
+  }
+
   /**
    * create a MailAttachment object from a JsonObject representation
    *
@@ -0,0 +1,142 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represent the result of the sendMails operation
+ * <p>
+ * the results and errors have one entry per message in the order of the messages, for a successful message the
+ * error is null, for a failed message the result is null
+ */
+@DataObject
+public class MailBatchResult {
+
+  private List<MailResult> results;
+  private List<String> errors;
+
+  public MailBatchResult() {
+    results = new ArrayList<>();
+    errors = new ArrayList<>();
+  }
+
+  public MailBatchResult(MailBatchResult other) {
+    Objects.requireNonNull(other);
+    results = new ArrayList<>(other.results.size());
+    for (MailResult result : other.results) {
+      results.add(result == null ? null : new MailResult(result));
+    }
+    errors = new ArrayList<>(other.errors);
+  }
+
+  public MailBatchResult(JsonObject json) {
+    Objects.requireNonNull(json);
+    results = new ArrayList<>();
+    JsonArray jsonResults = json.getJsonArray("results");
+    if (jsonResults != null) {
+      for (int i = 0; i < jsonResults.size(); i++) {
+        JsonObject result = jsonResults.getJsonObject(i);
+        results.add(result == null ? null : new MailResult(result));
+      }
+    }
+    errors = new ArrayList<>();
+    JsonArray jsonErrors = json.getJsonArray("errors");
+    if (jsonErrors != null) {
+      for (int i = 0; i < jsonErrors.size(); i++) {
+        errors.add(jsonErrors.getString(i));
+      }
+    }
+  }
+
+  public JsonObject toJson() {
+    JsonArray jsonResults = new JsonArray();
+    for (MailResult result : results) {
+      jsonResults.add(result == null ? null : result.toJson());
+    }
+    return new JsonObject()
+        .put("results", jsonResults)
+        .put("errors", new JsonArray(new ArrayList<>(errors)));
+  }
+
+  /**
+   * @return the results of the messages, null for a failed message
+   */
+  public List<MailResult> getResults() {
+    return results;
+  }
+
+  /**
+   * @param results the results to set
+   */
+  public MailBatchResult setResults(List<MailResult> results) {
+    this.results = results;
+    return this;
+  }
+
+  /**
+   * @return the error messages of the messages, null for a successful message
+   */
+  public List<String> getErrors() {
+    return errors;
+  }
+
+  /**
+   * @param errors the errors to set
+   */
+  public MailBatchResult setErrors(List<String> errors) {
+    this.errors = errors;
+    return this;
+  }
+
+  /**
+   * add the outcome of the next message
+   *
+   * @param result the result or null if the message failed
+   * @param error  the error or null if the message was sent
+   * @return this to be able to use it fluently
+   */
+  public MailBatchResult addResult(MailResult result, String error) {
+    results.add(result);
+    errors.add(error);
+    return this;
+  }
+
+  /**
+   * @return the number of messages that were sent successfully
+   */
+  public int getSucceededCount() {
+    int count = 0;
+    for (MailResult result : results) {
+      if (result != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public String toString() {
+    return toJson().encode();
+  }
+
+}
@@ -23,6 +23,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.mail.impl.MailClientImpl;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -48,12 +49,12 @@ public interface MailClient {
    * @return MailClient instance that can then be used to send multiple mails
    */
   static MailClient createNonShared(Vertx vertx, MailConfig config) {
-    return new MailClientImpl(vertx, config, UUID.randomUUID().toString());
+    return new MailClientImpl(vertx, config, UUID.randomUUID().toString(), false);
   }
 
   /**
-   * Create a Mail client which shares its data source with any other Mongo clients created with the same
-   * pool name
+   * Create a Mail client which shares its connection pool with any other shared Mail clients connecting to the same
+   * server with the same credentials, the pool name is used for the metrics of the pool
    *
    * @param vertx  the Vert.x instance
    * @param config  the configuration
@@ -85,6 +86,55 @@ public interface MailClient {
   @Fluent
   MailClient sendMail(MailMessage email, Handler<AsyncResult<MailResult>> resultHandler);
 
+  /**
+   * send a single mail via MailClient using the given send options
+   * <p>
+   * the options control how the operation waits for a connection if the pool is exhausted, e.g.
+   * its priority and how long it may wait
+   *
+   * @param email         MailMessage object containing the mail text, from/to, attachments etc
+   * @param options       options of this send operation
+   * @param resultHandler will be called when the operation is finished or it fails
+   *                      (may be null to ignore the result)
+   * @return this MailClient instance so the method can be used fluently
+   */
+  @Fluent
+  MailClient sendMailWithOptions(MailMessage email, MailSendOptions options, Handler<AsyncResult<MailResult>> resultHandler);
+
+  /**
+   * send a list of mails via MailClient
+   * <p>
+   * the mails are sent as single send operations that reuse the connections of the pool, the result
+   * contains the result or the error of each mail in the order of the list. The operation does not fail
+   * when single mails fail. At most maxPoolSize mails of the list are sent at the same time, so a long list
+   * does not overflow a bounded wait queue (see {@link MailConfig#setMaxWaitQueueSize(int)})
+   *
+   * @param emails        list of MailMessage objects to be sent
+   * @param resultHandler will be called when all mails are finished
+   *                      (may be null to ignore the result)
+   * @return this MailClient instance so the method can be used fluently
+   */
+  @Fluent
+  MailClient sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler);
+
+  /**
+   * send a single mail to a list of envelopes via MailClient
+   * <p>
+   * the mail is encoded only once and sent in one SMTP transaction per envelope, each with the sender and the
+   * recipients of its envelope, e.g. to use a different bounce address for every recipient. The transactions
+   * reuse the connections of the pool like sendMails, the result contains the result or the error of each envelope
+   * in the order of the list. The operation does not fail when single envelopes fail
+   *
+   * @param email         MailMessage object containing the mail text, headers, attachments etc
+   * @param envelopes     list of the envelopes the mail is sent to
+   * @param resultHandler will be called when all transactions are finished
+   *                      (may be null to ignore the result)
+   * @return this MailClient instance so the method can be used fluently
+   */
+  @Fluent
+  MailClient sendMailEnvelopes(MailMessage email, List<MailEnvelope> envelopes,
+      Handler<AsyncResult<MailBatchResult>> resultHandler);
+
   /**
    * close the MailClient
    */
@@ -18,6 +18,7 @@ package io.vertx.ext.mail;
 
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClientOptions;
 
 import java.util.Arrays;
 import java.util.List;
@@ -42,6 +43,17 @@ public class MailConfig {
   public static final boolean DEFAULT_ALLOW_RCPT_ERRORS = false;
   public static final boolean DEFAULT_KEEP_ALIVE = true;
   public static final boolean DEFAULT_DISABLE_ESMTP = false;
+  public static final int DEFAULT_MAX_WAIT_QUEUE_SIZE = -1;
+  public static final boolean DEFAULT_EVENT_LOOP_AFFINITY = false;
+  public static final long DEFAULT_GREETING_TIMEOUT = 300000;
+  public static final long DEFAULT_EHLO_TIMEOUT = 300000;
+  public static final long DEFAULT_AUTH_TIMEOUT = 300000;
+  public static final long DEFAULT_ENVELOPE_TIMEOUT = 300000;
+  public static final long DEFAULT_DATA_END_TIMEOUT = 600000;
+  public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 0;
+  public static final long DEFAULT_WORKER_ENCODING_THRESHOLD = 1048576;
+  public static final int DEFAULT_MAX_RECIPIENTS_PER_TRANSACTION = 0;
+  public static final boolean DEFAULT_LMTP = false;
 
   private String hostname = DEFAULT_HOST;
   private int port = DEFAULT_PORT;
@@ -59,6 +71,19 @@ public class MailConfig {
   private boolean keepAlive = DEFAULT_KEEP_ALIVE;
   private boolean allowRcptErrors = DEFAULT_ALLOW_RCPT_ERRORS;
   private boolean disableEsmtp = DEFAULT_DISABLE_ESMTP;
+  private int maxWaitQueueSize = DEFAULT_MAX_WAIT_QUEUE_SIZE;
+  private NetClientOptions netClientOptions;
+  private boolean eventLoopAffinity = DEFAULT_EVENT_LOOP_AFFINITY;
+  private long greetingTimeout = DEFAULT_GREETING_TIMEOUT;
+  private long ehloTimeout = DEFAULT_EHLO_TIMEOUT;
+  private long authTimeout = DEFAULT_AUTH_TIMEOUT;
+  private long envelopeTimeout = DEFAULT_ENVELOPE_TIMEOUT;
+  private long dataEndTimeout = DEFAULT_DATA_END_TIMEOUT;
+  private long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+  private long workerEncodingThreshold = DEFAULT_WORKER_ENCODING_THRESHOLD;
+  private int maxRecipientsPerTransaction = DEFAULT_MAX_RECIPIENTS_PER_TRANSACTION;
+  private boolean lmtp = DEFAULT_LMTP;
+  private String domainSocketPath;
 
   /**
    * construct a config object with default options
@@ -124,6 +149,21 @@ public class MailConfig {
     maxPoolSize = other.maxPoolSize;
     keepAlive = other.keepAlive;
     allowRcptErrors = other.allowRcptErrors;
+    maxWaitQueueSize = other.maxWaitQueueSize;
+    if (other.netClientOptions != null) {
+      netClientOptions = new NetClientOptions(other.netClientOptions);
+    }
+    eventLoopAffinity = other.eventLoopAffinity;
+    greetingTimeout = other.greetingTimeout;
+    ehloTimeout = other.ehloTimeout;
+    authTimeout = other.authTimeout;
+    envelopeTimeout = other.envelopeTimeout;
+    dataEndTimeout = other.dataEndTimeout;
+    maxInFlightBytes = other.maxInFlightBytes;
+    workerEncodingThreshold = other.workerEncodingThreshold;
+    maxRecipientsPerTransaction = other.maxRecipientsPerTransaction;
+    lmtp = other.lmtp;
+    domainSocketPath = other.domainSocketPath;
   }
 
   /**
@@ -160,6 +200,23 @@ public class MailConfig {
     maxPoolSize = config.getInteger("maxPoolSize", DEFAULT_MAX_POOL_SIZE);
     keepAlive = config.getBoolean("keepAlive", DEFAULT_KEEP_ALIVE);
     allowRcptErrors = config.getBoolean("allowRcptErrors", DEFAULT_ALLOW_RCPT_ERRORS);
+    maxWaitQueueSize = config.getInteger("maxWaitQueueSize", DEFAULT_MAX_WAIT_QUEUE_SIZE);
+    JsonObject netClientOptionsJson = config.getJsonObject("netClientOptions");
+    if (netClientOptionsJson != null) {
+      netClientOptions = new NetClientOptions(netClientOptionsJson);
+    }
+    eventLoopAffinity = config.getBoolean("eventLoopAffinity", DEFAULT_EVENT_LOOP_AFFINITY);
+    greetingTimeout = config.getLong("greetingTimeout", DEFAULT_GREETING_TIMEOUT);
+    ehloTimeout = config.getLong("ehloTimeout", DEFAULT_EHLO_TIMEOUT);
+    authTimeout = config.getLong("authTimeout", DEFAULT_AUTH_TIMEOUT);
+    envelopeTimeout = config.getLong("envelopeTimeout", DEFAULT_ENVELOPE_TIMEOUT);
+    dataEndTimeout = config.getLong("dataEndTimeout", DEFAULT_DATA_END_TIMEOUT);
+    maxInFlightBytes = config.getLong("maxInFlightBytes", DEFAULT_MAX_IN_FLIGHT_BYTES);
+    workerEncodingThreshold = config.getLong("workerEncodingThreshold", DEFAULT_WORKER_ENCODING_THRESHOLD);
+    maxRecipientsPerTransaction = config.getInteger("maxRecipientsPerTransaction",
+        DEFAULT_MAX_RECIPIENTS_PER_TRANSACTION);
+    lmtp = config.getBoolean("lmtp", DEFAULT_LMTP);
+    domainSocketPath = config.getString("domainSocketPath");
   }
 
   /**
@@ -534,6 +591,346 @@ public class MailConfig {
     return this;
   }
 
+  /**
+   * get the max number of send operations that may wait for a free connection
+   * if the pool is exhausted, -1 means unbounded
+   *
+   * @return max wait queue size value
+   */
+  public int getMaxWaitQueueSize() {
+    return maxWaitQueueSize;
+  }
+
+  /**
+   * set the max number of send operations that may wait for a free connection
+   * if the pool is exhausted
+   * <p>
+   * if the wait queue is full, further send operations fail immediately instead of
+   * being queued. the default is -1, which means the queue is unbounded. The same limit applies separately to the
+   * operations waiting for the in-flight budget of {@link #setMaxInFlightBytes(long)}
+   *
+   * @param maxWaitQueueSize the max wait queue size
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setMaxWaitQueueSize(int maxWaitQueueSize) {
+    if (maxWaitQueueSize < -1) {
+      throw new IllegalArgumentException("maxWaitQueueSize must be >= -1");
+    }
+    this.maxWaitQueueSize = maxWaitQueueSize;
+    return this;
+  }
+
+  /**
+   * get the options used to create the NetClient of the connection pool
+   *
+   * @return the NetClientOptions or null if the defaults are used
+   */
+  public NetClientOptions getNetClientOptions() {
+    return netClientOptions;
+  }
+
+  /**
+   * set the options used to create the NetClient of the connection pool
+   * <p>
+   * this allows tuning the tcp connections e.g. tcpNoDelay, tcpKeepAlive, send and receive buffer sizes, soLinger,
+   * connectTimeout, idleTimeout, a proxy and with the native transport tcpFastOpen, tcpCork and tcpQuickAck. All
+   * options are kept when the config is converted to json. The ssl related settings (ssl, trustAll, hostname verification and the trust
+   * store) are always set from the corresponding properties of the MailConfig. The native transport (epoll) is
+   * enabled for the Vert.x instance with {@code VertxOptions.setPreferNativeTransport}.
+   *
+   * @param netClientOptions the options or null to use the defaults
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setNetClientOptions(NetClientOptions netClientOptions) {
+    this.netClientOptions = netClientOptions;
+    return this;
+  }
+
+  /**
+   * get if the pool prefers connections of the event loop of the caller
+   *
+   * @return the eventLoopAffinity value
+   */
+  public boolean isEventLoopAffinity() {
+    return eventLoopAffinity;
+  }
+
+  /**
+   * set if the pool prefers connections of the event loop of the caller
+   * <p>
+   * if enabled, the pool is partitioned by event loop: a send operation uses an idle connection that was opened on
+   * the event loop of the caller if there is one, then opens a new connection if the pool size allows it and only
+   * then uses an idle connection of another event loop. This avoids handing connections between threads when a
+   * shared client is used by many verticle instances.
+   *
+   * @param eventLoopAffinity true to enable, default is false
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setEventLoopAffinity(boolean eventLoopAffinity) {
+    this.eventLoopAffinity = eventLoopAffinity;
+    return this;
+  }
+
+  /**
+   * get the time in milliseconds to wait for the greeting of the server after the connection has been opened
+   *
+   * @return the greetingTimeout
+   */
+  public long getGreetingTimeout() {
+    return greetingTimeout;
+  }
+
+  /**
+   * set the time in milliseconds to wait for the greeting of the server after the connection has been opened
+   * <p>
+   * if the server doesn't reply in time, the connection is closed and the operation fails
+   *
+   * @param greetingTimeout the timeout in milliseconds, 0 to wait forever (default is 300000)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setGreetingTimeout(long greetingTimeout) {
+    if (greetingTimeout < 0) {
+      throw new IllegalArgumentException("greetingTimeout must be >= 0");
+    }
+    this.greetingTimeout = greetingTimeout;
+    return this;
+  }
+
+  /**
+   * get the time in milliseconds to wait for the reply to the EHLO, HELO and STARTTLS commands
+   *
+   * @return the ehloTimeout
+   */
+  public long getEhloTimeout() {
+    return ehloTimeout;
+  }
+
+  /**
+   * set the time in milliseconds to wait for the reply to the EHLO, HELO and STARTTLS commands
+   * <p>
+   * if the server doesn't reply in time, the connection is closed and the operation fails
+   *
+   * @param ehloTimeout the timeout in milliseconds, 0 to wait forever (default is 300000)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setEhloTimeout(long ehloTimeout) {
+    if (ehloTimeout < 0) {
+      throw new IllegalArgumentException("ehloTimeout must be >= 0");
+    }
+    this.ehloTimeout = ehloTimeout;
+    return this;
+  }
+
+  /**
+   * get the time in milliseconds to wait for each reply of the authentication exchange
+   *
+   * @return the authTimeout
+   */
+  public long getAuthTimeout() {
+    return authTimeout;
+  }
+
+  /**
+   * set the time in milliseconds to wait for each reply of the authentication exchange
+   * <p>
+   * if the server doesn't reply in time, the connection is closed and the operation fails
+   *
+   * @param authTimeout the timeout in milliseconds, 0 to wait forever (default is 300000)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setAuthTimeout(long authTimeout) {
+    if (authTimeout < 0) {
+      throw new IllegalArgumentException("authTimeout must be >= 0");
+    }
+    this.authTimeout = authTimeout;
+    return this;
+  }
+
+  /**
+   * get the time in milliseconds to wait for the reply to the MAIL FROM, RCPT TO, DATA, RSET and QUIT commands
+   *
+   * @return the envelopeTimeout
+   */
+  public long getEnvelopeTimeout() {
+    return envelopeTimeout;
+  }
+
+  /**
+   * set the time in milliseconds to wait for the reply to the MAIL FROM, RCPT TO, DATA, RSET and QUIT commands
+   * <p>
+   * if the server doesn't reply in time, the connection is closed and the operation fails
+   *
+   * @param envelopeTimeout the timeout in milliseconds, 0 to wait forever (default is 300000)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setEnvelopeTimeout(long envelopeTimeout) {
+    if (envelopeTimeout < 0) {
+      throw new IllegalArgumentException("envelopeTimeout must be >= 0");
+    }
+    this.envelopeTimeout = envelopeTimeout;
+    return this;
+  }
+
+  /**
+   * get the time in milliseconds to wait for the reply after the end of the message data
+   *
+   * @return the dataEndTimeout
+   */
+  public long getDataEndTimeout() {
+    return dataEndTimeout;
+  }
+
+  /**
+   * set the time in milliseconds to wait for the reply after the end of the message data
+   * <p>
+   * if the server doesn't reply in time, the connection is closed and the operation fails
+   *
+   * @param dataEndTimeout the timeout in milliseconds, 0 to wait forever (default is 600000)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setDataEndTimeout(long dataEndTimeout) {
+    if (dataEndTimeout < 0) {
+      throw new IllegalArgumentException("dataEndTimeout must be >= 0");
+    }
+    this.dataEndTimeout = dataEndTimeout;
+    return this;
+  }
+
+  /**
+   * get the max encoded size of the messages the client sends at one time
+   *
+   * @return the maxInFlightBytes
+   */
+  public long getMaxInFlightBytes() {
+    return maxInFlightBytes;
+  }
+
+  /**
+   * set the max encoded size of the messages the client sends at one time
+   * <p>
+   * the encoded size of each message is computed from its structure before it is encoded, like the SIZE parameter of
+   * MAIL FROM. Send operations that would exceed the limit wait until other operations have finished, at most as long
+   * as the acquireTimeout or sendTimeout of the operation allows. The wait queue of the budget has its own
+   * maxWaitQueueSize limit, which is the same setting as the wait queue of the connection pool: if maxWaitQueueSize
+   * operations are already waiting for the budget, the operation fails immediately. A single message larger than the
+   * limit is sent when no other message is in flight.
+   *
+   * @param maxInFlightBytes the limit in bytes, 0 for no limit (default is 0)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setMaxInFlightBytes(long maxInFlightBytes) {
+    if (maxInFlightBytes < 0) {
+      throw new IllegalArgumentException("maxInFlightBytes must be >= 0");
+    }
+    this.maxInFlightBytes = maxInFlightBytes;
+    return this;
+  }
+
+  /**
+   * get the size from which messages are encoded on a worker thread
+   *
+   * @return the workerEncodingThreshold
+   */
+  public long getWorkerEncodingThreshold() {
+    return workerEncodingThreshold;
+  }
+
+  /**
+   * set the size from which messages are encoded on a worker thread
+   * <p>
+   * messages with an encoded size of at least this number of bytes are encoded on a worker thread while the MAIL FROM
+   * and RCPT TO commands are running, the attachments of these messages are encoded in parallel. Smaller messages are
+   * encoded on the event loop after the DATA command.
+   *
+   * @param workerEncodingThreshold the size in bytes, 0 to always encode on the event loop (default is 1048576)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setWorkerEncodingThreshold(long workerEncodingThreshold) {
+    if (workerEncodingThreshold < 0) {
+      throw new IllegalArgumentException("workerEncodingThreshold must be >= 0");
+    }
+    this.workerEncodingThreshold = workerEncodingThreshold;
+    return this;
+  }
+
+  /**
+   * get the max number of recipients of a single SMTP transaction
+   *
+   * @return the maxRecipientsPerTransaction
+   */
+  public int getMaxRecipientsPerTransaction() {
+    return maxRecipientsPerTransaction;
+  }
+
+  /**
+   * set the max number of recipients of a single SMTP transaction
+   * <p>
+   * a message with more recipients is encoded once and sent in several transactions with at most this number of
+   * recipients each, the transactions run in parallel on the connections of the pool and the result is merged into
+   * a single MailResult. This is useful for servers that reject further recipients of a transaction (e.g. with
+   * 452 too many recipients)
+   *
+   * @param maxRecipientsPerTransaction the max number of recipients, 0 for no limit (default is 0)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setMaxRecipientsPerTransaction(int maxRecipientsPerTransaction) {
+    if (maxRecipientsPerTransaction < 0) {
+      throw new IllegalArgumentException("maxRecipientsPerTransaction must be >= 0");
+    }
+    this.maxRecipientsPerTransaction = maxRecipientsPerTransaction;
+    return this;
+  }
+
+  /**
+   * get whether the client speaks LMTP instead of SMTP
+   *
+   * @return the lmtp value
+   */
+  public boolean isLmtp() {
+    return lmtp;
+  }
+
+  /**
+   * set whether the client speaks LMTP (RFC 2033) instead of SMTP, e.g. to deliver directly to the mailboxes of a
+   * local mail store
+   * <p>
+   * the client sends LHLO instead of EHLO and reads the final reply of the server for every recipient after the mail
+   * data. The operation succeeds if the mail was delivered to at least one recipient, the replies are returned in
+   * {@link MailResult#getRecipientReplies()}. The option disableEsmtp is ignored in LMTP mode
+   *
+   * @param lmtp true to use LMTP (default is false)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setLmtp(boolean lmtp) {
+    this.lmtp = lmtp;
+    return this;
+  }
+
+  /**
+   * get the path of the Unix domain socket of the mail server
+   *
+   * @return the domainSocketPath or null
+   */
+  public String getDomainSocketPath() {
+    return domainSocketPath;
+  }
+
+  /**
+   * set the path of a Unix domain socket the mail server listens on, e.g. a local MTA
+   * <p>
+   * if this is set, the connections are opened to the domain socket instead of hostname and port, this avoids the TCP
+   * handshake and the loopback device. Domain sockets are only supported by the native transport, the Vertx instance
+   * has to be created with {@link io.vertx.core.VertxOptions#setPreferNativeTransport(boolean)} and the native
+   * transport (e.g. epoll) has to be on the classpath, otherwise the send operations fail
+   *
+   * @param domainSocketPath the path of the socket file or null to connect with TCP (default is null)
+   * @return this to be able to use the object fluently
+   */
+  public MailConfig setDomainSocketPath(String domainSocketPath) {
+    this.domainSocketPath = domainSocketPath;
+    return this;
+  }
+
   /**
    * convert config object to Json representation
    *
@@ -585,13 +982,55 @@ public class MailConfig {
     if (disableEsmtp) {
       json.put("disableEsmtp", true);
     }
+    if (maxWaitQueueSize != DEFAULT_MAX_WAIT_QUEUE_SIZE) {
+      json.put("maxWaitQueueSize", maxWaitQueueSize);
+    }
+    if (netClientOptions != null) {
+      json.put("netClientOptions", NetClientOptionsJson.toJson(netClientOptions));
+    }
+    if (eventLoopAffinity) {
+      json.put("eventLoopAffinity", true);
+    }
+    if (greetingTimeout != DEFAULT_GREETING_TIMEOUT) {
+      json.put("greetingTimeout", greetingTimeout);
+    }
+    if (ehloTimeout != DEFAULT_EHLO_TIMEOUT) {
+      json.put("ehloTimeout", ehloTimeout);
+    }
+    if (authTimeout != DEFAULT_AUTH_TIMEOUT) {
+      json.put("authTimeout", authTimeout);
+    }
+    if (envelopeTimeout != DEFAULT_ENVELOPE_TIMEOUT) {
+      json.put("envelopeTimeout", envelopeTimeout);
+    }
+    if (dataEndTimeout != DEFAULT_DATA_END_TIMEOUT) {
+      json.put("dataEndTimeout", dataEndTimeout);
+    }
+    if (maxInFlightBytes != DEFAULT_MAX_IN_FLIGHT_BYTES) {
+      json.put("maxInFlightBytes", maxInFlightBytes);
+    }
+    if (workerEncodingThreshold != DEFAULT_WORKER_ENCODING_THRESHOLD) {
+      json.put("workerEncodingThreshold", workerEncodingThreshold);
+    }
+    if (maxRecipientsPerTransaction != DEFAULT_MAX_RECIPIENTS_PER_TRANSACTION) {
+      json.put("maxRecipientsPerTransaction", maxRecipientsPerTransaction);
+    }
+    if (lmtp) {
+      json.put("lmtp", true);
+    }
+    if (domainSocketPath != null) {
+      json.put("domainSocketPath", domainSocketPath);
+    }
 
     return json;
   }
 
   private List<Object> getList() {
     return Arrays.asList(hostname, port, starttls, login, username, password, ssl, trustAll, keyStore,
-        keyStorePassword, authMethods, ownHostname, maxPoolSize, keepAlive, allowRcptErrors, disableEsmtp);
+        keyStorePassword, authMethods, ownHostname, maxPoolSize, keepAlive, allowRcptErrors, disableEsmtp,
+        maxWaitQueueSize, netClientOptions, eventLoopAffinity, greetingTimeout, ehloTimeout, authTimeout,
+        envelopeTimeout, dataEndTimeout, maxInFlightBytes, workerEncodingThreshold, maxRecipientsPerTransaction,
+        lmtp, domainSocketPath);
   }
 
   /*
@@ -0,0 +1,184 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mail;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.annotations.GenIgnore;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * the envelope of a single SMTP transaction, i.e. the MAIL FROM address and the RCPT TO addresses
+ * <p>
+ * this is used to send the same message to different envelopes with {@link MailClient#sendMailEnvelopes}, the
+ * headers of the message are not changed by the envelope
+ */
+@DataObject
+public class MailEnvelope {
+
+  private String from;
+  private List<String> recipients;
+
+  /**
+   * construct an empty MailEnvelope object
+   */
+  public MailEnvelope() {
+  }
+
+  /**
+   * construct a MailEnvelope object with the given sender and recipients
+   *
+   * @param from       the MAIL FROM address or null to use the sender of the message
+   * @param recipients the RCPT TO addresses
+   */
+  public MailEnvelope(String from, List<String> recipients) {
+    this.from = from;
+    this.recipients = recipients;
+  }
+
+  /**
+   * copy object from another MailEnvelope object
+   *
+   * @param other object to copy
+   */
+  public MailEnvelope(MailEnvelope other) {
+    Objects.requireNonNull(other);
+    from = other.from;
+    recipients = other.recipients == null ? null : new ArrayList<>(other.recipients);
+  }
+
+  /**
+   * construct a MailEnvelope object from a JsonObject representation
+   *
+   * @param json json object to copy
+   */
+  public MailEnvelope(JsonObject json) {
+    Objects.requireNonNull(json);
+    from = json.getString("from");
+    JsonArray array = json.getJsonArray("recipients");
+    if (array != null) {
+      recipients = new ArrayList<>(array.size());
+      for (int i = 0; i < array.size(); i++) {
+        recipients.add(array.getString(i));
+      }
+    }
+  }
+
+  /**
+   * get the MAIL FROM address
+   *
+   * @return the sender address or null
+   */
+  public String getFrom() {
+    return from;
+  }
+
+  /**
+   * set the MAIL FROM address of the transaction
+   * <p>
+   * if this is null, the bounce address or the from address of the message is used
+   *
+   * @param from the sender address (e.g. a VERP bounce address)
+   * @return this to be able to use it fluently
+   */
+  public MailEnvelope setFrom(String from) {
+    this.from = from;
+    return this;
+  }
+
+  /**
+   * get the RCPT TO addresses
+   *
+   * @return the list of recipients
+   */
+  public List<String> getRecipients() {
+    return recipients;
+  }
+
+  /**
+   * set the RCPT TO addresses of the transaction
+   * <p>
+   * the To, Cc and Bcc headers of the message are not used to determine the recipients of the transaction
+   *
+   * @param recipients the list of recipient addresses
+   * @return this to be able to use it fluently
+   */
+  public MailEnvelope setRecipients(List<String> recipients) {
+    this.recipients = recipients;
+    return this;
+  }
+
+  /**
+   * helper method for single recipient
+   *
+   * @param recipient the recipient address
+   * @return this to be able to use it fluently
+   */
+  @GenIgnore
+  public MailEnvelope setRecipients(String recipient) {
+    recipients = Utils.asList(recipient);
+    return this;
+  }
+
+  /**
+   * convert the MailEnvelope object to JsonObject representation
+   *
+   * @return the json object
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (from != null) {
+      json.put("from", from);
+    }
+    if (recipients != null) {
+      json.put("recipients", new JsonArray(new ArrayList<>(recipients)));
+    }
+    return json;
+  }
+
+  private List<Object> getList() {
+    return Arrays.asList(from, recipients);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof MailEnvelope)) {
+      return false;
+    }
+    final MailEnvelope envelope = (MailEnvelope) o;
+
+    return getList().equals(envelope.getList());
+  }
+
+  @Override
+  public int hashCode() {
+    return getList().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return toJson().encode();
+  }
+
+}
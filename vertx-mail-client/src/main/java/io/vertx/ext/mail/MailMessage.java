@@ -54,6 +54,10 @@ public class MailMessage {
 
   /**
    * copy object to another @link MailMessage object
+   * <p>
+   * the attachments are copied without duplicating their data, the copied attachments have a read-only view of the
+   * data Buffers (see {@link MailAttachment#MailAttachment(MailAttachment)}). Use {@link #deepCopy()} to get a copy
+   * with writable data Buffers that is completely independent of this object.
    *
    * @param other object to copy
    */
@@ -76,6 +80,32 @@ public class MailMessage {
     if (other.headers != null) {
       headers = new CaseInsensitiveHeaders().addAll(other.headers);
     }
+    this.fixedHeaders = other.fixedHeaders;
+  }
+
+  /**
+   * create a copy of this object that doesn't share the attachment data
+   *
+   * @return the copy
+   */
+  @GenIgnore
+  public MailMessage deepCopy() {
+    MailMessage copy = new MailMessage(this);
+    if (attachment != null) {
+      copy.attachment = deepCopyAttachments(attachment);
+    }
+    if (inlineAttachment != null) {
+      copy.inlineAttachment = deepCopyAttachments(inlineAttachment);
+    }
+    return copy;
+  }
+
+  private List<MailAttachment> deepCopyAttachments(List<MailAttachment> attachment) {
+    List<MailAttachment> newList = new ArrayList<MailAttachment>(attachment.size());
+    for (MailAttachment a : attachment) {
+      newList.add(a.deepCopy());
+    }
+    return newList;
   }
 
   /**
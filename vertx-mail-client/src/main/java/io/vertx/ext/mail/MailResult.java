@@ -21,7 +21,9 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represent the result of the sendMail operation
@@ -33,6 +35,8 @@ public class MailResult {
 
   private String messageID;
   private List<String> recipients;
+  private MailTiming timing;
+  private Map<String, String> recipientReplies;
 
   public MailResult() {
     messageID = null;
@@ -42,6 +46,8 @@ public class MailResult {
   public MailResult(MailResult other) {
     messageID = other.messageID;
     recipients = new ArrayList<>(other.recipients);
+    timing = other.timing == null ? null : new MailTiming(other.timing);
+    recipientReplies = other.recipientReplies == null ? null : new LinkedHashMap<>(other.recipientReplies);
   }
 
   @SuppressWarnings("unchecked")
@@ -49,6 +55,15 @@ public class MailResult {
     messageID = json.getString("messageId");
     JsonArray jsonArray = json.getJsonArray("recipients");
     recipients = jsonArray == null ? new ArrayList<>() : (List<String>) jsonArray.getList();
+    JsonObject jsonTiming = json.getJsonObject("timing");
+    timing = jsonTiming == null ? null : new MailTiming(jsonTiming);
+    JsonObject jsonReplies = json.getJsonObject("recipientReplies");
+    if (jsonReplies != null) {
+      recipientReplies = new LinkedHashMap<>();
+      for (String recipient : jsonReplies.fieldNames()) {
+        recipientReplies.put(recipient, jsonReplies.getString(recipient));
+      }
+    }
   }
 
   public JsonObject toJson() {
@@ -59,6 +74,14 @@ public class MailResult {
     if (recipients != null) {
       json.put("recipients", recipients);
     }
+    if (timing != null) {
+      json.put("timing", timing.toJson());
+    }
+    if (recipientReplies != null) {
+      JsonObject jsonReplies = new JsonObject();
+      recipientReplies.forEach(jsonReplies::put);
+      json.put("recipientReplies", jsonReplies);
+    }
     return json;
   }
 
@@ -92,6 +115,43 @@ public class MailResult {
     return this;
   }
 
+  /**
+   * get the timing breakdown of the send operation, this is only recorded when requested by
+   * {@link MailSendOptions#setRecordTiming(boolean)}
+   *
+   * @return the timing or null
+   */
+  public MailTiming getTiming() {
+    return timing;
+  }
+
+  /**
+   * @param timing the timing to set
+   */
+  public MailResult setTiming(MailTiming timing) {
+    this.timing = timing;
+    return this;
+  }
+
+  /**
+   * get the final reply of the server for each recipient, this is only set in LMTP mode where the server sends one
+   * reply per recipient after the mail data. The recipients list contains only the recipients with a positive reply
+   *
+   * @return the map of recipient address to reply or null
+   * @see MailConfig#setLmtp(boolean)
+   */
+  public Map<String, String> getRecipientReplies() {
+    return recipientReplies;
+  }
+
+  /**
+   * @param recipientReplies the recipientReplies to set
+   */
+  public MailResult setRecipientReplies(Map<String, String> recipientReplies) {
+    this.recipientReplies = recipientReplies;
+    return this;
+  }
+
   public String toString() {
     return toJson().encode();
   }
@@ -0,0 +1,224 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * options for a single send operation, these can be used to control how the operation
+ * is treated by the connection pool of the client
+ */
+@DataObject
+public class MailSendOptions {
+
+  public static final SendPriority DEFAULT_PRIORITY = SendPriority.NORMAL;
+  public static final long DEFAULT_ACQUIRE_TIMEOUT = 0;
+  public static final boolean DEFAULT_RECORD_TIMING = false;
+  public static final long DEFAULT_SEND_TIMEOUT = 0;
+
+  private SendPriority priority = DEFAULT_PRIORITY;
+  private long acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+  private boolean recordTiming = DEFAULT_RECORD_TIMING;
+  private long sendTimeout = DEFAULT_SEND_TIMEOUT;
+
+  /**
+   * construct an options object with default values
+   */
+  public MailSendOptions() {
+    // Use the default values.
+  }
+
+  /**
+   * copy options object from another MailSendOptions object
+   *
+   * @param other the object to be copied
+   */
+  public MailSendOptions(MailSendOptions other) {
+    Objects.requireNonNull(other);
+    priority = other.priority;
+    acquireTimeout = other.acquireTimeout;
+    recordTiming = other.recordTiming;
+    sendTimeout = other.sendTimeout;
+  }
+
+  /**
+   * construct options object from Json representation
+   *
+   * @param json the json object to copy
+   */
+  public MailSendOptions(JsonObject json) {
+    Objects.requireNonNull(json);
+    String priorityOption = json.getString("priority");
+    if (priorityOption != null) {
+      priority = SendPriority.valueOf(priorityOption.toUpperCase(Locale.ENGLISH));
+    }
+    acquireTimeout = json.getLong("acquireTimeout", DEFAULT_ACQUIRE_TIMEOUT);
+    recordTiming = json.getBoolean("recordTiming", DEFAULT_RECORD_TIMING);
+    sendTimeout = json.getLong("sendTimeout", DEFAULT_SEND_TIMEOUT);
+  }
+
+  /**
+   * get the priority of the operation when waiting for a connection
+   *
+   * @return the priority
+   */
+  public SendPriority getPriority() {
+    return priority;
+  }
+
+  /**
+   * set the priority of the operation when waiting for a connection
+   * <p>
+   * operations with a higher priority are given a free connection first
+   *
+   * @param priority the priority (default is NORMAL)
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailSendOptions setPriority(SendPriority priority) {
+    Objects.requireNonNull(priority, "no null priority accepted");
+    this.priority = priority;
+    return this;
+  }
+
+  /**
+   * get the time in milliseconds to wait for a free connection
+   *
+   * @return the acquire timeout
+   */
+  public long getAcquireTimeout() {
+    return acquireTimeout;
+  }
+
+  /**
+   * set the time in milliseconds the operation may wait for a free connection in the pool
+   * <p>
+   * if no connection gets available within this time, the operation fails. 0 means that the
+   * operation will wait as long as necessary
+   *
+   * @param acquireTimeout the timeout in milliseconds (default is 0)
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailSendOptions setAcquireTimeout(long acquireTimeout) {
+    if (acquireTimeout < 0) {
+      throw new IllegalArgumentException("acquireTimeout must be >= 0");
+    }
+    this.acquireTimeout = acquireTimeout;
+    return this;
+  }
+
+  /**
+   * get whether a timing breakdown is recorded in the MailResult
+   *
+   * @return the recordTiming
+   */
+  public boolean isRecordTiming() {
+    return recordTiming;
+  }
+
+  /**
+   * set whether a timing breakdown of the operation is recorded and returned in the MailResult
+   *
+   * @param recordTiming true to record the timing (default is false)
+   * @return a reference to this, so the API can be used fluently
+   * @see MailTiming
+   */
+  public MailSendOptions setRecordTiming(boolean recordTiming) {
+    this.recordTiming = recordTiming;
+    return this;
+  }
+
+  /**
+   * get the time in milliseconds the whole send operation may take
+   *
+   * @return the send timeout
+   */
+  public long getSendTimeout() {
+    return sendTimeout;
+  }
+
+  /**
+   * set the time in milliseconds the whole send operation may take
+   * <p>
+   * the time is counted from the moment the operation requests a connection from the pool, so it includes waiting
+   * for a free connection, opening the connection and the complete SMTP transaction. If the operation has not
+   * finished in time, it fails and the connection it uses is closed. 0 means that there is no deadline, the single
+   * commands are still limited by the timeouts of the MailConfig
+   *
+   * @param sendTimeout the timeout in milliseconds (default is 0)
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailSendOptions setSendTimeout(long sendTimeout) {
+    if (sendTimeout < 0) {
+      throw new IllegalArgumentException("sendTimeout must be >= 0");
+    }
+    this.sendTimeout = sendTimeout;
+    return this;
+  }
+
+  /**
+   * convert the options object to Json representation
+   *
+   * @return the json object
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.put("priority", priority);
+    if (acquireTimeout != DEFAULT_ACQUIRE_TIMEOUT) {
+      json.put("acquireTimeout", acquireTimeout);
+    }
+    if (recordTiming != DEFAULT_RECORD_TIMING) {
+      json.put("recordTiming", recordTiming);
+    }
+    if (sendTimeout != DEFAULT_SEND_TIMEOUT) {
+      json.put("sendTimeout", sendTimeout);
+    }
+    return json;
+  }
+
+  private List<Object> getList() {
+    return Arrays.asList(priority, acquireTimeout, recordTiming, sendTimeout);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || !(o instanceof MailSendOptions)) {
+      return false;
+    }
+    final MailSendOptions options = (MailSendOptions) o;
+
+    return getList().equals(options.getList());
+  }
+
+  @Override
+  public int hashCode() {
+    return getList().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return toJson().encode();
+  }
+}
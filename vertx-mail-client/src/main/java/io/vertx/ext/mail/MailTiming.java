@@ -0,0 +1,329 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * timing breakdown of a single send operation, this is returned in the MailResult if it was
+ * requested with {@link MailSendOptions#setRecordTiming(boolean)}
+ * <p>
+ * all times are in nanoseconds
+ */
+@DataObject
+public class MailTiming {
+
+  private long acquireTime;
+  private boolean newConnection;
+  private long connectTime;
+  private long mailFromTime;
+  private List<Long> rcptToTimes;
+  private long encodeTime;
+  private long dataTime;
+  private long finalReplyTime;
+  private long bytesSent;
+  private String queueId;
+
+  /**
+   * construct an empty timing object
+   */
+  public MailTiming() {
+    rcptToTimes = new ArrayList<>();
+  }
+
+  /**
+   * copy timing object from another MailTiming object
+   *
+   * @param other the object to be copied
+   */
+  public MailTiming(MailTiming other) {
+    Objects.requireNonNull(other);
+    acquireTime = other.acquireTime;
+    newConnection = other.newConnection;
+    connectTime = other.connectTime;
+    mailFromTime = other.mailFromTime;
+    rcptToTimes = new ArrayList<>(other.rcptToTimes);
+    encodeTime = other.encodeTime;
+    dataTime = other.dataTime;
+    finalReplyTime = other.finalReplyTime;
+    bytesSent = other.bytesSent;
+    queueId = other.queueId;
+  }
+
+  /**
+   * construct timing object from Json representation
+   *
+   * @param json the json object to copy
+   */
+  public MailTiming(JsonObject json) {
+    Objects.requireNonNull(json);
+    acquireTime = json.getLong("acquireTime", 0L);
+    newConnection = json.getBoolean("newConnection", false);
+    connectTime = json.getLong("connectTime", 0L);
+    mailFromTime = json.getLong("mailFromTime", 0L);
+    rcptToTimes = new ArrayList<>();
+    JsonArray jsonArray = json.getJsonArray("rcptToTimes");
+    if (jsonArray != null) {
+      for (int i = 0; i < jsonArray.size(); i++) {
+        rcptToTimes.add(jsonArray.getLong(i));
+      }
+    }
+    encodeTime = json.getLong("encodeTime", 0L);
+    dataTime = json.getLong("dataTime", 0L);
+    finalReplyTime = json.getLong("finalReplyTime", 0L);
+    bytesSent = json.getLong("bytesSent", 0L);
+    queueId = json.getString("queueId");
+  }
+
+  /**
+   * get the time the operation waited for a connection, this includes the connect time if a new
+   * connection was opened
+   *
+   * @return the acquire time
+   */
+  public long getAcquireTime() {
+    return acquireTime;
+  }
+
+  /**
+   * @param acquireTime the acquire time to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setAcquireTime(long acquireTime) {
+    this.acquireTime = acquireTime;
+    return this;
+  }
+
+  /**
+   * get whether a new connection was opened for the operation
+   *
+   * @return true if a new connection was opened, false if a pooled connection was reused
+   */
+  public boolean isNewConnection() {
+    return newConnection;
+  }
+
+  /**
+   * @param newConnection whether a new connection was opened
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setNewConnection(boolean newConnection) {
+    this.newConnection = newConnection;
+    return this;
+  }
+
+  /**
+   * get the time for connect, initial dialogue, STARTTLS and login if a new connection was opened
+   *
+   * @return the connect time, 0 if a pooled connection was reused
+   */
+  public long getConnectTime() {
+    return connectTime;
+  }
+
+  /**
+   * @param connectTime the connect time to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setConnectTime(long connectTime) {
+    this.connectTime = connectTime;
+    return this;
+  }
+
+  /**
+   * get the round trip time of the MAIL FROM command
+   *
+   * @return the MAIL FROM time
+   */
+  public long getMailFromTime() {
+    return mailFromTime;
+  }
+
+  /**
+   * @param mailFromTime the MAIL FROM time to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setMailFromTime(long mailFromTime) {
+    this.mailFromTime = mailFromTime;
+    return this;
+  }
+
+  /**
+   * get the round trip times of the RCPT TO commands in the order of the recipients
+   *
+   * @return the RCPT TO times
+   */
+  public List<Long> getRcptToTimes() {
+    return rcptToTimes;
+  }
+
+  /**
+   * @param rcptToTimes the RCPT TO times to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setRcptToTimes(List<Long> rcptToTimes) {
+    this.rcptToTimes = rcptToTimes;
+    return this;
+  }
+
+  /**
+   * get the time used to encode the MIME message
+   *
+   * @return the encode time
+   */
+  public long getEncodeTime() {
+    return encodeTime;
+  }
+
+  /**
+   * @param encodeTime the encode time to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setEncodeTime(long encodeTime) {
+    this.encodeTime = encodeTime;
+    return this;
+  }
+
+  /**
+   * get the time of the DATA command and the transfer of the message data
+   *
+   * @return the data time
+   */
+  public long getDataTime() {
+    return dataTime;
+  }
+
+  /**
+   * @param dataTime the data time to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setDataTime(long dataTime) {
+    this.dataTime = dataTime;
+    return this;
+  }
+
+  /**
+   * get the time waiting for the server reply after the end of the message data
+   *
+   * @return the final reply time
+   */
+  public long getFinalReplyTime() {
+    return finalReplyTime;
+  }
+
+  /**
+   * @param finalReplyTime the final reply time to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setFinalReplyTime(long finalReplyTime) {
+    this.finalReplyTime = finalReplyTime;
+    return this;
+  }
+
+  /**
+   * get the number of bytes of message data sent after the DATA command
+   *
+   * @return the bytes sent
+   */
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  /**
+   * @param bytesSent the bytes sent to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setBytesSent(long bytesSent) {
+    this.bytesSent = bytesSent;
+    return this;
+  }
+
+  /**
+   * get the queue id the server returned in the final reply (e.g. "queued as 4A2B3C" for Postfix or
+   * "id=1abcde-000001-AB" for Exim)
+   *
+   * @return the queue id or null if the reply didn't contain a recognizable id
+   */
+  public String getQueueId() {
+    return queueId;
+  }
+
+  /**
+   * @param queueId the queue id to set
+   * @return this to be able to use it fluently
+   */
+  public MailTiming setQueueId(String queueId) {
+    this.queueId = queueId;
+    return this;
+  }
+
+  /**
+   * convert the timing object to Json representation
+   *
+   * @return the json object
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.put("acquireTime", acquireTime);
+    json.put("newConnection", newConnection);
+    json.put("connectTime", connectTime);
+    json.put("mailFromTime", mailFromTime);
+    if (rcptToTimes != null) {
+      json.put("rcptToTimes", new JsonArray(new ArrayList<>(rcptToTimes)));
+    }
+    json.put("encodeTime", encodeTime);
+    json.put("dataTime", dataTime);
+    json.put("finalReplyTime", finalReplyTime);
+    json.put("bytesSent", bytesSent);
+    Utils.putIfNotNull(json, "queueId", queueId);
+    return json;
+  }
+
+  private List<Object> getList() {
+    return Arrays.asList(acquireTime, newConnection, connectTime, mailFromTime, rcptToTimes, encodeTime, dataTime,
+        finalReplyTime, bytesSent, queueId);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || !(o instanceof MailTiming)) {
+      return false;
+    }
+    final MailTiming timing = (MailTiming) o;
+
+    return getList().equals(timing.getList());
+  }
+
+  @Override
+  public int hashCode() {
+    return getList().hashCode();
+  }
+
+  public String toString() {
+    return toJson().encode();
+  }
+}
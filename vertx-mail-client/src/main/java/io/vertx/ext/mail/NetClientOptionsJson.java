@@ -0,0 +1,190 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.JdkSSLEngineOptions;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.KeyCertOptions;
+import io.vertx.core.net.NetClientOptions;
+import io.vertx.core.net.OpenSSLEngineOptions;
+import io.vertx.core.net.PemKeyCertOptions;
+import io.vertx.core.net.PemTrustOptions;
+import io.vertx.core.net.PfxOptions;
+import io.vertx.core.net.ProxyOptions;
+import io.vertx.core.net.SSLEngineOptions;
+import io.vertx.core.net.TrustOptions;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * NetClientOptions doesn't have a toJson method in this Vert.x version, this writes all properties that are read by
+ * the json constructor of NetClientOptions with the names it uses, so that a MailConfig sent as json (e.g. to the
+ * MailServiceVerticle) keeps its socket options
+ */
+final class NetClientOptionsJson {
+
+  /**
+   * utility class only
+   */
+  private NetClientOptionsJson() {
+  }
+
+  static JsonObject toJson(NetClientOptions options) {
+    JsonObject json = new JsonObject()
+      // NetworkOptions
+      .put("sendBufferSize", options.getSendBufferSize())
+      .put("receiveBufferSize", options.getReceiveBufferSize())
+      .put("trafficClass", options.getTrafficClass())
+      .put("reuseAddress", options.isReuseAddress())
+      .put("reusePort", options.isReusePort())
+      .put("logActivity", options.getLogActivity())
+      // TCPSSLOptions
+      .put("tcpNoDelay", options.isTcpNoDelay())
+      .put("tcpKeepAlive", options.isTcpKeepAlive())
+      .put("soLinger", options.getSoLinger())
+      .put("usePooledBuffers", options.isUsePooledBuffers())
+      .put("idleTimeout", options.getIdleTimeout())
+      .put("ssl", options.isSsl())
+      .put("useAlpn", options.isUseAlpn())
+      .put("tcpFastOpen", options.isTcpFastOpen())
+      .put("tcpCork", options.isTcpCork())
+      .put("tcpQuickAck", options.isTcpQuickAck())
+      // ClientOptionsBase
+      .put("connectTimeout", options.getConnectTimeout())
+      .put("trustAll", options.isTrustAll())
+      // NetClientOptions
+      .put("reconnectAttempts", options.getReconnectAttempts())
+      .put("reconnectInterval", options.getReconnectInterval())
+      .put("hostnameVerificationAlgorithm", options.getHostnameVerificationAlgorithm());
+    putStrings(json, "enabledCipherSuites", options.getEnabledCipherSuites());
+    putStrings(json, "enabledSecureTransportProtocols", options.getEnabledSecureTransportProtocols());
+    putStrings(json, "crlPaths", options.getCrlPaths());
+    putBuffers(json, "crlValues", options.getCrlValues());
+    putKeyCertOptions(json, options.getKeyCertOptions());
+    putTrustOptions(json, options.getTrustOptions());
+    putSslEngineOptions(json, options.getSslEngineOptions());
+    if (options.getLocalAddress() != null) {
+      json.put("localAddress", options.getLocalAddress());
+    }
+    if (options.getMetricsName() != null) {
+      json.put("metricsName", options.getMetricsName());
+    }
+    if (options.getProxyOptions() != null) {
+      json.put("proxyOptions", proxyOptionsToJson(options.getProxyOptions()));
+    }
+    return json;
+  }
+
+  private static JsonObject proxyOptionsToJson(ProxyOptions options) {
+    JsonObject json = new JsonObject()
+      .put("type", options.getType().name())
+      .put("host", options.getHost())
+      .put("port", options.getPort());
+    if (options.getUsername() != null) {
+      json.put("username", options.getUsername());
+    }
+    if (options.getPassword() != null) {
+      json.put("password", options.getPassword());
+    }
+    return json;
+  }
+
+  private static void putKeyCertOptions(JsonObject json, KeyCertOptions options) {
+    if (options instanceof JksOptions) {
+      json.put("keyStoreOptions", storeToJson(((JksOptions) options).getPath(), ((JksOptions) options).getPassword(),
+        ((JksOptions) options).getValue()));
+    } else if (options instanceof PfxOptions) {
+      json.put("pfxKeyCertOptions", storeToJson(((PfxOptions) options).getPath(), ((PfxOptions) options).getPassword(),
+        ((PfxOptions) options).getValue()));
+    } else if (options instanceof PemKeyCertOptions) {
+      PemKeyCertOptions pem = (PemKeyCertOptions) options;
+      JsonObject pemJson = new JsonObject();
+      putString(pemJson, "keyPath", pem.getKeyPath());
+      putBuffer(pemJson, "keyValue", pem.getKeyValue());
+      putString(pemJson, "certPath", pem.getCertPath());
+      putBuffer(pemJson, "certValue", pem.getCertValue());
+      json.put("pemKeyCertOptions", pemJson);
+    }
+  }
+
+  private static void putTrustOptions(JsonObject json, TrustOptions options) {
+    if (options instanceof JksOptions) {
+      json.put("trustStoreOptions", storeToJson(((JksOptions) options).getPath(), ((JksOptions) options).getPassword(),
+        ((JksOptions) options).getValue()));
+    } else if (options instanceof PfxOptions) {
+      json.put("pfxTrustOptions", storeToJson(((PfxOptions) options).getPath(), ((PfxOptions) options).getPassword(),
+        ((PfxOptions) options).getValue()));
+    } else if (options instanceof PemTrustOptions) {
+      JsonObject pemJson = new JsonObject();
+      putStrings(pemJson, "certPaths", ((PemTrustOptions) options).getCertPaths());
+      putBuffers(pemJson, "certValues", ((PemTrustOptions) options).getCertValues());
+      json.put("pemTrustOptions", pemJson);
+    }
+  }
+
+  private static void putSslEngineOptions(JsonObject json, SSLEngineOptions options) {
+    if (options instanceof OpenSSLEngineOptions) {
+      json.put("openSslEngineOptions", new JsonObject()
+        .put("sessionCacheEnabled", ((OpenSSLEngineOptions) options).isSessionCacheEnabled()));
+    } else if (options instanceof JdkSSLEngineOptions) {
+      json.put("jdkSslEngineOptions", new JsonObject());
+    }
+  }
+
+  private static JsonObject storeToJson(String path, String password, Buffer value) {
+    JsonObject json = new JsonObject();
+    putString(json, "path", path);
+    putString(json, "password", password);
+    putBuffer(json, "value", value);
+    return json;
+  }
+
+  private static void putString(JsonObject json, String name, String value) {
+    if (value != null) {
+      json.put(name, value);
+    }
+  }
+
+  // buffers are base64 strings like in the generated converters
+  private static void putBuffer(JsonObject json, String name, Buffer value) {
+    if (value != null) {
+      json.put(name, Base64.getEncoder().encodeToString(value.getBytes()));
+    }
+  }
+
+  private static void putStrings(JsonObject json, String name, Collection<String> values) {
+    if (values != null && !values.isEmpty()) {
+      json.put(name, new JsonArray(new ArrayList<>(values)));
+    }
+  }
+
+  private static void putBuffers(JsonObject json, String name, Collection<Buffer> values) {
+    if (values != null && !values.isEmpty()) {
+      JsonArray array = new JsonArray();
+      for (Buffer value : values) {
+        array.add(Base64.getEncoder().encodeToString(value.getBytes()));
+      }
+      json.put(name, array);
+    }
+  }
+
+}
@@ -0,0 +1,32 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+/**
+ * priority of a send operation while it is waiting for a free connection in the pool
+ * <br>
+ * either HIGH, NORMAL or LOW
+ * <p>
+ * when all connections of the pool are busy, the waiting operations are served in the order HIGH, NORMAL, LOW
+ * and in order of arrival within the same priority. This can be used to let transactional mails
+ * (e.g. password resets) overtake bulk mails sent at the same time.
+ */
+public enum SendPriority {
+  HIGH,
+  NORMAL,
+  LOW;
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * encode SMTP commands and lines of the mail body directly into a buffer and write the collected lines to the socket
+ * with a single write operation
+ * <p>
+ * the buffers are plain heap buffers owned by Vert.x, the socket doesn't release the buffers it writes, so a pooled
+ * buffer would never be returned to the pool
+ * <p>
+ * the commands that do not have parameters and the prefixes of the address commands are encoded only once
+ */
+class CommandWriter {
+
+  static final byte[] RSET = command("RSET");
+  static final byte[] DATA = command("DATA");
+  static final byte[] QUIT = command("QUIT");
+  static final byte[] END_OF_DATA = command(".");
+  static final byte[] MAIL_FROM = ascii("MAIL FROM:<");
+  static final byte[] RCPT_TO = ascii("RCPT TO:<");
+
+  /**
+   * pending data is written to the socket when it exceeds this size, this keeps the write queue accounting of the
+   * socket reasonably accurate when writing the mail body
+   */
+  static final int FLUSH_THRESHOLD = 8192;
+
+  private static final byte[] CRLF = ascii("\r\n");
+  private static final byte[] ADDRESS_END = ascii(">");
+
+  private final Handler<Buffer> output;
+  private Buffer pending;
+
+  CommandWriter(NetSocket ns) {
+    this(ns::write);
+  }
+
+  /**
+   * @param output receives the collected data on every flush
+   */
+  CommandWriter(Handler<Buffer> output) {
+    this.output = output;
+  }
+
+  private static byte[] ascii(String str) {
+    return str.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] command(String str) {
+    return ascii(str + "\r\n");
+  }
+
+  private Buffer buffer(int size) {
+    if (pending == null) {
+      pending = Buffer.buffer(Math.max(size, 256));
+    }
+    return pending;
+  }
+
+  /**
+   * append a pre-encoded command including the line terminator
+   */
+  CommandWriter append(byte[] command) {
+    buffer(command.length).appendBytes(command);
+    return this;
+  }
+
+  /**
+   * append a line and the line terminator, the line is encoded as UTF-8
+   */
+  CommandWriter appendLine(CharSequence line) {
+    buffer(line.length() + CRLF.length).appendString(line.toString()).appendBytes(CRLF);
+    return this;
+  }
+
+  /**
+   * append an address command like {@code MAIL FROM:<address> SIZE=1000}
+   *
+   * @param prefix     one of the pre-encoded prefixes {@link #MAIL_FROM} or {@link #RCPT_TO}
+   * @param address    the address
+   * @param parameters the parameters after the closing bracket starting with a space or an empty string
+   */
+  CommandWriter appendAddress(byte[] prefix, String address, String parameters) {
+    Buffer buf = buffer(prefix.length + address.length() + parameters.length() + 3);
+    buf.appendBytes(prefix).appendString(address).appendBytes(ADDRESS_END);
+    if (!parameters.isEmpty()) {
+      buf.appendString(parameters);
+    }
+    buf.appendBytes(CRLF);
+    return this;
+  }
+
+  /**
+   * @return the number of bytes that have not been written yet
+   */
+  int pendingBytes() {
+    return pending == null ? 0 : pending.length();
+  }
+
+  /**
+   * write the pending data if it exceeds {@link #FLUSH_THRESHOLD}
+   */
+  void flushIfFull() {
+    if (pendingBytes() >= FLUSH_THRESHOLD) {
+      flush();
+    }
+  }
+
+  /**
+   * write the pending data to the socket, the buffer is garbage collected after it has been written
+   */
+  void flush() {
+    if (pending != null) {
+      Buffer buf = pending;
+      pending = null;
+      output.handle(buf);
+    }
+  }
+
+  /**
+   * drop the pending data, e.g. when the socket has been closed
+   */
+  void discard() {
+    pending = null;
+  }
+
+}
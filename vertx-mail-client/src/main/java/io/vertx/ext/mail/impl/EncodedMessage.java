@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mail.impl;
+
+/**
+ * a message that has been encoded already, this is shared by the transactions of sendMailEnvelopes so the message is
+ * encoded only once
+ */
+class EncodedMessage {
+
+  final String text;
+  // size of the encoded message in octets as it is used in the SIZE extension
+  final long size;
+  final String messageID;
+
+  EncodedMessage(String text, long size, String messageID) {
+    this.text = text;
+    this.size = size;
+    this.messageID = messageID;
+  }
+
+}
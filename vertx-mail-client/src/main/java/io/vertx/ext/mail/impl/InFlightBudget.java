@@ -0,0 +1,169 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * limit for the encoded size of the messages a client is sending at one time
+ * <p>
+ * operations that don't fit into the budget wait until other operations have finished, until their timeout or fail
+ * immediately if the wait queue is full. A message that is larger than the whole budget is admitted when no other
+ * message is in flight, otherwise it could never be sent.
+ */
+class InFlightBudget {
+
+  private static final Logger log = LoggerFactory.getLogger(InFlightBudget.class);
+
+  private final Vertx vertx;
+  private final long maxBytes;
+  private final int maxWaitQueueSize;
+  private final Queue<Waiter> waiters = new ArrayDeque<>();
+  private long usedBytes;
+
+  /**
+   * @param vertx            the Vertx instance, used for the timeouts of waiting operations
+   * @param maxBytes         the max number of bytes in flight
+   * @param maxWaitQueueSize the max number of waiting operations, -1 for an unbounded queue
+   */
+  InFlightBudget(Vertx vertx, long maxBytes, int maxWaitQueueSize) {
+    this.vertx = vertx;
+    this.maxBytes = maxBytes;
+    this.maxWaitQueueSize = maxWaitQueueSize;
+  }
+
+  /**
+   * reserve bytes of the budget, the handler is called on the context when the bytes have been reserved
+   *
+   * @param bytes   the encoded size of the message
+   * @param timeout the time in milliseconds the operation may wait, 0 to wait as long as necessary
+   * @param context the context of the operation
+   * @param handler the handler that continues the operation
+   */
+  void acquire(long bytes, long timeout, Context context, Handler<AsyncResult<Void>> handler) {
+    boolean admitted;
+    synchronized (this) {
+      if (waiters.isEmpty() && fits(bytes)) {
+        usedBytes += bytes;
+        admitted = true;
+      } else if (maxWaitQueueSize < 0 || waiters.size() < maxWaitQueueSize) {
+        log.debug("waiting for " + bytes + " bytes of the in-flight budget");
+        Waiter waiter = new Waiter(bytes, context, handler);
+        if (timeout > 0) {
+          waiter.timerId = vertx.setTimer(timeout, id -> timeout(waiter));
+        }
+        waiters.add(waiter);
+        return;
+      } else {
+        admitted = false;
+      }
+    }
+    if (admitted) {
+      handler.handle(Future.succeededFuture());
+    } else {
+      handler.handle(Future.failedFuture("in-flight byte budget exceeded"));
+    }
+  }
+
+  /**
+   * give back the bytes of a finished operation and continue waiting operations that fit into the budget now
+   *
+   * @param bytes the size that was reserved by acquire
+   */
+  void release(long bytes) {
+    List<Waiter> admitted;
+    synchronized (this) {
+      usedBytes -= bytes;
+      admitted = admitWaiters();
+    }
+    continueWaiters(admitted);
+  }
+
+  private void timeout(Waiter waiter) {
+    List<Waiter> admitted;
+    synchronized (this) {
+      if (!waiters.remove(waiter)) {
+        // admitted in the meantime
+        return;
+      }
+      // the operations behind the removed one may fit now
+      admitted = admitWaiters();
+    }
+    log.debug("timeout waiting for the in-flight budget");
+    waiter.context.runOnContext(v -> waiter.handler.handle(
+        Future.failedFuture("timeout waiting for in-flight budget")));
+    continueWaiters(admitted);
+  }
+
+  // guarded by this
+  private List<Waiter> admitWaiters() {
+    List<Waiter> admitted = new ArrayList<>();
+    Waiter waiter;
+    while ((waiter = waiters.peek()) != null && fits(waiter.bytes)) {
+      waiters.poll();
+      usedBytes += waiter.bytes;
+      admitted.add(waiter);
+    }
+    return admitted;
+  }
+
+  private void continueWaiters(List<Waiter> admitted) {
+    for (Waiter waiter : admitted) {
+      if (waiter.timerId >= 0) {
+        vertx.cancelTimer(waiter.timerId);
+      }
+      waiter.context.runOnContext(v -> waiter.handler.handle(Future.succeededFuture()));
+    }
+  }
+
+  synchronized long usedBytes() {
+    return usedBytes;
+  }
+
+  synchronized int waitQueueSize() {
+    return waiters.size();
+  }
+
+  private boolean fits(long bytes) {
+    return usedBytes == 0 || usedBytes + bytes <= maxBytes;
+  }
+
+  private static class Waiter {
+    private final long bytes;
+    private final Context context;
+    private final Handler<AsyncResult<Void>> handler;
+    // set before the waiter is queued
+    private long timerId = -1;
+
+    private Waiter(long bytes, Context context, Handler<AsyncResult<Void>> handler) {
+      this.bytes = bytes;
+      this.context = context;
+      this.handler = handler;
+    }
+  }
+}
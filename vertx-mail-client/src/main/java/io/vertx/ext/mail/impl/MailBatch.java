@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.ext.mail.MailBatchResult;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * runs the messages of a sendMails operation as single send operations and collects the results, this is also used
+ * for the transactions of sendMailEnvelopes
+ * <p>
+ * the operations are run on the connections of the pool in parallel and reuse the connections, at most maxConcurrent
+ * operations are started at the same time and the next operation is started when one has finished, so that a large
+ * batch doesn't overflow the wait queue of the pool
+ */
+public final class MailBatch {
+
+  /**
+   * utility class only
+   */
+  private MailBatch() {
+  }
+
+  /**
+   * send the messages with {@link MailClient#sendMail} and collect the results in the order of the messages
+   *
+   * @param client        the client to send the messages with
+   * @param emails        the messages
+   * @param maxConcurrent the max number of messages sent at the same time
+   * @param resultHandler will be called when all operations are finished, this doesn't fail for failed messages
+   */
+  public static void sendMails(MailClient client, List<MailMessage> emails, int maxConcurrent,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    collect(emails.size(), maxConcurrent, (index, handler) -> client.sendMail(emails.get(index), handler),
+        resultHandler);
+  }
+
+  /**
+   * run a number of send operations and collect the results in the order of the operations
+   *
+   * @param size          the number of operations
+   * @param maxConcurrent the max number of operations running at the same time
+   * @param operation     starts the operation with the given index and calls the handler with its result
+   * @param resultHandler will be called when all operations are finished, this doesn't fail for failed operations
+   */
+  static void collect(int size, int maxConcurrent, BiConsumer<Integer, Handler<AsyncResult<MailResult>>> operation,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    final MailResult[] results = new MailResult[size];
+    final String[] errors = new String[size];
+    if (size == 0) {
+      complete(results, errors, resultHandler);
+      return;
+    }
+    final int initial = Math.min(size, Math.max(1, maxConcurrent));
+    final AtomicInteger next = new AtomicInteger(initial);
+    final AtomicInteger remaining = new AtomicInteger(size);
+    Handler<Integer> start = new Handler<Integer>() {
+      @Override
+      public void handle(Integer index) {
+        operation.accept(index, result -> {
+          if (result.succeeded()) {
+            results[index] = result.result();
+          } else {
+            errors[index] = String.valueOf(result.cause().getMessage());
+          }
+          int nextIndex = next.getAndIncrement();
+          if (nextIndex < size) {
+            handle(nextIndex);
+          }
+          if (remaining.decrementAndGet() == 0) {
+            complete(results, errors, resultHandler);
+          }
+        });
+      }
+    };
+    for (int i = 0; i < initial; i++) {
+      start.handle(i);
+    }
+  }
+
+  private static void complete(MailResult[] results, String[] errors,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    if (resultHandler != null) {
+      MailBatchResult batchResult = new MailBatchResult();
+      // the arrays are written by the callbacks, the AtomicInteger makes the writes visible here
+      for (int i = 0; i < results.length; i++) {
+        batchResult.addResult(results[i], errors[i]);
+      }
+      resultHandler.handle(Future.succeededFuture(batchResult));
+    }
+  }
+
+}
@@ -19,12 +19,23 @@ package io.vertx.ext.mail.impl;
 import io.vertx.core.*;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
-import io.vertx.core.shareddata.LocalMap;
-import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.mail.MailBatchResult;
 import io.vertx.ext.mail.MailClient;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailEnvelope;
 import io.vertx.ext.mail.MailMessage;
 import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.MailTiming;
+import io.vertx.ext.mail.mailencoder.EmailAddress;
+import io.vertx.ext.mail.mailencoder.MailEncoder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * MailClient implementation for sending mails inside the local JVM
@@ -35,12 +46,12 @@ public class MailClientImpl implements MailClient {
 
   private static final Logger log = LoggerFactory.getLogger(MailClientImpl.class);
 
-  private static final String POOL_LOCAL_MAP_NAME = "__vertx.MailClient.pools";
-
   private final Vertx vertx;
   private final MailConfig config;
   private final SMTPConnectionPool connectionPool;
-  private final MailHolder holder;
+  private final SMTPPoolRegistry.Entry poolEntry;
+  // null if the in-flight size is not limited
+  private final InFlightBudget budget;
   // hostname will cache getOwnhostname/getHostname result, we have to resolve only once
   // this cannot be done in the constructor since it is async, so its not final
   private String hostname = null;
@@ -48,10 +59,23 @@ public class MailClientImpl implements MailClient {
   private volatile boolean closed = false;
 
   public MailClientImpl(Vertx vertx, MailConfig config, String poolName) {
+    this(vertx, config, poolName, true);
+  }
+
+  /**
+   * @param vertx    the Vert.x instance
+   * @param config   the config
+   * @param poolName the name of the client
+   * @param shared   if true, the connections are shared with all other shared clients using the same server and
+   *                 credentials, otherwise the client gets a pool of its own
+   */
+  public MailClientImpl(Vertx vertx, MailConfig config, String poolName, boolean shared) {
     this.vertx = vertx;
     this.config = config;
-    this.holder = lookupHolder(poolName, config);
-    this.connectionPool = holder.pool();
+    this.poolEntry = SMTPPoolRegistry.acquire(vertx, config, poolName, shared);
+    this.connectionPool = poolEntry.pool();
+    this.budget = config.getMaxInFlightBytes() > 0
+        ? new InFlightBudget(vertx, config.getMaxInFlightBytes(), config.getMaxWaitQueueSize()) : null;
   }
 
   @Override
@@ -59,37 +83,48 @@ public class MailClientImpl implements MailClient {
     if (closed) {
       throw new IllegalStateException("Already closed");
     }
-    holder.close();
+    SMTPPoolRegistry.release(vertx, poolEntry, config.getMaxPoolSize());
     closed = true;
   }
 
   @Override
   public MailClient sendMail(MailMessage message, Handler<AsyncResult<MailResult>> resultHandler) {
+    return sendMailWithOptions(message, new MailSendOptions(), resultHandler);
+  }
+
+  @Override
+  public MailClient sendMailWithOptions(MailMessage message, MailSendOptions options,
+      Handler<AsyncResult<MailResult>> resultHandler) {
+    return sendMail(message, options, null, resultHandler);
+  }
+
+  /**
+   * send a mail and report when the connection pool has accepted the operation, this is used by submitMail of the
+   * mail service to acknowledge a mail only when it will not be rejected by the pool
+   *
+   * @param message         the mail
+   * @param options         the options of the send operation
+   * @param acceptedHandler called when the operation got a connection or has been queued by the pool, it is not
+   *                        called if the operation fails before that (may be null)
+   * @param resultHandler   will be called when the operation is finished or it fails (may be null)
+   * @return this MailClient instance so the method can be used fluently
+   */
+  public MailClient sendMail(MailMessage message, MailSendOptions options, Handler<Void> acceptedHandler,
+      Handler<AsyncResult<MailResult>> resultHandler) {
+    Objects.requireNonNull(options, "no null options accepted");
     Context context = vertx.getOrCreateContext();
     if (!closed) {
       if (validateHeaders(message, resultHandler, context)) {
-        if (hostname == null) {
-          vertx.<String>executeBlocking(
-              fut -> {
-                String hname;
-                if (config.getOwnHostname() != null) {
-                  hname = config.getOwnHostname();
-                } else {
-                  hname = Utils.getHostname();
-                }
-                fut.complete(hname);
-              },
-              res -> {
-                if (res.succeeded()) {
-                  hostname = res.result();
-                  getConnection(message, resultHandler, context);
-                } else {
-                  handleError(res.cause(), resultHandler, context);
-                }
-              });
-        } else {
-          getConnection(message, resultHandler, context);
-        }
+        resolveHostname(res -> {
+          if (res.failed()) {
+            handleError(res.cause(), resultHandler, context);
+          } else if (budget != null) {
+            reserveBudget(message, options, context, resultHandler,
+                handler -> send(message, options, acceptedHandler, handler, context));
+          } else {
+            send(message, options, acceptedHandler, resultHandler, context);
+          }
+        });
       }
     } else {
       handleError("mail client has been closed", resultHandler, context);
@@ -97,28 +132,334 @@ public class MailClientImpl implements MailClient {
     return this;
   }
 
-  private void getConnection(MailMessage message, Handler<AsyncResult<MailResult>> resultHandler, Context context) {
-    connectionPool.getConnection(hostname, result -> {
+  /*
+   * the hostname has to be resolved already
+   */
+  private void send(MailMessage message, MailSendOptions options, Handler<Void> acceptedHandler,
+      Handler<AsyncResult<MailResult>> resultHandler, Context context) {
+    List<MailEnvelope> chunks = splitRecipients(message);
+    if (chunks != null) {
+      sendChunks(message, chunks, options, acceptedHandler, resultHandler, context);
+    } else {
+      getConnection(message, null, null, options, acceptedHandler, resultHandler, context);
+    }
+  }
+
+  /*
+   * run the operation when the encoded size of the message fits into the in-flight budget and release the budget when
+   * the operation is finished. The size is computed by MailEncoder without encoding the message, so the hostname has to
+   * be resolved already. The time waiting for the budget is limited like the time waiting for a connection
+   */
+  private <T> void reserveBudget(MailMessage message, MailSendOptions options, Context context,
+      Handler<AsyncResult<T>> resultHandler, Handler<Handler<AsyncResult<T>>> operation) {
+    final long size;
+    try {
+      size = new MailEncoder(message, hostname).size();
+    } catch (RuntimeException e) {
+      handleError(e, resultHandler, context);
+      return;
+    }
+    budget.acquire(size, acquireOptions(options).getAcquireTimeout(), context, res -> {
+      if (res.succeeded()) {
+        operation.handle(result -> {
+          budget.release(size);
+          if (resultHandler != null) {
+            resultHandler.handle(result);
+          }
+        });
+      } else {
+        handleError(res.cause(), resultHandler, context);
+      }
+    });
+  }
+
+  private void resolveHostname(Handler<AsyncResult<Void>> handler) {
+    if (hostname == null) {
+      vertx.<String>executeBlocking(
+          fut -> {
+            String hname;
+            if (config.getOwnHostname() != null) {
+              hname = config.getOwnHostname();
+            } else {
+              hname = Utils.getHostname();
+            }
+            fut.complete(hname);
+          },
+          res -> {
+            if (res.succeeded()) {
+              hostname = res.result();
+              handler.handle(Future.succeededFuture());
+            } else {
+              handler.handle(Future.failedFuture(res.cause()));
+            }
+          });
+    } else {
+      handler.handle(Future.succeededFuture());
+    }
+  }
+
+  @Override
+  public MailClient sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    Objects.requireNonNull(emails, "no null list accepted");
+    MailBatch.sendMails(this, emails, connectionPool.maxSockets(), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MailClient sendMailEnvelopes(MailMessage message, List<MailEnvelope> envelopes,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    Objects.requireNonNull(envelopes, "no null list accepted");
+    Context context = vertx.getOrCreateContext();
+    if (closed) {
+      handleError("mail client has been closed", resultHandler, context);
+    } else if (!validateSender(message, envelopes)) {
+      handleError("sender address is not present", resultHandler, context);
+    } else {
+      resolveHostname(res -> {
+        if (res.failed()) {
+          handleError(res.cause(), resultHandler, context);
+        } else if (budget != null) {
+          // the transactions share the encoded message, so it takes the budget only once
+          reserveBudget(message, new MailSendOptions(), context, resultHandler,
+              handler -> sendEnvelopes(message, envelopes, new MailSendOptions(), null, handler, context));
+        } else {
+          sendEnvelopes(message, envelopes, new MailSendOptions(), null, resultHandler, context);
+        }
+      });
+    }
+    return this;
+  }
+
+  /*
+   * encode the message once and send it in one transaction per envelope, the hostname has to be resolved already.
+   * acceptedHandler is called for every transaction accepted by the pool
+   */
+  private void sendEnvelopes(MailMessage message, List<MailEnvelope> envelopes, MailSendOptions options,
+      Handler<Void> acceptedHandler, Handler<AsyncResult<MailBatchResult>> resultHandler, Context context) {
+    encode(message, encoded -> {
+      if (encoded.succeeded()) {
+        MailBatch.collect(envelopes.size(), connectionPool.maxSockets(), (index, handler) -> getConnection(message,
+            envelopes.get(index), encoded.result(), options, acceptedHandler, handler, context), resultHandler);
+      } else {
+        handleError(encoded.cause(), resultHandler, context);
+      }
+    });
+  }
+
+  /*
+   * large messages are encoded on a worker thread like in SMTPSendMail
+   */
+  private void encode(MailMessage message, Handler<AsyncResult<EncodedMessage>> handler) {
+    final MailEncoder encoder = new MailEncoder(message, hostname);
+    final Future<String> encoding = Future.future();
+    final long size;
+    try {
+      size = encoder.size();
+      final long threshold = config.getWorkerEncodingThreshold();
+      if (threshold > 0 && size >= threshold) {
+        vertx.executeBlocking(fut -> fut.complete(encoder.encodeParallel()), false, encoding);
+      } else {
+        encoding.complete(encoder.encode());
+      }
+    } catch (RuntimeException e) {
+      handler.handle(Future.failedFuture(e));
+      return;
+    }
+    encoding.setHandler(result -> {
       if (result.succeeded()) {
-        final SMTPConnection connection = result.result();
-        connection.setErrorHandler(th -> handleError(th, resultHandler, context));
-        sendMessage(message, connection, resultHandler, context);
+        handler.handle(Future.succeededFuture(new EncodedMessage(result.result(), size, encoder.getMessageID())));
       } else {
-        handleError(result.cause(), resultHandler, context);
+        handler.handle(Future.failedFuture(result.cause()));
       }
     });
   }
 
-  private void sendMessage(MailMessage email, SMTPConnection conn, Handler<AsyncResult<MailResult>> resultHandler,
+  /*
+   * split the recipients of the message into envelopes of at most maxRecipientsPerTransaction addresses, null if the
+   * message doesn't have to be split
+   */
+  private List<MailEnvelope> splitRecipients(MailMessage message) {
+    final int max = config.getMaxRecipientsPerTransaction();
+    if (max == 0) {
+      return null;
+    }
+    List<String> recipients = new ArrayList<>();
+    try {
+      addRecipients(recipients, message.getTo());
+      addRecipients(recipients, message.getCc());
+      addRecipients(recipients, message.getBcc());
+    } catch (IllegalArgumentException e) {
+      // the transaction reports the invalid address
+      return null;
+    }
+    if (recipients.size() <= max) {
+      return null;
+    }
+    List<MailEnvelope> chunks = new ArrayList<>();
+    for (int i = 0; i < recipients.size(); i += max) {
+      chunks.add(new MailEnvelope(null, new ArrayList<>(recipients.subList(i, Math.min(i + max, recipients.size())))));
+    }
+    return chunks;
+  }
+
+  private static void addRecipients(List<String> recipients, List<String> addresses) {
+    if (addresses != null) {
+      for (String address : addresses) {
+        for (EmailAddress emailAddress : EmailAddress.parseList(address)) {
+          recipients.add(emailAddress.getEmail());
+        }
+      }
+    }
+  }
+
+  /*
+   * send the chunks of the recipients and merge the results, the operation fails if a chunk fails unless
+   * allowRcptErrors is set and at least one chunk was sent. The failure lists the error of every failed chunk with
+   * its recipients
+   */
+  private void sendChunks(MailMessage message, List<MailEnvelope> chunks, MailSendOptions options,
+      Handler<Void> acceptedHandler, Handler<AsyncResult<MailResult>> resultHandler, Context context) {
+    log.debug("sending message in " + chunks.size() + " transactions");
+    // the message is accepted with its first transaction
+    final Handler<Void> firstAccepted;
+    if (acceptedHandler != null) {
+      final AtomicBoolean accepted = new AtomicBoolean();
+      firstAccepted = v -> {
+        if (accepted.compareAndSet(false, true)) {
+          acceptedHandler.handle(null);
+        }
+      };
+    } else {
+      firstAccepted = null;
+    }
+    sendEnvelopes(message, chunks, options, firstAccepted, result -> {
+      if (result.succeeded()) {
+        MailBatchResult batch = result.result();
+        MailResult merged = null;
+        // the replies of all chunks, a chunk without replies must not drop the replies of the following chunks
+        Map<String, String> replies = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < batch.getResults().size(); i++) {
+          MailResult chunkResult = batch.getResults().get(i);
+          if (chunkResult == null) {
+            errors.add(batch.getErrors().get(i) + " (recipients " + String.join(", ", chunks.get(i).getRecipients())
+                + ")");
+            continue;
+          }
+          if (merged == null) {
+            merged = new MailResult(chunkResult);
+          } else {
+            merged.getRecipients().addAll(chunkResult.getRecipients());
+          }
+          if (chunkResult.getRecipientReplies() != null) {
+            replies.putAll(chunkResult.getRecipientReplies());
+          }
+        }
+        if (merged != null) {
+          merged.setRecipientReplies(replies.isEmpty() ? null : replies);
+        }
+        String error = errors.isEmpty() ? null : String.join("; ", errors);
+        if (merged != null && (error == null || config.isAllowRcptErrors())) {
+          if (error != null) {
+            log.info("some transactions of the message failed: " + error);
+          }
+          returnResult(Future.succeededFuture(merged), resultHandler, context);
+        } else {
+          handleError(error, resultHandler, context);
+        }
+      } else {
+        handleError(result.cause(), resultHandler, context);
+      }
+    }, context);
+  }
+
+  private boolean validateSender(MailMessage email, List<MailEnvelope> envelopes) {
+    if (email.getBounceAddress() != null || email.getFrom() != null) {
+      return true;
+    }
+    for (MailEnvelope envelope : envelopes) {
+      if (envelope.getFrom() == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void getConnection(MailMessage message, MailEnvelope envelope, EncodedMessage encoded,
+      MailSendOptions options, Handler<Void> acceptedHandler, Handler<AsyncResult<MailResult>> resultHandler,
       Context context) {
-    new SMTPSendMail(conn, email, config, hostname, result -> {
+    final long startTime = System.nanoTime();
+    final SendDeadline deadline;
+    final Handler<AsyncResult<MailResult>> handler;
+    if (options.getSendTimeout() > 0) {
+      deadline = new SendDeadline(vertx, options.getSendTimeout(),
+          v -> handleError("timeout sending mail", resultHandler, context));
+      handler = result -> {
+        if (deadline.finish()) {
+          if (resultHandler != null) {
+            resultHandler.handle(result);
+          }
+        } else {
+          log.debug("dropping result after timeout", result.cause());
+        }
+      };
+    } else {
+      deadline = null;
+      handler = resultHandler;
+    }
+    connectionPool.getConnection(hostname, acquireOptions(options), acceptedHandler, result -> {
+      if (result.succeeded()) {
+        final SMTPConnection connection = result.result();
+        if (deadline != null && !deadline.setConnection(connection)) {
+          log.debug("got connection after the send operation timed out");
+          connection.returnToPool();
+          return;
+        }
+        final long connectTime = connection.takeConnectTime();
+        MailTiming timing = null;
+        if (options.isRecordTiming()) {
+          timing = new MailTiming()
+              .setAcquireTime(System.nanoTime() - startTime)
+              .setNewConnection(connectTime >= 0)
+              .setConnectTime(Math.max(connectTime, 0));
+        }
+        connection.setErrorHandler(th -> handleError(th, handler, context));
+        sendMessage(message, envelope, encoded, connection, timing, handler, context);
+      } else {
+        handleError(result.cause(), handler, context);
+      }
+    });
+  }
+
+  /*
+   * the time waiting for a free connection is limited by the sendTimeout as well
+   */
+  private static MailSendOptions acquireOptions(MailSendOptions options) {
+    long sendTimeout = options.getSendTimeout();
+    if (sendTimeout > 0 && (options.getAcquireTimeout() == 0 || sendTimeout < options.getAcquireTimeout())) {
+      return new MailSendOptions(options).setAcquireTimeout(sendTimeout);
+    } else {
+      return options;
+    }
+  }
+
+  private void sendMessage(MailMessage email, MailEnvelope envelope, EncodedMessage encoded, SMTPConnection conn,
+      MailTiming timing, Handler<AsyncResult<MailResult>> resultHandler, Context context) {
+    SMTPSendMail sendMail = new SMTPSendMail(conn, email, config, hostname, timing, result -> {
       if (result.succeeded()) {
         conn.returnToPool();
       } else {
         conn.setBroken();
       }
       returnResult(result, resultHandler, context);
-    }).start();
+    });
+    if (envelope != null) {
+      sendMail.setEnvelope(envelope);
+    }
+    if (encoded != null) {
+      sendMail.setEncoded(encoded);
+    }
+    sendMail.start();
   }
 
   // do some validation before we open the connection
@@ -138,17 +479,17 @@ public class MailClientImpl implements MailClient {
     }
   }
 
-  private void handleError(String message, Handler<AsyncResult<MailResult>> resultHandler, Context context) {
+  private <T> void handleError(String message, Handler<AsyncResult<T>> resultHandler, Context context) {
     log.debug("handleError:" + message);
     returnResult(Future.failedFuture(message), resultHandler, context);
   }
 
-  private void handleError(Throwable t, Handler<AsyncResult<MailResult>> resultHandler, Context context) {
+  private <T> void handleError(Throwable t, Handler<AsyncResult<T>> resultHandler, Context context) {
     log.debug("handleError", t);
     returnResult(Future.failedFuture(t), resultHandler, context);
   }
 
-  private void returnResult(AsyncResult<MailResult> result, Handler<AsyncResult<MailResult>> resultHandler, Context context) {
+  private <T> void returnResult(AsyncResult<T> result, Handler<AsyncResult<T>> resultHandler, Context context) {
     // Note - results must always be executed on the right context, asynchronously, not directly!
     context.runOnContext(v -> {
       if (resultHandler != null) {
@@ -163,58 +504,14 @@ public class MailClientImpl implements MailClient {
     });
   }
 
-  SMTPConnectionPool getConnectionPool() {
-    return connectionPool;
-  }
-
-  private MailHolder lookupHolder(String poolName, MailConfig config) {
-    synchronized (vertx) {
-      LocalMap<String, MailHolder> map = vertx.sharedData().getLocalMap(POOL_LOCAL_MAP_NAME);
-      MailHolder theHolder = map.get(poolName);
-      if (theHolder == null) {
-        theHolder = new MailHolder(vertx, config, () -> removeFromMap(map, poolName));
-        map.put(poolName, theHolder);
-      } else {
-        theHolder.incRefCount();
-      }
-      return theHolder;
-    }
+  /**
+   * @return the Vert.x instance of the client
+   */
+  public Vertx getVertx() {
+    return vertx;
   }
 
-  private void removeFromMap(LocalMap<String, MailHolder> map, String dataSourceName) {
-    synchronized (vertx) {
-      map.remove(dataSourceName);
-      if (map.isEmpty()) {
-        map.close();
-      }
-    }
-  }
-
-  private static class MailHolder implements Shareable {
-    final SMTPConnectionPool pool;
-    final Runnable closeRunner;
-    int refCount = 1;
-
-    public MailHolder(Vertx vertx, MailConfig config, Runnable closeRunner) {
-      this.closeRunner = closeRunner;
-      this.pool= new SMTPConnectionPool(vertx, config);
-    }
-
-    SMTPConnectionPool pool() {
-      return pool;
-    }
-
-    synchronized void incRefCount() {
-      refCount++;
-    }
-
-    synchronized void close() {
-      if (--refCount == 0) {
-        pool.close();
-        if (closeRunner != null) {
-          closeRunner.run();
-        }
-      }
-    }
+  SMTPConnectionPool getConnectionPool() {
+    return connectionPool;
   }
 }
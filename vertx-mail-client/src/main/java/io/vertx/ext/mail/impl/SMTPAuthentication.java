@@ -52,6 +52,7 @@ class SMTPAuthentication {
   }
 
   public void start() {
+    connection.setCommandTimeout(config.getAuthTimeout());
     final boolean foundAllowedMethods = !intersectAllowedMethods().isEmpty();
     if (config.getLogin() != LoginOption.DISABLED && config.getUsername() != null && config.getPassword() != null
       && foundAllowedMethods) {
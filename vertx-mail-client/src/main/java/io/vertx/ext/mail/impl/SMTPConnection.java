@@ -16,7 +16,9 @@
 
 package io.vertx.ext.mail.impl;
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
@@ -25,7 +27,12 @@ import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.core.net.NetClient;
 import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.SocketAddress;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.spi.MailClientMetrics;
+import io.vertx.ext.mail.spi.MailPhase;
+
+import java.nio.charset.StandardCharsets;
 
 /**
  * SMTP connection to a server.
@@ -41,6 +48,7 @@ class SMTPConnection {
   private final Vertx vertx;
 
   private NetSocket ns;
+  private CommandWriter writer;
   private boolean socketClosed;
   private boolean socketShutDown;
   private Handler<String> commandReplyHandler;
@@ -51,9 +59,21 @@ class SMTPConnection {
   private final NetClient client;
   private Capabilities capa = new Capabilities();
   private final ConnectionLifeCycleListener listener;
+  private final MailClientMetrics metrics;
   private Context context;
-
-  SMTPConnection(Vertx vertx, NetClient client, ConnectionLifeCycleListener listener) {
+  private Thread thread;
+  private MailConfig config;
+  // time in milliseconds to wait for the reply to a command, 0 waits forever
+  private long commandTimeout;
+  private long timeoutTimerId = -1;
+  // metric of the send operation currently using the connection
+  private Object metric;
+  private boolean metricStarted;
+  private boolean createdReported;
+  // time used to open the connection, this is handed out to the first send operation only
+  private long connectTime;
+
+  SMTPConnection(Vertx vertx, NetClient client, ConnectionLifeCycleListener listener, MailClientMetrics metrics) {
     broken = true;
     idle = false;
     doShutdown = false;
@@ -62,6 +82,7 @@ class SMTPConnection {
     this.client = client;
     this.listener = listener;
     this.vertx = vertx;
+    this.metrics = metrics;
   }
 
   /**
@@ -84,7 +105,11 @@ class SMTPConnection {
   void shutdown() {
     broken = true;
     commandReplyHandler = null;
+    cancelCommandTimeout();
     socketShutDown = true;
+    if (writer != null) {
+      writer.discard();
+    }
     if (ns != null) {
       ns.close();
       ns = null;
@@ -102,43 +127,127 @@ class SMTPConnection {
    * write command masking everything after position blank
    */
   void write(String str, int blank, Handler<String> commandResultHandler) {
+    if (startCommand(commandResultHandler)) {
+      if (log.isDebugEnabled()) {
+        String logStr;
+        if (blank >= 0) {
+          StringBuilder sb = new StringBuilder();
+          for (int i = blank; i < str.length(); i++) {
+            sb.append('*');
+          }
+          logStr = str.substring(0, blank) + sb;
+        } else {
+          logStr = str;
+        }
+        // avoid logging large mail body
+        if (logStr.length() < 1000) {
+          log.debug("command: " + logStr);
+        } else {
+          log.debug("command: " + logStr.substring(0, 1000) + "...");
+        }
+      }
+      writer.appendLine(str).flush();
+    }
+  }
+
+  /*
+   * write a pre-encoded command from CommandWriter
+   */
+  void write(byte[] command, Handler<String> commandResultHandler) {
+    if (startCommand(commandResultHandler)) {
+      if (log.isDebugEnabled()) {
+        log.debug("command: " + new String(command, 0, command.length - 2, StandardCharsets.US_ASCII));
+      }
+      writer.append(command).flush();
+    }
+  }
+
+  /*
+   * write MAIL FROM or RCPT TO command, prefix is one of the pre-encoded prefixes from CommandWriter
+   */
+  void writeAddress(byte[] prefix, String address, String parameters, Handler<String> commandResultHandler) {
+    if (startCommand(commandResultHandler)) {
+      if (log.isDebugEnabled()) {
+        log.debug("command: " + new String(prefix, StandardCharsets.US_ASCII) + address + ">" + parameters);
+      }
+      writer.appendAddress(prefix, address, parameters).flush();
+    }
+  }
+
+  /*
+   * wait for a further reply to the last command without writing anything, a LMTP server sends one reply per
+   * recipient after the end of the mail data
+   */
+  void waitForReply(Handler<String> commandResultHandler) {
+    startCommand(commandResultHandler);
+  }
+
+  /*
+   * set the reply handler and check if the command can be written
+   */
+  private boolean startCommand(Handler<String> commandResultHandler) {
     this.commandReplyHandler = commandResultHandler;
     if (socketClosed) {
       log.debug("connection was closed by server");
+      if (writer != null) {
+        writer.discard();
+      }
       handleError("connection was closed by server");
+      return false;
+    } else if (ns == null) {
+      log.debug("not sending command since the netsocket is null");
+      return false;
     } else {
-      if (ns != null) {
-        if (log.isDebugEnabled()) {
-          String logStr;
-          if (blank >= 0) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = blank; i < str.length(); i++) {
-              sb.append('*');
-            }
-            logStr = str.substring(0, blank) + sb;
-          } else {
-            logStr = str;
-          }
-          // avoid logging large mail body
-          if (logStr.length() < 1000) {
-            log.debug("command: " + logStr);
-          } else {
-            log.debug("command: " + logStr.substring(0, 1000) + "...");
-          }
-        }
-        ns.write(str + "\r\n");
-      } else {
-        log.debug("not sending command " + str + " since the netsocket is null");
+      startCommandTimeout();
+      return true;
+    }
+  }
+
+  /**
+   * set the time to wait for the reply of the following commands
+   *
+   * @param commandTimeout the timeout in milliseconds, 0 waits forever
+   */
+  void setCommandTimeout(long commandTimeout) {
+    this.commandTimeout = commandTimeout;
+  }
+
+  private void startCommandTimeout() {
+    cancelCommandTimeout();
+    if (commandTimeout > 0) {
+      timeoutTimerId = vertx.setTimer(commandTimeout, id -> {
+        timeoutTimerId = -1;
+        commandTimedOut();
+      });
+    }
+  }
+
+  private void cancelCommandTimeout() {
+    if (timeoutTimerId != -1) {
+      vertx.cancelTimer(timeoutTimerId);
+      timeoutTimerId = -1;
+    }
+  }
+
+  /*
+   * the server didn't reply in time, the connection cannot be used anymore since the reply may still arrive later
+   */
+  private void commandTimedOut() {
+    if (commandReplyHandler != null) {
+      log.debug("timeout waiting for reply from server");
+      setBroken();
+      if (errorHandler != null) {
+        handleError("timeout waiting for reply from server");
       }
     }
   }
 
-  // write single line not expecting a reply
+  // write single line not expecting a reply, the lines are collected and written in batches
   void writeLine(String str, boolean mayLog) {
     if (mayLog) {
       log.debug(str);
     }
-    ns.write(str + "\r\n");
+    writer.appendLine(str).flushIfFull();
   }
 
   // write single line not expecting a reply, using drain handler
@@ -146,15 +255,17 @@ class SMTPConnection {
     if (mayLog) {
       log.debug(str);
     }
+    // write the lines collected so far before waiting for the socket
+    writer.flush();
     if (ns.writeQueueFull()) {
       ns.drainHandler(v -> {
         // avoid getting confused by being called twice
         ns.drainHandler(null);
-        ns.write(str + "\r\n");
+        writer.appendLine(str).flushIfFull();
         handler.handle(null);
       });
     } else {
-      ns.write(str + "\r\n");
+      writer.appendLine(str).flushIfFull();
       handler.handle(null);
     }
   }
@@ -173,13 +284,16 @@ class SMTPConnection {
 
   public void openConnection(MailConfig config, Handler<String> initialReplyHandler, Handler<Throwable> errorHandler) {
     this.errorHandler = errorHandler;
+    this.config = config;
     broken = false;
     idle = false;
 
-    client.connect(config.getPort(), config.getHostname(), asyncResult -> {
+    connect(config, asyncResult -> {
       if (asyncResult.succeeded()) {
         context = Vertx.currentContext();
+        thread = Thread.currentThread();
         ns = asyncResult.result();
+        writer = new CommandWriter(ns);
         socketClosed = false;
         ns.exceptionHandler(e -> {
           // avoid returning two exceptions
@@ -217,10 +331,13 @@ class SMTPConnection {
           }
         });
         commandReplyHandler = initialReplyHandler;
+        commandTimeout = config.getGreetingTimeout();
+        startCommandTimeout();
         final Handler<Buffer> mlp = new MultilineParser(buffer -> {
           if (commandReplyHandler == null) {
             log.debug("dropping reply arriving after we stopped processing \"" + buffer.toString() + "\"");
           } else {
+            cancelCommandTimeout();
             // make sure we only call the handler once
             Handler<String> currentHandler = commandReplyHandler;
             commandReplyHandler = null;
@@ -237,6 +354,23 @@ class SMTPConnection {
     });
   }
 
+  /*
+   * connect to the domain socket if it is configured, otherwise to hostname and port
+   */
+  private void connect(MailConfig config, Handler<AsyncResult<NetSocket>> connectHandler) {
+    if (config.getDomainSocketPath() != null) {
+      if (!vertx.isNativeTransportEnabled()) {
+        // fail asynchronously like a failed connect
+        vertx.runOnContext(v ->
+          connectHandler.handle(Future.failedFuture("domain sockets require the native transport")));
+      } else {
+        client.connect(SocketAddress.domainSocketAddress(config.getDomainSocketPath()), connectHandler);
+      }
+    } else {
+      client.connect(config.getPort(), config.getHostname(), connectHandler);
+    }
+  }
+
   boolean isSsl() {
     return ns.isSsl();
   }
@@ -285,6 +419,7 @@ class SMTPConnection {
         } else {
           // set the connection to in use to avoid it being used by another getConnection operation
           useConnection();
+          commandTimeout = config.getEnvelopeTimeout();
           new SMTPQuit(this, v -> {
             shutdown();
             log.debug("connection is shut down");
@@ -367,6 +502,13 @@ class SMTPConnection {
     return socketClosed;
   }
 
+  /**
+   * check if the connection was opened on the event loop of the current thread
+   */
+  boolean isOnCurrentThread() {
+    return thread == Thread.currentThread();
+  }
+
   /**
    * get the context associated with this connection
    *
@@ -375,4 +517,73 @@ class SMTPConnection {
   Context getContext() {
     return context;
   }
+
+  /**
+   * report the duration of a phase of the SMTP dialogue to the metrics
+   *
+   * @param phase     the phase that has finished
+   * @param startTime the start time of the phase as returned by {@link System#nanoTime()}
+   * @param succeeded whether the server accepted the command(s)
+   */
+  void reportPhase(MailPhase phase, long startTime, boolean succeeded) {
+    metrics.phase(phase, System.nanoTime() - startTime, succeeded);
+  }
+
+  /**
+   * a send operation starts using the connection
+   *
+   * @param submittedMetric the metric of the operation when it requested the connection
+   */
+  void beginMetric(Object submittedMetric) {
+    metric = metrics.begin(submittedMetric);
+    metricStarted = true;
+  }
+
+  /**
+   * the send operation using this connection has finished, this is a no-op if no operation has been started
+   */
+  void endMetric() {
+    if (metricStarted) {
+      metricStarted = false;
+      metrics.end(metric, !broken);
+      metric = null;
+    }
+  }
+
+  /**
+   * the connection has been set up completely and is added to the pool
+   */
+  void reportCreated() {
+    createdReported = true;
+    metrics.connectionCreated();
+  }
+
+  /**
+   * the connection has been closed, this is a no-op if the connection has not been reported as created, e.g. when
+   * the initial dialogue or the login failed
+   */
+  void reportClosed() {
+    if (createdReported) {
+      createdReported = false;
+      metrics.connectionClosed();
+    }
+  }
+
+  /**
+   * @param connectTime the time in nanoseconds used to connect, run the initial dialogue and login
+   */
+  void setConnectTime(long connectTime) {
+    this.connectTime = connectTime;
+  }
+
+  /**
+   * get the connect time if the connection has not been used before
+   *
+   * @return the connect time for the first send operation on this connection, -1 afterwards
+   */
+  long takeConnectTime() {
+    long time = connectTime;
+    connectTime = -1;
+    return time;
+  }
 }
@@ -19,6 +19,7 @@ package io.vertx.ext.mail.impl;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.ServiceHelper;
 import io.vertx.core.Vertx;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -26,24 +27,38 @@ import io.vertx.core.net.JksOptions;
 import io.vertx.core.net.NetClient;
 import io.vertx.core.net.NetClientOptions;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.SendPriority;
 import io.vertx.ext.mail.StartTLSOptions;
+import io.vertx.ext.mail.spi.MailClientMetrics;
+import io.vertx.ext.mail.spi.MailClientMetricsFactory;
 
 import java.util.ArrayDeque;
 import java.util.HashSet;
 import java.util.Queue;
 import java.util.Set;
+import java.util.UUID;
 
 class SMTPConnectionPool implements ConnectionLifeCycleListener {
 
   private static final Logger log = LoggerFactory.getLogger(SMTPConnectionPool.class);
 
-  private final int maxSockets;
+  private static final MailClientMetrics NO_METRICS = new MailClientMetrics() {
+  };
+
+  // factory installed programmatically, this takes precedence over the ServiceLoader lookup
+  private static volatile MailClientMetricsFactory metricsFactory;
+
+  private int maxSockets;
+  private final int maxWaitQueueSize;
   private final boolean keepAlive;
-  private final Queue<Waiter> waiters = new ArrayDeque<>();
+  private final boolean eventLoopAffinity;
+  private final WaitQueue waiters = new WaitQueue();
   private final Set<SMTPConnection> allConnections = new HashSet<>();
   private final NetClient netClient;
   private final MailConfig config;
   private final Vertx vertx;
+  private final MailClientMetrics metrics;
   private String hostname;
   private boolean closed = false;
   private int connCount;
@@ -51,11 +66,20 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
   private Handler<Void> closeFinishedHandler;
 
   SMTPConnectionPool(Vertx vertx, MailConfig config) {
+    this(vertx, config, UUID.randomUUID().toString());
+  }
+
+  SMTPConnectionPool(Vertx vertx, MailConfig config, String poolName) {
     this.config = config;
     this.vertx = vertx;
     maxSockets = config.getMaxPoolSize();
+    maxWaitQueueSize = config.getMaxWaitQueueSize();
     keepAlive = config.isKeepAlive();
-    NetClientOptions netClientOptions = new NetClientOptions().setSsl(config.isSsl()).setTrustAll(config.isTrustAll());
+    eventLoopAffinity = config.isEventLoopAffinity();
+    // start with the user supplied options, the ssl settings are always taken from the MailConfig
+    NetClientOptions netClientOptions = config.getNetClientOptions() != null
+        ? new NetClientOptions(config.getNetClientOptions()) : new NetClientOptions();
+    netClientOptions.setSsl(config.isSsl()).setTrustAll(config.isTrustAll());
     if ((config.isSsl() || config.getStarttls() != StartTLSOptions.DISABLED) && !config.isTrustAll()) {
       // we can use HTTPS verification, which matches the requirements for SMTPS
       netClientOptions.setHostnameVerificationAlgorithm("HTTPS");
@@ -66,15 +90,68 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
           .setPassword(config.getKeyStorePassword()));
     }
     netClient = vertx.createNetClient(netClientOptions);
+    metrics = createMetrics(vertx, config, poolName);
+  }
+
+  /**
+   * install a metrics factory for the pools created afterwards, null restores the lookup with the ServiceLoader
+   *
+   * @param factory the factory or null
+   */
+  static void setMetricsFactory(MailClientMetricsFactory factory) {
+    metricsFactory = factory;
+  }
+
+  private MailClientMetrics createMetrics(Vertx vertx, MailConfig config, String poolName) {
+    MailClientMetricsFactory factory = metricsFactory;
+    if (factory == null) {
+      factory = ServiceHelper.loadFactoryOrNull(MailClientMetricsFactory.class);
+    }
+    if (factory != null) {
+      return factory.metrics(vertx, config, poolName);
+    }
+    MailClientMetrics poolMetrics = VertxPoolMetrics.create(vertx, this, maxSockets, poolName);
+    return poolMetrics != null ? poolMetrics : NO_METRICS;
   }
 
   void getConnection(String hostname, Handler<AsyncResult<SMTPConnection>> resultHandler) {
+    getConnection(hostname, new MailSendOptions(), resultHandler);
+  }
+
+  void getConnection(String hostname, MailSendOptions options, Handler<AsyncResult<SMTPConnection>> resultHandler) {
+    getConnection(hostname, options, null, resultHandler);
+  }
+
+  /**
+   * get a connection for a send operation
+   *
+   * @param hostname        the hostname used in EHLO
+   * @param options         the options of the operation
+   * @param acceptedHandler called before the result when the operation got an idle connection, a new connection is
+   *                        opened for it or it has been queued, it is not called if the operation is rejected (may be
+   *                        null)
+   * @param resultHandler   receives the connection
+   */
+  void getConnection(String hostname, MailSendOptions options, Handler<Void> acceptedHandler,
+      Handler<AsyncResult<SMTPConnection>> resultHandler) {
     log.debug("getConnection()");
     this.hostname = hostname;
     if (closed) {
       resultHandler.handle(Future.failedFuture("connection pool is closed"));
     } else {
-      getConnection0(resultHandler);
+      Object submittedMetric = metrics.submitted();
+      boolean accepted = getConnection0(options, result -> {
+        if (result.succeeded()) {
+          result.result().beginMetric(submittedMetric);
+        } else {
+          metrics.rejected(submittedMetric);
+        }
+        resultHandler.handle(result);
+      });
+      // called outside of the lock of the pool
+      if (accepted && acceptedHandler != null) {
+        acceptedHandler.handle(null);
+      }
     }
   }
 
@@ -92,14 +169,38 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
     }
   }
 
+  /**
+   * change the max number of connections, if the limit is raised, waiting operations get new connections
+   */
+  synchronized void setMaxSockets(int maxSockets) {
+    this.maxSockets = maxSockets;
+    if (metrics instanceof VertxPoolMetrics) {
+      // the Vert.x pool metrics report the effective limit, not the maxPoolSize of the config
+      ((VertxPoolMetrics) metrics).setMaxSize(maxSockets);
+    }
+    while (!closed && connCount < maxSockets && waiters.size() > 0) {
+      log.debug("creating new connection for waiter after raising the limit");
+      createNewConnection(pollWaiter().handler);
+    }
+  }
+
+  synchronized int maxSockets() {
+    return maxSockets;
+  }
+
   synchronized int connCount() {
     return connCount;
   }
 
+  synchronized int waitQueueSize() {
+    return waiters.size();
+  }
+
   // Lifecycle methods
 
   // Called when the send operation has finished
   public synchronized void dataEnded(SMTPConnection conn) {
+    conn.endMetric();
     checkReuseConnection(conn);
   }
 
@@ -110,8 +211,10 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
     connCount--;
     if (conn != null) {
       allConnections.remove(conn);
+      conn.reportClosed();
     }
-    Waiter waiter = waiters.poll();
+    // the limit may have been lowered while the connection was in use
+    Waiter waiter = connCount < maxSockets ? pollWaiter() : null;
     if (waiter != null) {
       // There's a waiter - so it can have a new connection
       log.debug("creating new connection for waiter");
@@ -120,6 +223,7 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
     if (closed && connCount == 0) {
       log.debug("all connections closed, closing NetClient");
       netClient.close();
+      metrics.close();
       if (closeFinishedHandler != null) {
         closeFinishedHandler.handle(null);
       }
@@ -128,18 +232,34 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
 
   // Private methods
 
-  private synchronized void getConnection0(Handler<AsyncResult<SMTPConnection>> handler) {
-    SMTPConnection idleConn = null;
-    for (SMTPConnection conn : allConnections) {
-      if (!conn.isBroken() && conn.isIdle()) {
-        idleConn = conn;
-        break;
+  /*
+   * returns false if the operation was rejected because the wait queue is full
+   */
+  private synchronized boolean getConnection0(MailSendOptions options, Handler<AsyncResult<SMTPConnection>> handler) {
+    SMTPConnection idleConn;
+    if (eventLoopAffinity) {
+      // prefer a connection of our own event loop, then a new connection and only then take one of another event loop
+      idleConn = findIdleConnection(true);
+      if (idleConn == null && connCount >= maxSockets) {
+        idleConn = findIdleConnection(false);
       }
+    } else {
+      idleConn = findIdleConnection(false);
     }
     if (idleConn == null && connCount >= maxSockets) {
+      if (maxWaitQueueSize >= 0 && waiters.size() >= maxWaitQueueSize) {
+        // fail fast instead of letting the queue grow without limit
+        log.debug("wait queue is full, rejecting operation");
+        handler.handle(Future.failedFuture("connection pool wait queue is full"));
+        return false;
+      }
       // Wait in queue
       log.debug("waiting for a free socket");
-      waiters.add(new Waiter(handler));
+      Waiter waiter = new Waiter(handler, options.getPriority());
+      waiters.add(waiter);
+      if (options.getAcquireTimeout() > 0) {
+        waiter.timerId = vertx.setTimer(options.getAcquireTimeout(), id -> waiterTimedOut(waiter));
+      }
     } else {
       if (idleConn == null) {
         // Create a new connection
@@ -156,6 +276,7 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
         log.debug("found idle connection, checking");
         final SMTPConnection conn = idleConn;
         conn.useConnection();
+        conn.setCommandTimeout(config.getEnvelopeTimeout());
         conn.getContext().runOnContext(v -> {
           new SMTPReset(conn, result -> {
             if (result.succeeded()) {
@@ -169,6 +290,16 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
         });
       }
     }
+    return true;
+  }
+
+  private SMTPConnection findIdleConnection(boolean currentThreadOnly) {
+    for (SMTPConnection conn : allConnections) {
+      if (!conn.isBroken() && conn.isIdle() && (!currentThreadOnly || conn.isOnCurrentThread())) {
+        return conn;
+      }
+    }
+    return null;
   }
 
   private synchronized void checkReuseConnection(SMTPConnection conn) {
@@ -182,7 +313,7 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
         conn.close();
       } else {
         log.debug("checking for waiting operations");
-        Waiter waiter = waiters.poll();
+        Waiter waiter = pollWaiter();
         if (waiter != null) {
           log.debug("running one waiting operation");
           conn.useConnection();
@@ -195,6 +326,29 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
     }
   }
 
+  /**
+   * get the next waiting operation and stop its timeout timer
+   */
+  private Waiter pollWaiter() {
+    Waiter waiter = waiters.poll();
+    if (waiter != null && waiter.timerId != -1) {
+      vertx.cancelTimer(waiter.timerId);
+    }
+    return waiter;
+  }
+
+  private void waiterTimedOut(Waiter waiter) {
+    boolean removed;
+    synchronized (this) {
+      removed = waiters.remove(waiter);
+    }
+    // the waiter may have got a connection at the same time as the timer fired
+    if (removed) {
+      log.debug("timeout waiting for a free connection");
+      waiter.handler.handle(Future.failedFuture("timeout waiting for a free connection"));
+    }
+  }
+
   private void closeAllConnections() {
     Set<SMTPConnection> copy;
     if (connCount > 0) {
@@ -212,6 +366,7 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
         }
       }
     } else {
+      metrics.close();
       if (closeFinishedHandler != null) {
         closeFinishedHandler.handle(null);
       }
@@ -224,13 +379,14 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
     createConnection(result -> {
       if (result.succeeded()) {
         allConnections.add(result.result());
+        result.result().reportCreated();
       }
       handler.handle(result);
     });
   }
 
   private void createConnection(Handler<AsyncResult<SMTPConnection>> handler) {
-    SMTPConnection conn = new SMTPConnection(vertx, netClient, this);
+    SMTPConnection conn = new SMTPConnection(vertx, netClient, this, metrics);
     new SMTPStarter(conn, config, hostname, result -> {
       if (result.succeeded()) {
         handler.handle(Future.succeededFuture(conn));
@@ -242,9 +398,58 @@ class SMTPConnectionPool implements ConnectionLifeCycleListener {
 
   private static class Waiter {
     private final Handler<AsyncResult<SMTPConnection>> handler;
+    private final SendPriority priority;
+    private long timerId = -1;
 
-    private Waiter(Handler<AsyncResult<SMTPConnection>> handler) {
+    private Waiter(Handler<AsyncResult<SMTPConnection>> handler, SendPriority priority) {
       this.handler = handler;
+      this.priority = priority;
+    }
+  }
+
+  /**
+   * queue of waiting operations with one lane per priority, the lanes are served in order of the
+   * SendPriority values
+   */
+  private static class WaitQueue {
+    private final Queue<Waiter>[] lanes;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    private WaitQueue() {
+      lanes = new Queue[SendPriority.values().length];
+      for (int i = 0; i < lanes.length; i++) {
+        lanes[i] = new ArrayDeque<>();
+      }
+    }
+
+    void add(Waiter waiter) {
+      lanes[waiter.priority.ordinal()].add(waiter);
+      size++;
+    }
+
+    Waiter poll() {
+      for (Queue<Waiter> lane : lanes) {
+        Waiter waiter = lane.poll();
+        if (waiter != null) {
+          size--;
+          return waiter;
+        }
+      }
+      return null;
+    }
+
+    boolean remove(Waiter waiter) {
+      if (lanes[waiter.priority.ordinal()].remove(waiter)) {
+        size--;
+        return true;
+      } else {
+        return false;
+      }
+    }
+
+    int size() {
+      return size;
     }
   }
 }
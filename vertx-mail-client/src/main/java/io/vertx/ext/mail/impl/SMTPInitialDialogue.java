@@ -22,9 +22,10 @@ import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.mail.MailConfig;
 import io.vertx.ext.mail.StartTLSOptions;
+import io.vertx.ext.mail.spi.MailPhase;
 
 /**
- * Handle welcome line, EHLO/HELO, capabilities
+ * Handle welcome line, EHLO/HELO (or LHLO for LMTP), capabilities
  * and STARTTLS if necessary
  *
  * @author <a href="http://oss.lehmann.cx/">Alexander Lehmann</a>
@@ -53,8 +54,9 @@ class SMTPInitialDialogue {
 
   public void start(final String message) {
     log.debug("server greeting: " + message);
+    connection.setCommandTimeout(config.getEhloTimeout());
     if (StatusCode.isStatusOk(message)) {
-      if (!config.isDisableEsmtp()) {
+      if (config.isLmtp() || !config.isDisableEsmtp()) {
         ehloCmd();
       } else {
         heloCmd();
@@ -65,11 +67,15 @@ class SMTPInitialDialogue {
   }
 
   private void ehloCmd() {
+    final long startTime = System.nanoTime();
+    // LMTP uses LHLO instead of EHLO, the reply is the same
+    final String command = config.isLmtp() ? "LHLO" : "EHLO";
     connection
       .write(
-        "EHLO " + hostname,
+        command + " " + hostname,
         message -> {
-          log.debug("EHLO result: " + message);
+          log.debug(command + " result: " + message);
+          connection.reportPhase(MailPhase.EHLO, startTime, StatusCode.isStatusOk(message));
           if (StatusCode.isStatusOk(message)) {
             connection.parseCapabilities(message);
             if (connection.getCapa().isStartTLS()
@@ -80,6 +86,9 @@ class SMTPInitialDialogue {
             } else {
               finished();
             }
+          } else if (config.isLmtp()) {
+            // there is no fallback to HELO in LMTP
+            handleError("LHLO failed with " + message);
           } else {
             // if EHLO fails, assume we have to do HELO
             // if the command is not supported, the response is probably
@@ -91,8 +100,10 @@ class SMTPInitialDialogue {
   }
 
   private void heloCmd() {
+    final long startTime = System.nanoTime();
     connection.write("HELO " + hostname, message -> {
       log.debug("HELO result: " + message);
+      connection.reportPhase(MailPhase.EHLO, startTime, StatusCode.isStatusOk(message));
       if (StatusCode.isStatusOk(message)) {
         finished();
       } else {
@@ -110,10 +121,12 @@ class SMTPInitialDialogue {
    * run STARTTLS command and redo EHLO
    */
   private void startTLSCmd() {
+    final long startTime = System.nanoTime();
     connection.write("STARTTLS", message -> {
       log.debug("STARTTLS result: " + message);
       connection.upgradeToSsl(v -> {
         log.debug("tls started");
+        connection.reportPhase(MailPhase.TLS, startTime, true);
         // capabilities may have changed, e.g.
         // if a service only announces PLAIN/LOGIN
         // on secure channel (e.g. googlemail)
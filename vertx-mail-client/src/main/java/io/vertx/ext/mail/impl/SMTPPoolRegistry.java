@@ -0,0 +1,168 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.net.NetClientOptions;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.mail.MailConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * registry of the connection pools of a Vert.x instance
+ * <p>
+ * the pools are keyed by the parts of the MailConfig that influence the connections (server, credentials, tls and
+ * socket options, timeouts, the wait queue size and the pool mode), so all shared clients connecting to the same server with the same credentials use one pool
+ * regardless of the pool name they were created with. Each pool is reference counted and the connection limit of the
+ * pool is the smallest maxPoolSize of the clients using it, so that the limit of a relay is not exceeded by creating
+ * more clients.
+ */
+class SMTPPoolRegistry {
+
+  private static final String POOL_REGISTRY_MAP_NAME = "__vertx.MailClient.connectionPools";
+
+  private SMTPPoolRegistry() {
+  }
+
+  /**
+   * get the pool for a config, creating it if necessary
+   *
+   * @param vertx    the Vert.x instance
+   * @param config   the config of the client
+   * @param poolName the name used for metrics if the pool is created
+   * @param shared   if false, the client gets a pool of its own
+   * @return the pool entry that has to be released when the client is closed
+   */
+  static Entry acquire(Vertx vertx, MailConfig config, String poolName, boolean shared) {
+    synchronized (vertx) {
+      LocalMap<Key, Entry> map = vertx.sharedData().getLocalMap(POOL_REGISTRY_MAP_NAME);
+      Key key = new Key(config, shared ? null : poolName);
+      Entry entry = map.get(key);
+      if (entry == null) {
+        entry = new Entry(key, new SMTPConnectionPool(vertx, config, poolName));
+        map.put(key, entry);
+      }
+      entry.addClient(config.getMaxPoolSize());
+      return entry;
+    }
+  }
+
+  /**
+   * release the pool for a client, the pool is closed when the last client is released
+   *
+   * @param vertx       the Vert.x instance
+   * @param entry       the entry returned by {@link #acquire}
+   * @param maxPoolSize the maxPoolSize of the client
+   */
+  static void release(Vertx vertx, Entry entry, int maxPoolSize) {
+    synchronized (vertx) {
+      if (entry.removeClient(maxPoolSize)) {
+        LocalMap<Key, Entry> map = vertx.sharedData().getLocalMap(POOL_REGISTRY_MAP_NAME);
+        map.remove(entry.key);
+        if (map.isEmpty()) {
+          map.close();
+        }
+        entry.pool.close();
+      }
+    }
+  }
+
+  /**
+   * the connection relevant parts of a MailConfig
+   */
+  static final class Key implements Shareable {
+
+    private final List<Object> values;
+
+    /**
+     * @param config the config
+     * @param owner  the name of a non-shared client or null for shared clients
+     */
+    Key(MailConfig config, String owner) {
+      values = Arrays.asList(owner, config.getHostname(), config.getPort(), config.getStarttls(), config.getLogin(),
+        config.getUsername(), config.getPassword(), config.getAuthMethods(), config.isSsl(), config.isTrustAll(),
+        config.getKeyStore(), config.getKeyStorePassword(), config.getOwnHostname(), config.isKeepAlive(),
+        config.isDisableEsmtp(), copy(config.getNetClientOptions()), config.isEventLoopAffinity(),
+        config.getGreetingTimeout(), config.getEhloTimeout(), config.getAuthTimeout(), config.getEnvelopeTimeout(),
+        config.getDataEndTimeout(), config.getMaxWaitQueueSize(), config.isLmtp(), config.getDomainSocketPath());
+    }
+
+    /*
+     * the options are mutable, the key must not change when the caller modifies them after creating the client
+     */
+    private static NetClientOptions copy(NetClientOptions options) {
+      return options == null ? null : new NetClientOptions(options);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return this == o || o instanceof Key && values.equals(((Key) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+      return values.hashCode();
+    }
+  }
+
+  /**
+   * a pool and the maxPoolSize values of the clients using it
+   */
+  static final class Entry implements Shareable {
+
+    private final Key key;
+    private final SMTPConnectionPool pool;
+    private final List<Integer> budgets = new ArrayList<>();
+
+    Entry(Key key, SMTPConnectionPool pool) {
+      this.key = key;
+      this.pool = pool;
+    }
+
+    SMTPConnectionPool pool() {
+      return pool;
+    }
+
+    synchronized int clientCount() {
+      return budgets.size();
+    }
+
+    private synchronized void addClient(int maxPoolSize) {
+      budgets.add(maxPoolSize);
+      pool.setMaxSockets(Collections.min(budgets));
+    }
+
+    /**
+     * @return true if this was the last client
+     */
+    private synchronized boolean removeClient(int maxPoolSize) {
+      budgets.remove(Integer.valueOf(maxPoolSize));
+      if (budgets.isEmpty()) {
+        return true;
+      } else {
+        pool.setMaxSockets(Collections.min(budgets));
+        return false;
+      }
+    }
+  }
+
+}
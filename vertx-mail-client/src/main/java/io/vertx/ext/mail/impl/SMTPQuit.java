@@ -47,7 +47,7 @@ class SMTPQuit {
       log.debug("QUIT failed, ignoring exception", th);
       resultHandler.handle(null);
     });
-    connection.write("QUIT", message -> {
+    connection.write(CommandWriter.QUIT, message -> {
       log.debug("QUIT result: " + message);
       if (!StatusCode.isStatusOk(message)) {
         log.warn("quit failed: " + message);
@@ -48,7 +48,7 @@ class SMTPReset {
       connection.shutdown();
       handleError("exception on RSET " + th);
     });
-    connection.write("RSET", message -> {
+    connection.write(CommandWriter.RSET, message -> {
       log.debug("RSET result: " + message);
       connection.resetErrorHandler();
       if (!StatusCode.isStatusOk(message)) {
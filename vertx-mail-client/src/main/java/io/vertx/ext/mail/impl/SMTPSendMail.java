@@ -23,13 +23,18 @@ import io.vertx.core.impl.NoStackTraceThrowable;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailEnvelope;
 import io.vertx.ext.mail.MailMessage;
 import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailTiming;
 import io.vertx.ext.mail.mailencoder.EmailAddress;
 import io.vertx.ext.mail.mailencoder.MailEncoder;
+import io.vertx.ext.mail.spi.MailPhase;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 class SMTPSendMail {
 
@@ -41,21 +46,54 @@ class SMTPSendMail {
   private final Handler<AsyncResult<MailResult>> resultHandler;
   private final MailResult mailResult;
   private final String hostname;
+  // timing breakdown of the operation, null if it isn't recorded
+  private final MailTiming timing;
 
+  private MailEncoder encoder;
+  // size of the encoded message in octets, -1 if it hasn't been computed yet
+  private long messageSize = -1;
   private String mailMessage;
+  // encoding running on a worker thread, null if the message is encoded on the event loop
+  private Future<String> encoding;
+  private long dataStartTime;
+  // the envelope of the transaction, null to use the sender and the recipients of the message
+  private MailEnvelope envelope;
 
-  SMTPSendMail(SMTPConnection connection, MailMessage email, MailConfig config, String hostname, Handler<AsyncResult<MailResult>> resultHandler) {
+  SMTPSendMail(SMTPConnection connection, MailMessage email, MailConfig config, String hostname, MailTiming timing,
+      Handler<AsyncResult<MailResult>> resultHandler) {
     this.connection = connection;
     this.email = email;
     this.config = config;
     this.resultHandler = resultHandler;
     mailResult = new MailResult();
+    mailResult.setTiming(timing);
     this.hostname = hostname;
+    this.timing = timing;
+  }
+
+  /**
+   * send the transaction with the sender and the recipients of the envelope instead of the ones of the message
+   */
+  SMTPSendMail setEnvelope(MailEnvelope envelope) {
+    this.envelope = envelope;
+    return this;
+  }
+
+  /**
+   * use a message that has been encoded before instead of encoding the message
+   */
+  SMTPSendMail setEncoded(EncodedMessage encoded) {
+    mailMessage = encoded.text;
+    messageSize = encoded.size;
+    mailResult.setMessageID(encoded.messageID);
+    return this;
   }
 
   void start() {
+    connection.setCommandTimeout(config.getEnvelopeTimeout());
     try {
       if (checkSize()) {
+        startEncoding();
         mailFromCmd();
       }
     } catch (Exception e) {
@@ -68,12 +106,14 @@ class SMTPSendMail {
    * <p>
    * returns true if the message is allowed, have to make sure that when returning from the handleError method it
    * doesn't continue with the mail from operation
+   * <p>
+   * the size is computed without encoding the message, so a message that is too large is rejected before it is
+   * encoded
    */
   private boolean checkSize() {
     final int size = connection.getCapa().getSize();
     if (size > 0) {
-      createMailMessage();
-      if (mailMessage.length() > size) {
+      if (messageSize() > size) {
         handleError("message exceeds allowed size limit");
         return false;
       } else {
@@ -88,20 +128,27 @@ class SMTPSendMail {
     try {
       String fromAddr;
       String bounceAddr = email.getBounceAddress();
-      if (bounceAddr != null && !bounceAddr.isEmpty()) {
+      if (envelope != null && envelope.getFrom() != null) {
+        fromAddr = envelope.getFrom();
+      } else if (bounceAddr != null && !bounceAddr.isEmpty()) {
         fromAddr = bounceAddr;
       } else {
         fromAddr = email.getFrom();
       }
-      EmailAddress from = new EmailAddress(fromAddr);
+      EmailAddress from = EmailAddress.parse(fromAddr);
       String sizeParameter;
       if (connection.getCapa().getSize() > 0) {
-        sizeParameter = " SIZE=" + mailMessage.length();
+        sizeParameter = " SIZE=" + messageSize();
       } else {
         sizeParameter = "";
       }
-      connection.write("MAIL FROM:<" + from.getEmail() + ">" + sizeParameter, message -> {
+      final long startTime = System.nanoTime();
+      connection.writeAddress(CommandWriter.MAIL_FROM, from.getEmail(), sizeParameter, message -> {
         log.debug("MAIL FROM result: " + message);
+        connection.reportPhase(MailPhase.MAIL, startTime, StatusCode.isStatusOk(message));
+        if (timing != null) {
+          timing.setMailFromTime(System.nanoTime() - startTime);
+        }
         if (StatusCode.isStatusOk(message)) {
           rcptToCmd();
         } else {
@@ -116,46 +163,63 @@ class SMTPSendMail {
   }
 
   private void rcptToCmd() {
-    List<String> recipientAddrs = new ArrayList<String>();
-    if (email.getTo() != null) {
-      recipientAddrs.addAll(email.getTo());
+    // parse the recipients once up front, the group syntax expands to the members of the group
+    List<EmailAddress> recipients = new ArrayList<>();
+    try {
+      if (envelope != null) {
+        addRecipients(recipients, envelope.getRecipients());
+      } else {
+        addRecipients(recipients, email.getTo());
+        addRecipients(recipients, email.getCc());
+        addRecipients(recipients, email.getBcc());
+      }
+    } catch (IllegalArgumentException e) {
+      log.error("address exception", e);
+      handleError(e);
+      return;
     }
-    if (email.getCc() != null) {
-      recipientAddrs.addAll(email.getCc());
+    if (recipients.isEmpty()) {
+      handleError("no recipient addresses are present");
+    } else {
+      rcptToCmd(recipients, 0);
     }
-    if (email.getBcc() != null) {
-      recipientAddrs.addAll(email.getBcc());
+  }
+
+  private static void addRecipients(List<EmailAddress> recipients, List<String> addresses) {
+    if (addresses != null) {
+      for (String address : addresses) {
+        recipients.addAll(EmailAddress.parseList(address));
+      }
     }
-    rcptToCmd(recipientAddrs, 0);
   }
 
-  private void rcptToCmd(List<String> recipientAddrs, int i) {
-    try {
-      EmailAddress toAddr = new EmailAddress(recipientAddrs.get(i));
-      connection.write("RCPT TO:<" + toAddr.getEmail() + ">", message -> {
-        if (StatusCode.isStatusOk(message)) {
-          log.debug("RCPT TO result: " + message);
-          mailResult.getRecipients().add(toAddr.getEmail());
-          nextRcpt(recipientAddrs, i);
+  private void rcptToCmd(List<EmailAddress> recipients, int i) {
+    EmailAddress toAddr = recipients.get(i);
+    final long startTime = System.nanoTime();
+    connection.writeAddress(CommandWriter.RCPT_TO, toAddr.getEmail(), "", message -> {
+      connection.reportPhase(MailPhase.RCPT, startTime, StatusCode.isStatusOk(message));
+      if (timing != null) {
+        timing.getRcptToTimes().add(System.nanoTime() - startTime);
+      }
+      if (StatusCode.isStatusOk(message)) {
+        log.debug("RCPT TO result: " + message);
+        mailResult.getRecipients().add(toAddr.getEmail());
+        nextRcpt(recipients, i);
+      } else {
+        if (config.isAllowRcptErrors()) {
+          log.warn("recipient address not accepted, continuing: " + message);
+          nextRcpt(recipients, i);
         } else {
-          if (config.isAllowRcptErrors()) {
-            log.warn("recipient address not accepted, continuing: " + message);
-            nextRcpt(recipientAddrs, i);
-          } else {
-            log.warn("recipient address not accepted: " + message);
-            handleError("recipient address not accepted: " + message);
-          }
+          log.warn("recipient address not accepted: " + message);
+          handleError("recipient address not accepted: " + message);
         }
-      });
-    } catch (IllegalArgumentException e) {
-      log.error("address exception", e);
-      handleError(e);
-    }
+      }
+    });
   }
 
-  private void nextRcpt(List<String> recipientAddrs, int i) {
-    if (i + 1 < recipientAddrs.size()) {
-      rcptToCmd(recipientAddrs, i + 1);
+  private void nextRcpt(List<EmailAddress> recipients, int i) {
+    if (i + 1 < recipients.size()) {
+      rcptToCmd(recipients, i + 1);
     } else {
       if (mailResult.getRecipients().size() > 0) {
         dataCmd();
@@ -175,11 +239,13 @@ class SMTPSendMail {
   }
 
   private void dataCmd() {
-    connection.write("DATA", message -> {
+    dataStartTime = System.nanoTime();
+    connection.write(CommandWriter.DATA, message -> {
       log.debug("DATA result: " + message);
       if (StatusCode.isStatusOk(message)) {
         sendMaildata();
       } else {
+        connection.reportPhase(MailPhase.DATA, dataStartTime, false);
         log.warn("DATA command not accepted: " + message);
         handleError("DATA command not accepted: " + message);
       }
@@ -187,11 +253,28 @@ class SMTPSendMail {
   }
 
   private void sendMaildata() {
-    // create the message here if it hasn't been created
-    // for the size check above
-    createMailMessage();
+    if (encoding != null) {
+      encoding.setHandler(result -> {
+        if (result.succeeded()) {
+          mailMessage = result.result();
+          mailResult.setMessageID(encoder.getMessageID());
+          sendLineByLine(0, mailMessage.length());
+        } else {
+          handleError(result.cause());
+        }
+      });
+    } else {
+      try {
+        createMailMessage();
+      } catch (Exception e) {
+        // this runs in the reply handler of the DATA command, the exception must not escape to the socket
+        log.error("cannot encode message", e);
+        handleError(e);
+        return;
+      }
 
-    sendLineByLine(0, mailMessage.length());
+      sendLineByLine(0, mailMessage.length());
+    }
   }
 
   private void sendLineByLine(int index, int length) {
@@ -208,6 +291,10 @@ class SMTPSendMail {
       if (line.startsWith(".")) {
         line = "." + line;
       }
+      if (timing != null) {
+        // the encoded message is 7 bit, so the line length is the number of bytes
+        timing.setBytesSent(timing.getBytesSent() + line.length() + 2);
+      }
       final int nextIndexFinal = nextIndex;
       final boolean mayLog = nextIndex < 1000;
       if (connection.writeQueueFull()) {
@@ -221,8 +308,23 @@ class SMTPSendMail {
         index = nextIndex;
       }
     }
-    connection.write(".", message -> {
+    connection.reportPhase(MailPhase.DATA, dataStartTime, true);
+    final long startTime = System.nanoTime();
+    if (timing != null) {
+      timing.setDataTime(startTime - dataStartTime);
+    }
+    connection.setCommandTimeout(config.getDataEndTimeout());
+    connection.write(CommandWriter.END_OF_DATA, message -> {
+      if (config.isLmtp()) {
+        lmtpReply(new ArrayList<>(mailResult.getRecipients()), new ArrayList<>(), message, startTime);
+        return;
+      }
       log.debug("maildata result: " + message);
+      connection.reportPhase(MailPhase.FINAL_REPLY, startTime, StatusCode.isStatusOk(message));
+      if (timing != null) {
+        timing.setFinalReplyTime(System.nanoTime() - startTime);
+        timing.setQueueId(Utils.parseQueueId(message));
+      }
       if (StatusCode.isStatusOk(message)) {
         resultHandler.handle(Future.succeededFuture(mailResult));
       } else {
@@ -232,14 +334,96 @@ class SMTPSendMail {
     });
   }
 
+  /**
+   * a LMTP server sends one reply for every accepted recipient in the order of the RCPT TO commands, the mail is
+   * delivered to the recipients with a positive reply. The operation fails only if no recipient got the mail, since
+   * the delivery to the other recipients cannot be undone
+   */
+  private void lmtpReply(List<String> accepted, List<String> replies, String message, long startTime) {
+    log.debug("maildata result for " + accepted.get(replies.size()) + ": " + message);
+    replies.add(message);
+    if (replies.size() < accepted.size()) {
+      connection.waitForReply(next -> lmtpReply(accepted, replies, next, startTime));
+      return;
+    }
+    Map<String, String> recipientReplies = new LinkedHashMap<>();
+    List<String> delivered = new ArrayList<>();
+    String error = null;
+    for (int i = 0; i < accepted.size(); i++) {
+      String reply = replies.get(i);
+      recipientReplies.put(accepted.get(i), reply);
+      if (StatusCode.isStatusOk(reply)) {
+        delivered.add(accepted.get(i));
+        if (timing != null && timing.getQueueId() == null) {
+          timing.setQueueId(Utils.parseQueueId(reply));
+        }
+      } else if (error == null) {
+        error = reply;
+      }
+    }
+    mailResult.setRecipients(delivered);
+    mailResult.setRecipientReplies(recipientReplies);
+    connection.reportPhase(MailPhase.FINAL_REPLY, startTime, !delivered.isEmpty());
+    if (timing != null) {
+      timing.setFinalReplyTime(System.nanoTime() - startTime);
+    }
+    if (!delivered.isEmpty()) {
+      if (error != null) {
+        log.warn("mail was not delivered to all recipients: " + error);
+      }
+      resultHandler.handle(Future.succeededFuture(mailResult));
+    } else {
+      log.warn("sending data failed: " + error);
+      handleError("sending data failed: " + error);
+    }
+  }
+
+  /**
+   * start encoding large messages on a worker thread, the encoding runs while the envelope is sent
+   */
+  private void startEncoding() {
+    final long threshold = config.getWorkerEncodingThreshold();
+    if (mailMessage == null && threshold > 0 && messageSize() >= threshold) {
+      final MailEncoder encoder = encoder();
+      final long startTime = System.nanoTime();
+      encoding = Future.future();
+      connection.getContext().<String>executeBlocking(fut -> fut.complete(encoder.encodeParallel()), false, result -> {
+        if (timing != null) {
+          timing.setEncodeTime(System.nanoTime() - startTime);
+        }
+        encoding.handle(result);
+      });
+    }
+  }
+
+  private MailEncoder encoder() {
+    if (encoder == null) {
+      encoder = new MailEncoder(email, hostname);
+    }
+    return encoder;
+  }
+
+  /**
+   * get the size of the encoded message in octets as it is used in the SIZE extension
+   */
+  private long messageSize() {
+    if (messageSize == -1) {
+      messageSize = encoder().size();
+    }
+    return messageSize;
+  }
+
   /**
    * create message if it hasn't been already
    */
   private void createMailMessage() {
     if (mailMessage == null) {
-      MailEncoder encoder = new MailEncoder(email, hostname);
-      mailMessage = encoder.encode();
+      final long startTime = System.nanoTime();
+      mailMessage = encoder().encode();
       mailResult.setMessageID(encoder.getMessageID());
+      if (timing != null) {
+        timing.setEncodeTime(System.nanoTime() - startTime);
+      }
     }
   }
 
@@ -22,6 +22,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.spi.MailPhase;
 
 /**
  * this encapsulates open connection, initial dialogue and authentication
@@ -36,6 +37,10 @@ class SMTPStarter {
   private String hostname;
   private final MailConfig config;
   private final Handler<AsyncResult<Void>> handler;
+  // phase that is currently timed by this class, null while the initial dialogue is running
+  private MailPhase phase;
+  private long phaseStart;
+  private long startTime;
 
   SMTPStarter(SMTPConnection connection, MailConfig config, String hostname, Handler<AsyncResult<Void>> handler) {
     this.connection = connection;
@@ -46,21 +51,42 @@ class SMTPStarter {
 
   void start() {
     log.debug("connection.openConnection");
+    startTime = System.nanoTime();
+    startPhase(MailPhase.CONNECT);
     connection.openConnection(config, this::serverGreeting, this::handleError);
   }
 
   private void serverGreeting(String message) {
+    endPhase(StatusCode.isStatusOk(message));
     log.debug("SMTPInitialDialogue");
     new SMTPInitialDialogue(connection, config, hostname, v -> doAuthentication(), this::handleError).start(message);
   }
 
   private void doAuthentication() {
     log.debug("SMTPAuthentication");
-    new SMTPAuthentication(connection, config, v -> handler.handle(Future.succeededFuture(null)), this::handleError).start();
+    startPhase(MailPhase.AUTH);
+    new SMTPAuthentication(connection, config, v -> {
+      endPhase(true);
+      connection.setConnectTime(System.nanoTime() - startTime);
+      handler.handle(Future.succeededFuture(null));
+    }, this::handleError).start();
+  }
+
+  private void startPhase(MailPhase phase) {
+    this.phase = phase;
+    phaseStart = System.nanoTime();
+  }
+
+  private void endPhase(boolean succeeded) {
+    if (phase != null) {
+      connection.reportPhase(phase, phaseStart, succeeded);
+      phase = null;
+    }
   }
 
   private void handleError(Throwable throwable) {
     log.debug("handleError:" + throwable);
+    endPhase(false);
     if (connection != null) {
       connection.setBroken();
     }
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * deadline of a single send operation
+ * <p>
+ * if the operation hasn't finished when the timer fires, the expired handler is called and the connection used by
+ * the operation is closed, results arriving after that are dropped
+ */
+class SendDeadline {
+
+  private static final Logger log = LoggerFactory.getLogger(SendDeadline.class);
+
+  private final Vertx vertx;
+  private final Handler<Void> expiredHandler;
+  private final long timerId;
+  private boolean finished;
+  private SMTPConnection connection;
+
+  SendDeadline(Vertx vertx, long timeout, Handler<Void> expiredHandler) {
+    this.vertx = vertx;
+    this.expiredHandler = expiredHandler;
+    this.timerId = vertx.setTimer(timeout, id -> expired());
+  }
+
+  /**
+   * set the connection the operation got from the pool
+   *
+   * @param connection the connection
+   * @return false if the deadline has already expired, the connection has to be returned to the pool in that case
+   */
+  synchronized boolean setConnection(SMTPConnection connection) {
+    this.connection = connection;
+    return !finished;
+  }
+
+  /**
+   * the operation has finished
+   *
+   * @return false if the deadline has already expired and the result has to be dropped
+   */
+  synchronized boolean finish() {
+    if (finished) {
+      return false;
+    } else {
+      finished = true;
+      vertx.cancelTimer(timerId);
+      return true;
+    }
+  }
+
+  private void expired() {
+    SMTPConnection conn;
+    synchronized (this) {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      conn = connection;
+    }
+    log.debug("send operation has not finished in time");
+    if (conn != null) {
+      conn.getContext().runOnContext(v -> conn.setBroken());
+    }
+    expiredHandler.handle(null);
+  }
+
+}
@@ -67,6 +67,44 @@ public final class Utils {
     return lines;
   }
 
+  /**
+   * get the queue id from the reply to the end of the mail data
+   * <p>
+   * the reply format is not standardized, this recognizes the usual formats of Postfix ("250 2.0.0 Ok: queued as
+   * 4A2B3C"), Exim ("250 OK id=1abcde-000001-AB") and Sendmail ("250 2.0.0 v8ABcdef012345 Message accepted for
+   * delivery")
+   *
+   * @param message the reply of the server
+   * @return the queue id or null if it was not found
+   */
+  static String parseQueueId(final String message) {
+    if (message == null) {
+      return null;
+    }
+    int index = message.indexOf("queued as ");
+    if (index >= 0) {
+      return nextWord(message, index + "queued as ".length());
+    }
+    index = message.indexOf("id=");
+    if (index >= 0) {
+      return nextWord(message, index + "id=".length());
+    }
+    index = message.indexOf(" Message accepted");
+    if (index > 0) {
+      int start = message.lastIndexOf(' ', index - 1) + 1;
+      return nextWord(message, start);
+    }
+    return null;
+  }
+
+  private static String nextWord(final String message, final int start) {
+    int end = start;
+    while (end < message.length() && !Character.isWhitespace(message.charAt(end)) && message.charAt(end) != ')') {
+      end++;
+    }
+    return end > start ? message.substring(start, end) : null;
+  }
+
   /**
    * get the hostname by resolving our own address
    *
@@ -0,0 +1,139 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.spi.metrics.PoolMetrics;
+import io.vertx.core.spi.metrics.VertxMetrics;
+import io.vertx.ext.mail.spi.MailClientMetrics;
+
+/**
+ * MailClientMetrics reporting the connection pool to the pool metrics of the Vert.x metrics SPI
+ * <p>
+ * the phase timings are not available in the Vert.x SPI, these can only be collected by a
+ * custom {@link io.vertx.ext.mail.spi.MailClientMetricsFactory}
+ * <p>
+ * the Vert.x pool metrics get the max size only when they are created, when the effective limit of the pool changes
+ * the pool metrics are created again with the new size
+ */
+class VertxPoolMetrics implements MailClientMetrics {
+
+  static final String POOL_TYPE = "mail";
+
+  private final VertxMetrics metrics;
+  private final Object pool;
+  private final String poolName;
+  // guarded by this
+  private PoolMetrics<Object> poolMetrics;
+  private int maxSize;
+
+  private VertxPoolMetrics(VertxMetrics metrics, Object pool, String poolName, PoolMetrics<Object> poolMetrics,
+      int maxSize) {
+    this.metrics = metrics;
+    this.pool = pool;
+    this.poolName = poolName;
+    this.poolMetrics = poolMetrics;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * create the pool metrics if metrics are enabled in the Vert.x instance
+   *
+   * @param maxSize the current max number of connections of the pool
+   * @return the metrics or null if metrics are not enabled
+   */
+  static VertxPoolMetrics create(Vertx vertx, Object pool, int maxSize, String poolName) {
+    if (vertx instanceof VertxInternal) {
+      VertxMetrics metrics = ((VertxInternal) vertx).metricsSPI();
+      if (metrics != null && metrics.isEnabled()) {
+        PoolMetrics<Object> poolMetrics = createPoolMetrics(metrics, pool, poolName, maxSize);
+        if (poolMetrics != null) {
+          return new VertxPoolMetrics(metrics, pool, poolName, poolMetrics, maxSize);
+        }
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static PoolMetrics<Object> createPoolMetrics(VertxMetrics metrics, Object pool, String poolName,
+      int maxSize) {
+    return (PoolMetrics<Object>) metrics.createMetrics(pool, POOL_TYPE, poolName, maxSize);
+  }
+
+  /**
+   * report a new max number of connections of the pool
+   * <p>
+   * the metrics of the old size are closed before the new ones are created, since both use the pool name. Operations
+   * that are running end in the metrics they were submitted to, so they don't change the counters of the new metrics
+   *
+   * @param maxSize the new limit
+   */
+  synchronized void setMaxSize(int maxSize) {
+    if (maxSize != this.maxSize) {
+      poolMetrics.close();
+      poolMetrics = createPoolMetrics(metrics, pool, poolName, maxSize);
+      this.maxSize = maxSize;
+    }
+  }
+
+  @Override
+  public Object submitted() {
+    PoolMetrics<Object> current;
+    synchronized (this) {
+      current = poolMetrics;
+    }
+    return new Metric(current, current.submitted());
+  }
+
+  @Override
+  public Object begin(Object submittedMetric) {
+    Metric metric = (Metric) submittedMetric;
+    return new Metric(metric.owner, metric.owner.begin(metric.metric));
+  }
+
+  @Override
+  public void rejected(Object submittedMetric) {
+    Metric metric = (Metric) submittedMetric;
+    metric.owner.rejected(metric.metric);
+  }
+
+  @Override
+  public void end(Object beginMetric, boolean succeeded) {
+    Metric metric = (Metric) beginMetric;
+    metric.owner.end(metric.metric, succeeded);
+  }
+
+  @Override
+  public synchronized void close() {
+    poolMetrics.close();
+  }
+
+  /**
+   * the metric of the Vert.x pool metrics together with the pool metrics that created it
+   */
+  private static class Metric {
+    private final PoolMetrics<Object> owner;
+    private final Object metric;
+
+    private Metric(PoolMetrics<Object> owner, Object metric) {
+      this.owner = owner;
+      this.metric = metric;
+    }
+  }
+}
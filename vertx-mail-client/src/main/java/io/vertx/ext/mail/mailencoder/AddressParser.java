@@ -0,0 +1,216 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * single pass scanning of address strings used by {@link EmailAddress}, this replaces the regular expressions that
+ * were used before and accepts the same addresses, plus quoted local parts and the group syntax of RFC 5322
+ */
+class AddressParser {
+
+  private AddressParser() {
+  }
+
+  /**
+   * the characters matched by \s in a regular expression
+   */
+  static boolean isWhitespace(char ch) {
+    return ch == ' ' || ch == '\t' || ch == '\n' || ch == 0x0b || ch == '\f' || ch == '\r';
+  }
+
+  /**
+   * the characters not matched by . in a regular expression
+   */
+  static boolean isLineTerminator(char ch) {
+    return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+  }
+
+  /**
+   * skip a quoted string
+   *
+   * @param s     the string
+   * @param start index of the opening quote
+   * @return the index after the closing quote or -1 if the quoted string is not terminated
+   */
+  static int skipQuoted(String s, int start) {
+    final int length = s.length();
+    for (int i = start + 1; i < length; i++) {
+      char ch = s.charAt(i);
+      if (ch == '\\') {
+        i++;
+      } else if (ch == '"') {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * find the first ( or &lt; that is not inside a quoted string
+   *
+   * @return the index or -1 if there is none
+   */
+  static int findDelimiter(String address) {
+    final int length = address.length();
+    for (int i = 0; i < length; i++) {
+      char ch = address.charAt(i);
+      if (ch == '"') {
+        int end = skipQuoted(address, i);
+        // an unterminated quote is just a normal character
+        if (end > 0) {
+          i = end - 1;
+        }
+      } else if (ch == '(' || ch == '<') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the index before the spaces preceding end
+   */
+  static int skipSpacesBackwards(String s, int end) {
+    while (end > 0 && s.charAt(end - 1) == ' ') {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * this only catches very simple errors, mostly to avoid protocol errors due to spaces and newlines, the empty address
+   * is valid since it is used as MAIL FROM for bounces
+   */
+  static boolean isValidEmail(String email) {
+    final int length = email.length();
+    if (length == 0) {
+      return true;
+    }
+    if (email.charAt(0) == '"') {
+      int end = skipQuoted(email, 0);
+      if (end > 0 && end < length && email.charAt(end) == '@' && !containsLineBreak(email, 0, end)
+        && isAtom(email, end + 1, length)) {
+        return true;
+      }
+    }
+    if (!isAtom(email, 0, length)) {
+      return false;
+    }
+    // there has to be at least one character on both sides of the @
+    for (int i = 1; i < length - 1; i++) {
+      if (email.charAt(i) == '@') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isAtom(String s, int start, int end) {
+    if (start >= end) {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      char ch = s.charAt(i);
+      if (isWhitespace(ch) || ch == ',' || ch == '<' || ch == '>') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean containsLineBreak(String s, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char ch = s.charAt(i);
+      if (ch == '\r' || ch == '\n') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * check if the address is a group (display-name: mailbox, mailbox;)
+   *
+   * @return the index of the colon after the display name or -1 if the address is not a group
+   */
+  static int groupStart(String address) {
+    final int length = address.length();
+    for (int i = 0; i < length; i++) {
+      char ch = address.charAt(i);
+      if (ch == '"') {
+        int end = skipQuoted(address, i);
+        if (end < 0) {
+          return -1;
+        }
+        i = end - 1;
+      } else if (ch == ':') {
+        return i > 0 && address.trim().endsWith(";") ? i : -1;
+      } else if (ch == '<' || ch == '(' || ch == '@') {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * split the member list of a group at the commas outside of quoted strings, comments and angle brackets
+   *
+   * @param address the group
+   * @param colon   the index returned by {@link #groupStart(String)}
+   * @return the members, the list is empty for an empty group
+   */
+  static List<String> groupMembers(String address, int colon) {
+    final int end = address.lastIndexOf(';');
+    List<String> members = new ArrayList<>();
+    int start = colon + 1;
+    int comment = 0;
+    boolean angle = false;
+    for (int i = start; i < end; i++) {
+      char ch = address.charAt(i);
+      if (ch == '"') {
+        int quoteEnd = skipQuoted(address, i);
+        if (quoteEnd > 0) {
+          i = quoteEnd - 1;
+        }
+      } else if (ch == '(') {
+        comment++;
+      } else if (ch == ')' && comment > 0) {
+        comment--;
+      } else if (ch == '<') {
+        angle = true;
+      } else if (ch == '>') {
+        angle = false;
+      } else if (ch == ',' && comment == 0 && !angle) {
+        addMember(members, address, start, i);
+        start = i + 1;
+      }
+    }
+    addMember(members, address, start, end);
+    return members;
+  }
+
+  private static void addMember(List<String> members, String address, int start, int end) {
+    String member = address.substring(start, end).trim();
+    if (!member.isEmpty()) {
+      members.add(member);
+    }
+  }
+
+}
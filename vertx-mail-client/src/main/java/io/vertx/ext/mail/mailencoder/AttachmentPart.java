@@ -16,11 +16,16 @@
 
 package io.vertx.ext.mail.mailencoder;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.ext.mail.MailAttachment;
 
 class AttachmentPart extends EncodedPart {
 
+  private final Buffer data;
+  // encoded body if it has been prepared in advance
+  private String encoded;
+
   public AttachmentPart(MailAttachment attachment) {
     headers = new CaseInsensitiveHeaders();
     String name = attachment.getName();
@@ -58,7 +63,35 @@ class AttachmentPart extends EncodedPart {
       headers.addAll(attachment.getHeaders());
     }
 
-    part = Utils.base64(attachment.getData().getBytes());
+    data = attachment.getData();
+  }
+
+  /**
+   * encode the body in advance, this is used to encode several attachments in parallel
+   */
+  void prepare() {
+    encoded = Utils.base64(data.getBytes());
+  }
+
+  @Override
+  String body() {
+    if (encoded != null) {
+      String body = encoded;
+      encoded = null;
+      return body;
+    } else {
+      return Utils.base64(data.getBytes());
+    }
+  }
+
+  @Override
+  long bodySize() {
+    return Utils.base64Size(data.length());
+  }
+
+  @Override
+  boolean endsWithLineBreak() {
+    return data.length() == 0;
   }
 
 }
@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * format the Date header, the formatted value is cached for the current second so that the formatter only runs once
+ * per second when sending many mails (this is the same thing http servers usually do for their Date header)
+ */
+class DateHeader {
+
+  private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss Z (z)",
+    Locale.ENGLISH);
+
+  /**
+   * the shared instance using the system clock and the default time zone
+   */
+  static final DateHeader SYSTEM = new DateHeader(Clock.systemDefaultZone());
+
+  private final Clock clock;
+  private volatile Cached cached;
+
+  DateHeader(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * get the current time as RFC 5322 date
+   *
+   * @return the formatted date
+   */
+  String format() {
+    final long second = Math.floorDiv(clock.millis(), 1000);
+    Cached current = cached;
+    if (current == null || current.second != second) {
+      String value = FORMAT.format(ZonedDateTime.ofInstant(Instant.ofEpochSecond(second), clock.getZone()));
+      // this is racy, but two threads formatting the same second will store the same value
+      current = new Cached(second, value);
+      cached = current;
+    }
+    return current.value;
+  }
+
+  private static final class Cached {
+
+    private final long second;
+    private final String value;
+
+    Cached(long second, String value) {
+      this.second = second;
+      this.value = value;
+    }
+  }
+
+}
@@ -16,14 +16,16 @@
 
 package io.vertx.ext.mail.mailencoder;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * represent a mail address with an email address part and an optional full name e.g. <br>
  * {@code user@example.com} <br>
  * {@code user@example.com (This User)} <br>
- * {@code Another User <other@example.net>}
+ * {@code Another User <other@example.net>} <br>
+ * {@code "quoted local part"@example.com}
  * <p>
  * the constructor will validate the address catching format errors like excess spaces, newlines the test is not very
  * strict, for example an IDN address will be considered valid, even though SMTP doesn't work with that yet
@@ -32,12 +34,8 @@ import java.util.regex.Pattern;
  */
 public class EmailAddress {
 
-  private static final Pattern PATTERN_EMAIL = Pattern.compile("([^(\\s]+) *\\((.*)\\)");
-  private static final Pattern PATTERN_EMAIL_ANGLE = Pattern.compile("([^<]*[^< ])? *\\<([^>]*)\\>");
-  private static final Pattern PATTERN_EMAIL_INVALID = Pattern.compile("([^\\s,<>]+@[^\\s,<>]+)|");
-
-  private String email;
-  private String name;
+  private final String email;
+  private final String name;
 
   /**
    * parse and create an email address
@@ -46,37 +44,70 @@ public class EmailAddress {
    * @throws IllegalArgumentException if an address is not valid
    */
   public EmailAddress(String fullAddress) {
+    final int length = fullAddress.length();
+    final int delimiter = AddressParser.findDelimiter(fullAddress);
 
-    if (fullAddress.contains("(")) {
-      Matcher matcher = PATTERN_EMAIL.matcher(fullAddress);
-      if (matcher.matches()) {
-        email = matcher.group(1);
-        name = matcher.group(2);
-      } else {
+    if (delimiter < 0) {
+      email = fullAddress;
+      name = "";
+    } else if (fullAddress.charAt(delimiter) == '(') {
+      // user@example.com (Full Name)
+      final int end = AddressParser.skipSpacesBackwards(fullAddress, delimiter);
+      if (end == 0 || fullAddress.charAt(length - 1) != ')' || delimiter == length - 1) {
         throw new IllegalArgumentException("invalid email address");
       }
-    } else if (fullAddress.contains("<")) {
-      Matcher matcher = PATTERN_EMAIL_ANGLE.matcher(fullAddress);
-      if (matcher.matches()) {
-        name = matcher.group(1);
-        if (name == null) {
-          name = "";
+      email = fullAddress.substring(0, end);
+      name = fullAddress.substring(delimiter + 1, length - 1);
+      for (int i = 0; i < name.length(); i++) {
+        if (AddressParser.isLineTerminator(name.charAt(i))) {
+          throw new IllegalArgumentException("invalid email address");
         }
-        email = matcher.group(2);
-      } else {
-        throw new IllegalArgumentException("invalid email address");
       }
     } else {
-      email = fullAddress;
-      name = "";
+      // Full Name <user@example.com>
+      if (fullAddress.charAt(length - 1) != '>' || delimiter == length - 1) {
+        throw new IllegalArgumentException("invalid email address");
+      }
+      name = fullAddress.substring(0, AddressParser.skipSpacesBackwards(fullAddress, delimiter));
+      email = fullAddress.substring(delimiter + 1, length - 1);
     }
 
-    // this only catches very simple errors
-    // mostly to avoid protocol errors due to spaces and newlines
-    if (!PATTERN_EMAIL_INVALID.matcher(email).matches()) {
+    if (!AddressParser.isValidEmail(email)) {
       throw new IllegalArgumentException("invalid email address");
     }
+  }
+
+  /**
+   * parse an email address, the result is taken from a bounded cache shared with the mail encoder if the same address
+   * has been parsed before
+   *
+   * @param fullAddress full address string
+   * @return the parsed address
+   * @throws IllegalArgumentException if an address is not valid
+   */
+  public static EmailAddress parse(String fullAddress) {
+    return HeaderCache.address(fullAddress);
+  }
 
+  /**
+   * parse an address that may be a group like {@code Team: one@example.com, two@example.com;} or
+   * {@code undisclosed-recipients:;}, if the address is not a group, the result contains only the address itself
+   *
+   * @param address the address or group
+   * @return the parsed addresses, a group without members returns an empty list
+   * @throws IllegalArgumentException if an address is not valid
+   */
+  public static List<EmailAddress> parseList(String address) {
+    final int colon = AddressParser.groupStart(address);
+    if (colon < 0) {
+      return Collections.singletonList(parse(address));
+    }
+    List<String> members = AddressParser.groupMembers(address, colon);
+    List<EmailAddress> addresses = new ArrayList<>(members.size());
+    for (String member : members) {
+      addresses.add(parse(member));
+    }
+    return addresses;
   }
 
   /**
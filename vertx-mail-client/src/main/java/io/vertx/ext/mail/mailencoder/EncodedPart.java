@@ -18,12 +18,37 @@ package io.vertx.ext.mail.mailencoder;
 
 import io.vertx.core.MultiMap;
 
+/**
+ * a part of a MIME message, the body of the part is only encoded when the part is converted to a String, so the size
+ * of the encoded part can be computed without encoding it
+ */
 abstract class EncodedPart {
   MultiMap headers;
-  String part;
+
+  /**
+   * @return the encoded body of the part
+   */
+  abstract String body();
+
+  /**
+   * @return the number of octets of the encoded body when it is sent with CRLF line breaks
+   */
+  abstract long bodySize();
+
+  /**
+   * @return true if the encoded part ends with a line break
+   */
+  abstract boolean endsWithLineBreak();
 
   public String asString() {
     return headers.toString() + "\n"
-        + part;
+        + body();
+  }
+
+  /**
+   * @return the number of octets of the encoded part (headers and body) when it is sent with CRLF line breaks
+   */
+  long size() {
+    return Utils.wireSize(headers.toString()) + 2 + bodySize();
   }
 }
@@ -0,0 +1,147 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * bounded LRU caches for parsed addresses and encoded address headers
+ * <p>
+ * applications sending to the same sender and recipient lists over and over spend a noticeable part of the encoding
+ * time parsing the addresses and encoding the From, To and Cc headers, the caches are shared by all encoder
+ * instances so that this is only done once per distinct address (list)
+ */
+class HeaderCache {
+
+  static final int MAX_ENTRIES = 1024;
+
+  private static final Lru<String, EmailAddress> addresses = new Lru<>(MAX_ENTRIES);
+  private static final Lru<Key, String> headers = new Lru<>(MAX_ENTRIES);
+
+  private HeaderCache() {
+  }
+
+  /**
+   * get the parsed address from the cache or parse it
+   *
+   * @param address the full address
+   * @return the parsed address
+   * @throws IllegalArgumentException if the address is not valid, invalid addresses are not cached
+   */
+  static EmailAddress address(String address) {
+    return addresses.computeIfAbsent(address, EmailAddress::new);
+  }
+
+  /**
+   * get the encoded header value of a single address from the cache or encode it
+   */
+  static String encodedAddress(String address, int index) {
+    return headers.computeIfAbsent(new Key(address, index), key -> Utils.encodeHeaderEmail(address, index));
+  }
+
+  /**
+   * get the encoded header value of an address list from the cache or encode it
+   */
+  static String encodedList(List<String> addresses, int index) {
+    // copy the list, otherwise a caller modifying the list would change the key in the map
+    Key key = new Key(Collections.unmodifiableList(new ArrayList<>(addresses)), index);
+    return headers.computeIfAbsent(key, k -> Utils.encodeEmailList(addresses, index));
+  }
+
+  static void clear() {
+    addresses.clear();
+    headers.clear();
+  }
+
+  static int size() {
+    return addresses.size() + headers.size();
+  }
+
+  private static final class Key {
+
+    private final Object value;
+    private final int index;
+
+    Key(Object value, int index) {
+      this.value = value;
+      this.index = index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return index == other.index && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * value.hashCode() + index;
+    }
+  }
+
+  /**
+   * minimal synchronized LRU map, the values are computed outside of the lock since encoding may take a while and
+   * computing the same value twice is harmless
+   */
+  private static final class Lru<K, V> {
+
+    private final Map<K, V> map;
+
+    Lru(int maxEntries) {
+      map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+          return size() > maxEntries;
+        }
+      };
+    }
+
+    V computeIfAbsent(K key, Function<K, V> function) {
+      V value;
+      synchronized (this) {
+        value = map.get(key);
+      }
+      if (value == null) {
+        value = function.apply(key);
+        synchronized (this) {
+          map.put(key, value);
+        }
+      }
+      return value;
+    }
+
+    synchronized void clear() {
+      map.clear();
+    }
+
+    synchronized int size() {
+      return map.size();
+    }
+  }
+
+}
@@ -21,6 +21,7 @@ import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.ext.mail.MailAttachment;
 import io.vertx.ext.mail.MailMessage;
 
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -49,6 +50,10 @@ public class MailEncoder {
   private final String hostname;
 
   private String messageID;
+  private DateHeader dateHeader = DateHeader.SYSTEM;
+  // structure of the message with the final headers, the bodies are encoded when converting it to a String
+  private EncodedPart completeMessage;
+  private final List<AttachmentPart> attachmentParts = new ArrayList<>();
 
   /**
    * create a MailEncoder for the message
@@ -64,13 +69,65 @@ public class MailEncoder {
     this.hostname = hostname;
   }
 
+  /**
+   * set the clock used for the Date header, this is mostly useful to get reproducible output in tests
+   *
+   * @param clock the clock, the date is formatted in the time zone of the clock
+   * @return this to be able to use it fluently
+   */
+  public MailEncoder setClock(Clock clock) {
+    this.dateHeader = new DateHeader(clock);
+    return this;
+  }
+
   /**
    * encode the MailMessage to a String
    *
    * @return the encoded message
    */
   public String encode() {
-    EncodedPart completeMessage;
+    return createParts().asString();
+  }
+
+  /**
+   * encode the MailMessage to a String, the attachments are encoded in parallel in the common fork-join pool
+   * <p>
+   * this is meant for large messages with several attachments, the method blocks until the message is encoded, so it
+   * should be called on a worker thread
+   *
+   * @return the encoded message
+   */
+  public String encodeParallel() {
+    EncodedPart parts = createParts();
+    if (attachmentParts.size() > 1) {
+      attachmentParts.parallelStream().forEach(AttachmentPart::prepare);
+    }
+    return parts.asString();
+  }
+
+  /**
+   * get the number of octets of the encoded message as it is sent in the DATA command
+   * <p>
+   * the size includes the CRLF line breaks but not the dot-stuffing and the final dot, as required for the SIZE
+   * parameter of the MAIL FROM command (RFC 1870). It is computed from the structure of the message and the lengths of
+   * the text and attachments without encoding the message, the message encoded later by {@link #encode()} has the
+   * same headers and boundaries and so has exactly this size.
+   *
+   * @return the size in octets
+   */
+  public long size() {
+    EncodedPart parts = createParts();
+    // the last line gets a line break when it is sent
+    return parts.size() + (parts.endsWithLineBreak() ? 0 : 2);
+  }
+
+  /**
+   * create the structure of the message, this is done only once so that size and encode use the same headers
+   */
+  private EncodedPart createParts() {
+    if (completeMessage != null) {
+      return completeMessage;
+    }
     EncodedPart mainPart;
 
     String text = message.getText();
@@ -94,7 +151,7 @@ public class MailEncoder {
         parts.add(mainPart);
       }
       for (MailAttachment a : attachments) {
-        parts.add(new AttachmentPart(a));
+        parts.add(attachmentPart(a));
       }
       completeMessage = new MultiPart(parts, "mixed");
     } else {
@@ -108,7 +165,13 @@ public class MailEncoder {
     }
     completeMessage.headers = createHeaders(completeMessage.headers);
 
-    return completeMessage.asString();
+    return completeMessage;
+  }
+
+  private AttachmentPart attachmentPart(MailAttachment attachment) {
+    AttachmentPart part = new AttachmentPart(attachment);
+    attachmentParts.add(part);
+    return part;
   }
 
   /**
@@ -121,7 +184,7 @@ public class MailEncoder {
       List<EncodedPart> parts = new ArrayList<>();
       parts.add(new TextPart(message.getHtml(), "html"));
       for (MailAttachment a : message.getInlineAttachment()) {
-        parts.add(new AttachmentPart(a));
+        parts.add(attachmentPart(a));
       }
       mainPart = new MultiPart(parts, "related");
     } else {
@@ -142,20 +205,20 @@ public class MailEncoder {
     if (!message.isFixedHeaders()) {
       headers.set("MIME-Version", "1.0");
       headers.set("Message-ID", Utils.generateMessageID(hostname));
-      headers.set("Date", Utils.generateDate());
+      headers.set("Date", dateHeader.format());
 
       if (message.getSubject() != null) {
         headers.set("Subject", Utils.encodeHeader(message.getSubject(), 9));
       }
 
       if (message.getFrom() != null) {
-        headers.set("From", Utils.encodeHeaderEmail(message.getFrom(), 6));
+        headers.set("From", HeaderCache.encodedAddress(message.getFrom(), 6));
       }
       if (message.getTo() != null) {
-        headers.set("To", Utils.encodeEmailList(message.getTo(), 4));
+        headers.set("To", HeaderCache.encodedList(message.getTo(), 4));
       }
       if (message.getCc() != null) {
-        headers.set("Cc", Utils.encodeEmailList(message.getCc(), 4));
+        headers.set("Cc", HeaderCache.encodedList(message.getCc(), 4));
       }
 
       headers.addAll(additionalHeaders);
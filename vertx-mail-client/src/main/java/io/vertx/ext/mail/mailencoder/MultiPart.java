@@ -22,13 +22,19 @@ import java.util.List;
 
 class MultiPart extends EncodedPart {
 
-  public MultiPart(List<EncodedPart> parts, String mode) {
+  private final List<EncodedPart> parts;
+  private final String boundary;
 
-    String boundary = Utils.generateBoundary();
+  public MultiPart(List<EncodedPart> parts, String mode) {
+    this.parts = parts;
+    boundary = Utils.generateBoundary();
 
     headers = new CaseInsensitiveHeaders();
     headers.set("Content-Type", "multipart/" + mode + "; boundary=\"" + boundary + "\"");
+  }
 
+  @Override
+  String body() {
     StringBuilder sb = new StringBuilder();
 
     for (EncodedPart part : parts) {
@@ -41,7 +47,22 @@ class MultiPart extends EncodedPart {
     sb.append("--");
     sb.append(boundary);
     sb.append("--");
-    part = sb.toString();
+    return sb.toString();
+  }
+
+  @Override
+  long bodySize() {
+    // the boundary is plain ascii, each line break is sent as two octets
+    long size = 0;
+    for (EncodedPart part : parts) {
+      size += 2 + boundary.length() + 2 + part.size() + 4;
+    }
+    return size + 2 + boundary.length() + 2;
+  }
+
+  @Override
+  boolean endsWithLineBreak() {
+    return false;
   }
 
 }
@@ -20,18 +20,36 @@ import io.vertx.core.http.CaseInsensitiveHeaders;
 
 class TextPart extends EncodedPart {
 
+  private final String text;
+  private final boolean quotedPrintable;
+
   public TextPart(String text, String mode) {
-    if (Utils.mustEncode(text)) {
-      headers = new CaseInsensitiveHeaders();
+    this.text = text;
+    quotedPrintable = Utils.mustEncode(text);
+    headers = new CaseInsensitiveHeaders();
+    if (quotedPrintable) {
       headers.set("Content-Type", "text/" + mode + "; charset=utf-8");
       headers.set("Content-Transfer-Encoding", "quoted-printable");
-      part = Utils.encodeQP(text);
     } else {
-      headers = new CaseInsensitiveHeaders();
       headers.set("Content-Type", "text/" + mode);
       headers.set("Content-Transfer-Encoding", "7bit");
-      part = text;
     }
   }
 
+  @Override
+  String body() {
+    return quotedPrintable ? Utils.encodeQP(text) : text;
+  }
+
+  @Override
+  long bodySize() {
+    return quotedPrintable ? Utils.qpSize(text) : Utils.wireSize(text);
+  }
+
+  @Override
+  boolean endsWithLineBreak() {
+    // an empty body leaves the line break after the headers at the end
+    return text.isEmpty() || text.charAt(text.length() - 1) == '\n';
+  }
+
 }
@@ -17,9 +17,8 @@
 package io.vertx.ext.mail.mailencoder;
 
 import java.io.UnsupportedEncodingException;
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -30,38 +29,62 @@ class Utils {
   }
 
   static String encodeQP(String text) {
-    try {
-      byte[] utf8 = text.getBytes("UTF-8");
-      StringBuilder sb = new StringBuilder();
-
-      int column = 0;
-      for (int i = 0; i < utf8.length; i++) {
-        char ch = (char) utf8[i];
-        if (ch == '\n') {
+    StringBuilder sb = new StringBuilder();
+    encodeQP(text, sb);
+    return sb.toString();
+  }
+
+  /*
+   * number of octets of the qp encoded text when it is sent with CRLF line breaks, this runs the encoding without
+   * creating the encoded String
+   */
+  static long qpSize(String text) {
+    return encodeQP(text, null);
+  }
+
+  /*
+   * encode text as qp, the encoded text is appended to sb unless it is null, returns the number of octets of the
+   * encoded text with CRLF line breaks
+   */
+  private static long encodeQP(String text, StringBuilder sb) {
+    byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+    long size = 0;
+
+    int column = 0;
+    for (int i = 0; i < utf8.length; i++) {
+      char ch = (char) utf8[i];
+      if (ch == '\n') {
+        if (sb != null) {
           sb.append(ch);
-          column = 0;
+        }
+        size += 2;
+        column = 0;
+      } else {
+        boolean nextIsEOL = i == utf8.length - 1 || utf8[i + 1] == '\n';
+        boolean encode = mustEncode(ch) || nextIsEOL && ch == ' ';
+        // an encoded char is always =XX
+        int length = encode ? 3 : 1;
+        int newColumn = column + length;
+        if (newColumn <= 75 || nextIsEOL && newColumn == 76) {
+          column = newColumn;
         } else {
-          boolean nextIsEOL = i == utf8.length - 1 || utf8[i + 1] == '\n';
-          String encChar;
-          if (mustEncode(ch) || nextIsEOL && ch == ' ') {
-            encChar = encodeChar(ch);
-          } else {
-            encChar = String.valueOf(ch);
+          if (sb != null) {
+            sb.append("=\n");
           }
-          int newColumn = column + encChar.length();
-          if (newColumn <= 75 || nextIsEOL && newColumn == 76) {
-            sb.append(encChar);
-            column = newColumn;
+          size += 3;
+          column = length;
+        }
+        if (sb != null) {
+          if (encode) {
+            sb.append(encodeChar(ch));
           } else {
-            sb.append("=\n").append(encChar);
-            column = encChar.length();
+            sb.append(ch);
           }
         }
+        size += length;
       }
-      return sb.toString();
-    } catch (UnsupportedEncodingException e) {
-      return "";
     }
+    return size;
   }
 
   private static String encodeChar(char ch) {
@@ -150,7 +173,7 @@ class Utils {
   }
 
   static String encodeHeaderEmail(String address, int index) {
-    EmailAddress adr = new EmailAddress(address);
+    EmailAddress adr = HeaderCache.address(address);
 
     if (mustEncode(adr.getName())) {
       return adr.getEmail() + " (" + encodeHeader(adr.getName(), index + adr.getEmail().length() + 2) + ")";
@@ -169,7 +192,25 @@ class Utils {
         sb.append(',');
         index++;
       }
-      EmailAddress adr = new EmailAddress(addr);
+      final int colon = AddressParser.groupStart(addr);
+      if (colon >= 0) {
+        // group syntax, encode the display name and the members separately
+        String name = addr.substring(0, colon).trim();
+        String groupName = mustEncode(name) ? encodeHeader(name, index) : name;
+        sb.append(groupName);
+        sb.append(':');
+        index = nextIndex(groupName, index) + 1;
+        List<String> members = AddressParser.groupMembers(addr, colon);
+        if (!members.isEmpty()) {
+          String encodedMembers = encodeEmailList(members, index);
+          sb.append(encodedMembers);
+          index = nextIndex(encodedMembers, index);
+        }
+        sb.append(';');
+        index++;
+        continue;
+      }
+      EmailAddress adr = HeaderCache.address(addr);
       String email = adr.getEmail();
       String name = adr.getName();
       if (index + email.length() >= 76) {
@@ -223,9 +264,55 @@ class Utils {
     return sb.toString();
   }
 
+  /**
+   * get the column after appending a string that may contain line breaks
+   */
+  private static int nextIndex(String appended, int index) {
+    if (appended.contains("\n")) {
+      return appended.length() - appended.lastIndexOf('\n');
+    } else {
+      return index + appended.length();
+    }
+  }
+
   static String generateDate() {
-    SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss Z (z)", Locale.ENGLISH);
-    return format.format(new Date());
+    return DateHeader.SYSTEM.format();
+  }
+
+  /*
+   * number of octets of a String when it is sent as utf-8 with CRLF line breaks
+   */
+  static long wireSize(String s) {
+    long size = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char ch = s.charAt(i);
+      if (ch == '\n') {
+        size += 2;
+      } else if (ch < 0x80) {
+        size++;
+      } else if (ch < 0x800) {
+        size += 2;
+      } else if (Character.isHighSurrogate(ch) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+        size += 4;
+        i++;
+      } else if (Character.isSurrogate(ch)) {
+        // unpaired surrogates are replaced by '?'
+        size++;
+      } else {
+        size += 3;
+      }
+    }
+    return size;
+  }
+
+  /*
+   * number of octets of the base64 encoding of length bytes as created by base64() when it is sent with CRLF
+   * line breaks
+   */
+  static long base64Size(long length) {
+    long chars = (length + 2) / 3 * 4;
+    long lines = (chars + 75) / 76;
+    return lines == 0 ? 0 : chars + (lines - 1) * 2;
   }
 
   private final static byte lf[] = { 10 };
@@ -61,8 +61,11 @@
  * ----
  * {@link examples.Examples#createSharedClient}
  * ----
- * The first call to MailClient.createShared will actually create the pool with the specified config.
- * Subsequent calls will return a new client instance that uses the same pool, so the configuration won't be used.
+ * The connections of shared clients are pooled by the connection related part of the config (server, port,
+ * credentials, tls and socket options), so all shared clients connecting to the same server with the same credentials
+ * use the same connections, regardless of the pool name, and a client with a different config gets a pool of its own
+ * even if it uses the same pool name. If the clients sharing a pool have a different `maxPoolSize`, the smallest
+ * value is the limit of the pool, this way creating more clients doesn't exceed the connection limit of the server.
  *
  * If you leave out the pool identifier, a default pool will be created. Note that the clients are
  * shared in the scope of a vertx instance only (so two different vertx will have different pools with the
@@ -132,6 +135,44 @@
  * {@link examples.Examples#sendMail}
  * ----
  *
+ * When the pool is exhausted, send operations wait in queue for a free connection. The queue can be bounded
+ * with the `maxWaitQueueSize` config option, operations exceeding the limit fail immediately. A single send
+ * operation can be given a priority and a max time to wait for a connection with MailSendOptions, waiting operations
+ * with priority HIGH (e.g. password reset mails) are served before NORMAL and LOW (e.g. bulk mails) operations.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#sendMailWithOptions}
+ * ----
+ *
+ * A list of mails can be sent with `sendMails`, the mails are sent in parallel on the connections of the pool and the
+ * MailBatchResult contains the result or the error message of each mail in the order of the list.
+ *
+ * When only the envelope differs between the mails, e.g. a VERP bounce address per recipient or a separate
+ * transaction per recipient, the mail can be sent to a list of MailEnvelope objects with `sendMailEnvelopes`. The
+ * mail is encoded only once and sent in one transaction per envelope with the MAIL FROM and RCPT TO addresses of the
+ * envelope, the headers of the mail are not changed. The transactions run in parallel on the connections of the
+ * pool and the MailBatchResult contains the result of each envelope in the order of the list.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#sendMailEnvelopes}
+ * ----
+ *
+ * == Metrics
+ *
+ * If metrics are enabled in the Vert.x instance, the connection pool of the client is reported with the pool type
+ * `mail` and the pool name of the client, e.g. Dropwizard and Micrometer metrics show the connections in use and the
+ * wait queue of the pool.
+ *
+ * More detailed metrics like the connections opened and closed and the latencies of the SMTP phases (connect, TLS,
+ * EHLO, AUTH, MAIL, RCPT, DATA and the final reply) can be collected by an implementation of
+ * `io.vertx.ext.mail.spi.MailClientMetricsFactory` that is registered with the `java.util.ServiceLoader`.
+ *
+ * To analyze a single slow send operation, set `recordTiming` in the MailSendOptions, the MailResult then contains a
+ * MailTiming object with the time spent waiting for a connection, connecting, the envelope commands, encoding and the
+ * data transfer, the number of bytes sent and the queue id of the server if the final reply contained one.
+ *
  * == Mail-client data objects
  *
  * === MailMessage properties
@@ -187,17 +228,69 @@
  * * `authMethods` String space separated list of allowed auth methods, this can be used to disallow some auth methods or define one required auth method (optional)
  * * `keepAlive` boolean if connection pooling is enabled (default is true)
  * * `maxPoolSize` int max number of open connections kept in the pool or to be opened at one time (regardless if pooling is enabled or not), default is 10
+ * * `maxWaitQueueSize` int max number of send operations waiting for a free connection, further operations fail immediately, default is -1 (unbounded)
  * * `trustAll` boolean whether to accept all certs from the server (default is false)
  * * `keyStore` String the key store filename, this can be used to trust a server cert that is custom generated (optional)
  * * `keyStorePassword` String password used to decrypt the key store (optional)
  * * `allowRcptErrors` boolean if true, sending continues if a recipient address is not accepted and the mail will be sent if at least one address is accepted (default false)
  * * `disableEsmtp` boolean if true, ESMTP-related commands will not be used (set if your smtp server doesn't even give a proper error response code for the EHLO command) (default false)
+ * * `eventLoopAffinity` boolean if true, the pool prefers idle connections opened on the event loop of the caller, then opens a new connection and only uses idle connections of other event loops if the pool size is reached (default false)
+ * * `netClientOptions` NetClientOptions used for the connections of the pool, e.g. to set tcpNoDelay, tcpKeepAlive, buffer sizes, soLinger, connectTimeout, idleTimeout, a proxy or tcpFastOpen with the native transport, the ssl related options are always taken from the MailConfig (optional)
+ * * `greetingTimeout` long max time in milliseconds to wait for the server greeting, 0 waits forever (default is 300000)
+ * * `ehloTimeout` long max time in milliseconds to wait for the reply to EHLO, HELO and STARTTLS (default is 300000)
+ * * `authTimeout` long max time in milliseconds to wait for each reply during authentication (default is 300000)
+ * * `envelopeTimeout` long max time in milliseconds to wait for the reply to MAIL FROM, RCPT TO, DATA, RSET and QUIT (default is 300000)
+ * * `dataEndTimeout` long max time in milliseconds to wait for the reply after the end of the mail data (default is 600000)
+ * * `maxInFlightBytes` long max encoded size of the messages the client is sending at one time, further operations wait up to their acquireTimeout or sendTimeout in a queue that has its own maxWaitQueueSize limit or fail immediately, 0 means no limit (default is 0)
+ * * `workerEncodingThreshold` long messages of at least this size in bytes are encoded on a worker thread while the envelope is sent, with the attachments encoded in parallel, 0 always encodes on the event loop (default is 1048576)
+ * * `maxRecipientsPerTransaction` int max number of recipients of a single transaction, a message with more recipients is encoded once and sent in parallel transactions whose results are merged into one MailResult, 0 means no limit (default is 0)
+ * * `lmtp` boolean if true, the client speaks LMTP instead of SMTP, it sends LHLO and returns the final reply of the server for each recipient in the recipientReplies of the MailResult, the operation succeeds if at least one recipient got the mail (default is false)
+ * * `domainSocketPath` String path of a Unix domain socket to connect to instead of hostname and port, e.g. of a local MTA, this requires the native transport of Vert.x (default is null)
+ *
+ * If a server doesn't reply within the timeout of a command, the connection is closed and the send operation fails.
+ * The defaults follow the timeouts recommended in RFC 5321.
+ *
+ * === MailSendOptions properties
+ * The MailSendOptions object has the following properties
+ *
+ * * `priority` SendPriority either HIGH, NORMAL or LOW, the priority of the operation while waiting for a connection (default is NORMAL)
+ * * `acquireTimeout` long max time in milliseconds to wait for a free connection, 0 waits forever (default is 0)
+ * * `recordTiming` boolean if true, the MailResult contains a timing breakdown of the operation (default is false)
+ * * `sendTimeout` long max time in milliseconds for the whole operation including waiting for a connection, the operation fails and its connection is closed when it is exceeded, 0 means no deadline (default is 0)
  *
  * === MailResult object
  * The MailResult object has the following members
  *
  * * `messageID` the Message-ID of the generated mail
  * * `recipients` the list of recipients the mail was sent to (if allowRcptErrors is true, this may be fewer than the intended recipients)
+ * * `timing` the MailTiming of the operation if `recordTiming` was set, otherwise null
+ * * `recipientReplies` in LMTP mode the final reply of the server for each recipient, otherwise null
+ *
+ * === MailBatchResult object
+ * The MailBatchResult object has the following members, each list has one entry per mail
+ *
+ * * `results` the MailResult of each mail, null if the mail failed
+ * * `errors` the error message of each mail, null if the mail was sent
+ *
+ * === MailEnvelope object
+ * The MailEnvelope object has the following members
+ *
+ * * `from` the MAIL FROM address of the transaction, if null the bounce address or the from address of the mail is used
+ * * `recipients` the list of RCPT TO addresses of the transaction, the To, Cc and Bcc of the mail are not used
+ *
+ * === MailTiming object
+ * The MailTiming object has the following members, all times are in nanoseconds
+ *
+ * * `acquireTime` time waiting for a connection, including the connect time if a new connection was opened
+ * * `newConnection` true if a new connection was opened for the operation
+ * * `connectTime` time for connect, initial dialogue, STARTTLS and login (0 if a pooled connection was used)
+ * * `mailFromTime` round trip time of the MAIL FROM command
+ * * `rcptToTimes` round trip times of the RCPT TO commands
+ * * `encodeTime` time used to encode the MIME message
+ * * `dataTime` time of the DATA command and the transfer of the message data
+ * * `finalReplyTime` time waiting for the reply to the end of the message data
+ * * `bytesSent` the number of bytes of message data sent
+ * * `queueId` the queue id in the final reply of the server (e.g. "queued as 4A2B3C"), null if none was recognized
  *
  */
 @Document(fileName = "index.adoc")
@@ -0,0 +1,96 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.spi;
+
+/**
+ * metrics SPI of the mail client, an instance is created for each connection pool by a
+ * {@link MailClientMetricsFactory}
+ * <p>
+ * the pool related methods follow the semantics of {@link io.vertx.core.spi.metrics.PoolMetrics}, a send operation
+ * is submitted when it requests a connection, it begins when it gets a connection (possibly after waiting in the
+ * queue) and ends when the connection is returned to the pool. The metric objects returned by the methods are
+ * passed back to the following calls for the same operation.
+ * <p>
+ * all methods may be called from different threads and must not block.
+ */
+public interface MailClientMetrics {
+
+  /**
+   * a send operation requests a connection from the pool
+   *
+   * @return the metric to be passed to the following calls for this operation
+   */
+  default Object submitted() {
+    return null;
+  }
+
+  /**
+   * a send operation has got a connection from the pool
+   *
+   * @param submittedMetric the metric returned by {@link #submitted()}
+   * @return the metric to be passed to {@link #end(Object, boolean)}
+   */
+  default Object begin(Object submittedMetric) {
+    return null;
+  }
+
+  /**
+   * a send operation did not get a connection, either because the wait queue was full, the
+   * acquire timeout expired or the connection could not be opened
+   *
+   * @param submittedMetric the metric returned by {@link #submitted()}
+   */
+  default void rejected(Object submittedMetric) {
+  }
+
+  /**
+   * a send operation has returned its connection to the pool
+   *
+   * @param beginMetric the metric returned by {@link #begin(Object)}
+   * @param succeeded   false if the connection was broken by the operation
+   */
+  default void end(Object beginMetric, boolean succeeded) {
+  }
+
+  /**
+   * a new connection has been opened successfully
+   */
+  default void connectionCreated() {
+  }
+
+  /**
+   * a connection has been closed
+   */
+  default void connectionClosed() {
+  }
+
+  /**
+   * a phase of the SMTP dialogue has finished
+   *
+   * @param phase     the phase
+   * @param duration  the duration in nanoseconds
+   * @param succeeded true if the server accepted the command(s) of the phase
+   */
+  default void phase(MailPhase phase, long duration, boolean succeeded) {
+  }
+
+  /**
+   * the connection pool has been closed
+   */
+  default void close() {
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.spi;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.mail.MailConfig;
+
+/**
+ * factory for {@link MailClientMetrics}, an implementation is looked up with the {@link java.util.ServiceLoader}
+ * when a connection pool is created
+ * <p>
+ * if no factory is found and metrics are enabled in the Vert.x instance, the pool is reported
+ * through {@link io.vertx.core.spi.metrics.VertxMetrics#createMetrics(Object, String, String, int)} with the
+ * pool type "mail", so that the usual metrics implementations (e.g. Dropwizard or Micrometer) show the pool usage
+ * and wait queue of the client.
+ */
+public interface MailClientMetricsFactory {
+
+  /**
+   * create the metrics for a connection pool
+   *
+   * @param vertx    the Vert.x instance
+   * @param config   the config of the pool
+   * @param poolName the name of the pool
+   * @return the metrics, must not be null
+   */
+  MailClientMetrics metrics(Vertx vertx, MailConfig config, String poolName);
+}
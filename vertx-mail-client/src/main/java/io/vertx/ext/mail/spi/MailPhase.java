@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.spi;
+
+/**
+ * the phases of a SMTP connection and transaction that are timed by {@link MailClientMetrics}
+ */
+public enum MailPhase {
+  /**
+   * opening the connection until the server greeting has been received
+   */
+  CONNECT,
+  /**
+   * STARTTLS command and TLS handshake
+   */
+  TLS,
+  /**
+   * EHLO or HELO command
+   */
+  EHLO,
+  /**
+   * the complete authentication exchange
+   */
+  AUTH,
+  /**
+   * MAIL FROM command
+   */
+  MAIL,
+  /**
+   * a single RCPT TO command
+   */
+  RCPT,
+  /**
+   * DATA command and writing the message to the connection
+   */
+  DATA,
+  /**
+   * waiting for the reply after the end of the message data
+   */
+  FINAL_REPLY;
+}
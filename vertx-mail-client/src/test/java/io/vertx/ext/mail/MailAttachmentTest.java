@@ -25,6 +25,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class MailAttachmentTest {
 
@@ -70,6 +71,44 @@ public class MailAttachmentTest {
     assertFalse("Buffer not copied", message.getData()==copy.getData());
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void testCopyDataIsReadOnly() {
+    MailAttachment attachment = new MailAttachment().setData(Buffer.buffer("asdf"));
+    new MailAttachment(attachment).getData().appendString("x");
+  }
+
+  @Test
+  public void testDeepCopy() {
+    Buffer data = Buffer.buffer("asdf");
+    MailAttachment attachment = new MailAttachment().setData(data).setName("file.txt").addHeader("Header", "Value");
+    MailAttachment copy = attachment.deepCopy();
+    assertEquals(attachment, copy);
+    data.appendString("x");
+    copy.getData().appendString("y");
+    assertEquals("asdfx", attachment.getData().toString());
+    assertEquals("asdfy", copy.getData().toString());
+    copy.addHeader("Header2", "Value2");
+    assertNull(attachment.getHeaders().get("Header2"));
+  }
+
+  @Test
+  public void testCopyHeaders() {
+    MailAttachment attachment = new MailAttachment().addHeader("Header", "Value");
+    MultiMap headers = attachment.getHeaders();
+    MailAttachment copy = new MailAttachment(attachment);
+    headers.add("Header5", "Value5");
+    assertNull(copy.getHeaders().get("Header5"));
+    copy.addHeader("Header2", "Value2");
+    attachment.addHeader("Header3", "Value3");
+    copy.getHeaders().add("Header4", "Value4");
+    assertEquals("Value", copy.getHeaders().get("Header"));
+    assertEquals("Value2", copy.getHeaders().get("Header2"));
+    assertNull(copy.getHeaders().get("Header3"));
+    assertNull(attachment.getHeaders().get("Header2"));
+    assertEquals("Value3", attachment.getHeaders().get("Header3"));
+    assertNull(attachment.getHeaders().get("Header4"));
+  }
+
   // TODO: this test is too complicated since CaseInsensitiveHeaders does not have equals currently
   @Test
   public void testConstructorFromClassHeaders() {
@@ -0,0 +1,156 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.subethamail.wiser.WiserMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * test sending a list of mails with sendMails and a mail to a list of envelopes with sendMailEnvelopes
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailBatchTest extends SMTPTestWiser {
+
+  @Test
+  public void testSendMails(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    MailClient mailClient = mailClientNoSSL();
+    // the second mail has no recipient and fails
+    MailMessage invalid = new MailMessage().setFrom("from@example.com").setText("no recipient");
+    mailClient.sendMails(Arrays.asList(exampleMessage(), invalid, exampleMessage()), result -> {
+      mailClient.close();
+      testContext.assertTrue(result.succeeded());
+      MailBatchResult batch = result.result();
+      testContext.assertEquals(3, batch.getResults().size());
+      testContext.assertEquals(2, batch.getSucceededCount());
+      testContext.assertNotNull(batch.getResults().get(0));
+      testContext.assertNull(batch.getResults().get(1));
+      testContext.assertEquals("no recipient addresses are present", batch.getErrors().get(1));
+      testContext.assertNull(batch.getErrors().get(2));
+      testContext.assertEquals(2, wiser.getMessages().size());
+      async.complete();
+    });
+  }
+
+  /**
+   * without pacing the operations, the mails exceeding the pool and the wait queue would fail
+   */
+  @Test
+  public void testSendMailsBoundedWaitQueue(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setMaxPoolSize(2).setMaxWaitQueueSize(2));
+    List<MailMessage> emails = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      emails.add(exampleMessage());
+    }
+    mailClient.sendMails(emails, testContext.asyncAssertSuccess(batch -> {
+      mailClient.close();
+      testContext.assertEquals(10, batch.getSucceededCount());
+      testContext.assertEquals(10, wiser.getMessages().size());
+      async.complete();
+    }));
+  }
+
+  @Test
+  public void testSendMailsEmpty(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    MailClient mailClient = mailClientNoSSL();
+    mailClient.sendMails(Collections.emptyList(), result -> {
+      mailClient.close();
+      testContext.assertTrue(result.succeeded());
+      testContext.assertEquals(0, result.result().getResults().size());
+      async.complete();
+    });
+  }
+
+  @Test
+  public void testSendMailEnvelopes(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    MailClient mailClient = mailClientNoSSL();
+    // the second envelope has no recipient and fails
+    List<MailEnvelope> envelopes = Arrays.asList(
+        new MailEnvelope("bounce+user1@example.com", Collections.singletonList("user1@example.com")),
+        new MailEnvelope().setRecipients(Collections.emptyList()),
+        new MailEnvelope().setRecipients("user2@example.com"));
+    mailClient.sendMailEnvelopes(exampleMessage(), envelopes, result -> {
+      mailClient.close();
+      testContext.assertTrue(result.succeeded());
+      MailBatchResult batch = result.result();
+      testContext.assertEquals(3, batch.getResults().size());
+      testContext.assertEquals(2, batch.getSucceededCount());
+      testContext.assertEquals("no recipient addresses are present", batch.getErrors().get(1));
+      MailResult first = batch.getResults().get(0);
+      MailResult third = batch.getResults().get(2);
+      testContext.assertEquals(Collections.singletonList("user1@example.com"), first.getRecipients());
+      testContext.assertEquals(Collections.singletonList("user2@example.com"), third.getRecipients());
+      // the message was encoded once, so both transactions carry the same Message-ID
+      testContext.assertNotNull(first.getMessageID());
+      testContext.assertEquals(first.getMessageID(), third.getMessageID());
+      testContext.assertEquals(2, wiser.getMessages().size());
+      Set<String> senders = new HashSet<>();
+      for (WiserMessage message : wiser.getMessages()) {
+        senders.add(message.getEnvelopeSender() + " " + message.getEnvelopeReceiver());
+      }
+      testContext.assertTrue(senders.contains("bounce+user1@example.com user1@example.com"));
+      testContext.assertTrue(senders.contains("from@example.com user2@example.com"));
+      async.complete();
+    });
+  }
+
+  @Test
+  public void testSendMailEnvelopesNoSender(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    MailClient mailClient = mailClientNoSSL();
+    MailMessage message = new MailMessage().setText("no sender");
+    mailClient.sendMailEnvelopes(message, Collections.singletonList(new MailEnvelope().setRecipients("user@example.com")),
+        result -> {
+          mailClient.close();
+          testContext.assertTrue(result.failed());
+          testContext.assertEquals("sender address is not present", result.cause().getMessage());
+          async.complete();
+        });
+  }
+
+  @Test
+  public void testBatchResultJson(TestContext testContext) {
+    MailBatchResult batch = new MailBatchResult()
+        .addResult(new MailResult().setMessageID("<1@example.com>"), null)
+        .addResult(null, "sender address not accepted");
+    MailBatchResult copy = new MailBatchResult(batch.toJson());
+    testContext.assertEquals(batch.toJson(), copy.toJson());
+    testContext.assertNull(copy.getResults().get(1));
+    testContext.assertEquals("sender address not accepted", copy.getErrors().get(1));
+    testContext.assertEquals(1, new MailBatchResult(batch).getSucceededCount());
+  }
+
+}
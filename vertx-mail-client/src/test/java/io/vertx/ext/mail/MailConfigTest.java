@@ -17,6 +17,9 @@
 package io.vertx.ext.mail;
 
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClientOptions;
+import io.vertx.core.net.ProxyOptions;
+import io.vertx.core.net.ProxyType;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -274,6 +277,145 @@ public class MailConfigTest {
     assertTrue(mailConfig.isDisableEsmtp());
   }
 
+  @Test
+  public void testMaxWaitQueueSize() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(-1, mailConfig.getMaxWaitQueueSize());
+    mailConfig.setMaxWaitQueueSize(100);
+    assertEquals(100, mailConfig.getMaxWaitQueueSize());
+    assertEquals(100, new MailConfig(mailConfig.toJson()).getMaxWaitQueueSize());
+    assertEquals(100, new MailConfig(mailConfig).getMaxWaitQueueSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxWaitQueueSizeIllegal() {
+    new MailConfig().setMaxWaitQueueSize(-2);
+  }
+
+  @Test
+  public void testNetClientOptions() {
+    MailConfig mailConfig = new MailConfig();
+    assertNull(mailConfig.getNetClientOptions());
+    assertFalse(mailConfig.toJson().containsKey("netClientOptions"));
+
+    mailConfig.setNetClientOptions(new NetClientOptions().setTcpNoDelay(false).setTcpKeepAlive(true).setSoLinger(5)
+      .setSendBufferSize(65536).setReceiveBufferSize(32768).setConnectTimeout(1000).setIdleTimeout(30));
+    assertEquals(mailConfig.getNetClientOptions(), new MailConfig(mailConfig).getNetClientOptions());
+
+    NetClientOptions options = new MailConfig(mailConfig.toJson()).getNetClientOptions();
+    assertFalse(options.isTcpNoDelay());
+    assertTrue(options.isTcpKeepAlive());
+    assertEquals(5, options.getSoLinger());
+    assertEquals(65536, options.getSendBufferSize());
+    assertEquals(32768, options.getReceiveBufferSize());
+    assertEquals(1000, options.getConnectTimeout());
+    assertEquals(30, options.getIdleTimeout());
+    assertEquals(mailConfig, new MailConfig(mailConfig.toJson()));
+  }
+
+  @Test
+  public void testNetClientOptionsJsonRoundTrip() {
+    MailConfig mailConfig = new MailConfig().setNetClientOptions(new NetClientOptions()
+      .setTcpFastOpen(true).setTcpCork(true).setTcpQuickAck(true).setReusePort(true)
+      .setProxyOptions(new ProxyOptions().setType(ProxyType.SOCKS5).setHost("proxy.example.com").setPort(1080)
+        .setUsername("user").setPassword("pw"))
+      .setLocalAddress("127.0.0.1").setMetricsName("mail"));
+    MailConfig fromJson = new MailConfig(mailConfig.toJson());
+    NetClientOptions options = fromJson.getNetClientOptions();
+    assertTrue(options.isTcpFastOpen());
+    assertTrue(options.isTcpCork());
+    assertTrue(options.isTcpQuickAck());
+    assertTrue(options.isReusePort());
+    assertEquals(ProxyType.SOCKS5, options.getProxyOptions().getType());
+    assertEquals("proxy.example.com", options.getProxyOptions().getHost());
+    assertEquals(1080, options.getProxyOptions().getPort());
+    assertEquals("user", options.getProxyOptions().getUsername());
+    assertEquals(mailConfig, fromJson);
+    assertEquals(mailConfig.hashCode(), fromJson.hashCode());
+  }
+
+  @Test
+  public void testNetClientOptionsEquals() {
+    MailConfig mailConfig = new MailConfig().setNetClientOptions(new NetClientOptions().setTcpNoDelay(false));
+    assertNotEquals(new MailConfig(), mailConfig);
+    assertEquals(new MailConfig().setNetClientOptions(new NetClientOptions().setTcpNoDelay(false)), mailConfig);
+    assertEquals(new MailConfig().setNetClientOptions(new NetClientOptions().setTcpNoDelay(false)).hashCode(),
+      mailConfig.hashCode());
+  }
+
+  @Test
+  public void testEventLoopAffinity() {
+    MailConfig mailConfig = new MailConfig();
+    assertFalse(mailConfig.isEventLoopAffinity());
+    assertFalse(mailConfig.toJson().containsKey("eventLoopAffinity"));
+    mailConfig.setEventLoopAffinity(true);
+    assertTrue(mailConfig.isEventLoopAffinity());
+    assertTrue(new MailConfig(mailConfig).isEventLoopAffinity());
+    assertTrue(new MailConfig(mailConfig.toJson()).isEventLoopAffinity());
+    assertNotEquals(new MailConfig(), mailConfig);
+  }
+
+  @Test
+  public void testTimeouts() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(300000, mailConfig.getGreetingTimeout());
+    assertEquals(600000, mailConfig.getDataEndTimeout());
+    assertFalse(mailConfig.toJson().containsKey("greetingTimeout"));
+    mailConfig.setGreetingTimeout(1000).setEhloTimeout(2000).setAuthTimeout(3000).setEnvelopeTimeout(4000)
+      .setDataEndTimeout(0);
+    MailConfig copy = new MailConfig(mailConfig.toJson());
+    assertEquals(1000, copy.getGreetingTimeout());
+    assertEquals(2000, copy.getEhloTimeout());
+    assertEquals(3000, copy.getAuthTimeout());
+    assertEquals(4000, copy.getEnvelopeTimeout());
+    assertEquals(0, copy.getDataEndTimeout());
+    assertEquals(mailConfig, copy);
+    assertEquals(mailConfig, new MailConfig(mailConfig));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTimeoutIllegal() {
+    new MailConfig().setEnvelopeTimeout(-1);
+  }
+
+  @Test
+  public void testMaxRecipientsPerTransaction() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(0, mailConfig.getMaxRecipientsPerTransaction());
+    assertFalse(mailConfig.toJson().containsKey("maxRecipientsPerTransaction"));
+    mailConfig.setMaxRecipientsPerTransaction(100);
+    assertEquals(100, new MailConfig(mailConfig.toJson()).getMaxRecipientsPerTransaction());
+    assertEquals(mailConfig, new MailConfig(mailConfig));
+    assertNotEquals(new MailConfig(), mailConfig);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxRecipientsPerTransactionIllegal() {
+    new MailConfig().setMaxRecipientsPerTransaction(-1);
+  }
+
+  @Test
+  public void testDomainSocketPath() {
+    MailConfig mailConfig = new MailConfig();
+    assertNull(mailConfig.getDomainSocketPath());
+    assertFalse(mailConfig.toJson().containsKey("domainSocketPath"));
+    mailConfig.setDomainSocketPath("/var/spool/postfix/public/smtp");
+    assertEquals("/var/spool/postfix/public/smtp", new MailConfig(mailConfig).getDomainSocketPath());
+    assertEquals(mailConfig, new MailConfig(mailConfig.toJson()));
+    assertNotEquals(new MailConfig(), mailConfig);
+  }
+
+  @Test
+  public void testLmtp() {
+    MailConfig mailConfig = new MailConfig();
+    assertFalse(mailConfig.isLmtp());
+    assertFalse(mailConfig.toJson().containsKey("lmtp"));
+    mailConfig.setLmtp(true);
+    assertTrue(new MailConfig(mailConfig).isLmtp());
+    assertTrue(new MailConfig(mailConfig.toJson()).isLmtp());
+    assertNotEquals(new MailConfig(), mailConfig);
+  }
+
   @Test
   public void testEquals() {
     MailConfig mailConfig = new MailConfig();
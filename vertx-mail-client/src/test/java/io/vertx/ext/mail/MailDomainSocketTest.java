@@ -0,0 +1,39 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mail;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * test the connection to a Unix domain socket, the test Vertx instance doesn't use the native transport
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailDomainSocketTest extends SMTPTestDummy {
+
+  @Test
+  public void testWithoutNativeTransport(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setDomainSocketPath("target/smtp.sock"));
+    mailClient.sendMail(exampleMessage(), testContext.asyncAssertFailure(th -> {
+      testContext.assertEquals("domain sockets require the native transport", th.getMessage());
+      mailClient.close();
+    }));
+  }
+
+}
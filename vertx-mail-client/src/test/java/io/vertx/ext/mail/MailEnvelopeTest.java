@@ -0,0 +1,63 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mail;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MailEnvelopeTest {
+
+  @Test
+  public void testDefaults() {
+    MailEnvelope envelope = new MailEnvelope();
+    assertNull(envelope.getFrom());
+    assertNull(envelope.getRecipients());
+    assertEquals("{}", envelope.toJson().encode());
+  }
+
+  @Test
+  public void toJsonTest() {
+    MailEnvelope envelope = new MailEnvelope("bounce@example.com", Arrays.asList("user1@example.com", "user2@example.com"));
+    assertEquals("{\"from\":\"bounce@example.com\",\"recipients\":[\"user1@example.com\",\"user2@example.com\"]}",
+        envelope.toJson().encode());
+    assertEquals("{\"recipients\":[\"user@example.com\"]}",
+        new MailEnvelope().setRecipients("user@example.com").toJson().encode());
+  }
+
+  @Test
+  public void fromJsonTest() {
+    MailEnvelope envelope = new MailEnvelope(
+        new JsonObject("{\"from\":\"bounce@example.com\",\"recipients\":[\"user@example.com\"]}"));
+    assertEquals("bounce@example.com", envelope.getFrom());
+    assertEquals(Arrays.asList("user@example.com"), envelope.getRecipients());
+    assertEquals(new MailEnvelope(), new MailEnvelope(new JsonObject()));
+  }
+
+  @Test
+  public void testCopy() {
+    MailEnvelope envelope = new MailEnvelope().setFrom("bounce@example.com").setRecipients("user@example.com");
+    MailEnvelope copy = new MailEnvelope(envelope);
+    assertEquals(envelope, copy);
+    assertEquals(envelope.hashCode(), copy.hashCode());
+    copy.getRecipients().add("other@example.com");
+    assertEquals(1, envelope.getRecipients().size());
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mail;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * test LMTP mode with the final replies of the server for each recipient
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailLmtpTest extends SMTPTestDummy {
+
+  private MailMessage message() {
+    return exampleMessage().setTo(Arrays.asList("user1@example.com", "user2@example.com"));
+  }
+
+  private void lmtpDialogue(String finalReplies) {
+    smtpServer.setDialogue("220 example.com LMTP",
+      "LHLO",
+      "250 example.com",
+      "MAIL FROM:",
+      "250 2.1.0 Ok",
+      "RCPT TO:<user1@example.com>",
+      "250 2.1.5 Ok",
+      "RCPT TO:<user2@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      finalReplies,
+      "QUIT",
+      "221 2.0.0 Bye");
+  }
+
+  @Test
+  public void testPartialDelivery(TestContext testContext) {
+    this.testContext = testContext;
+    lmtpDialogue("250 2.0.0 Ok: queued as ABCDDEF0123456789\r\n552 5.2.2 Mailbox full");
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setLmtp(true));
+    mailClient.sendMail(message(), testContext.asyncAssertSuccess(result -> {
+      mailClient.close();
+      testContext.assertEquals(Collections.singletonList("user1@example.com"), result.getRecipients());
+      testContext.assertEquals("250 2.0.0 Ok: queued as ABCDDEF0123456789",
+        result.getRecipientReplies().get("user1@example.com"));
+      testContext.assertEquals("552 5.2.2 Mailbox full", result.getRecipientReplies().get("user2@example.com"));
+      MailResult copy = new MailResult(result.toJson());
+      testContext.assertEquals(result.getRecipientReplies(), copy.getRecipientReplies());
+    }));
+  }
+
+  @Test
+  public void testNotDelivered(TestContext testContext) {
+    this.testContext = testContext;
+    lmtpDialogue("552 5.2.2 Mailbox full\r\n550 5.1.1 No such user");
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setLmtp(true));
+    mailClient.sendMail(message(), testContext.asyncAssertFailure(th -> {
+      mailClient.close();
+      testContext.assertEquals("sending data failed: 552 5.2.2 Mailbox full", th.getMessage());
+    }));
+  }
+
+  /**
+   * the replies of all transactions are merged when the recipients are split into several transactions
+   */
+  @Test
+  public void testChunkReplies(TestContext testContext) {
+    this.testContext = testContext;
+    smtpServer.setDialogue("220 example.com LMTP",
+      "LHLO",
+      "250 example.com",
+      "MAIL FROM:",
+      "250 2.1.0 Ok",
+      "RCPT TO:<user1@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as 1",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM:",
+      "250 2.1.0 Ok",
+      "RCPT TO:<user2@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as 2",
+      "QUIT",
+      "221 2.0.0 Bye");
+    // one connection, so the transactions run one after the other
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setLmtp(true).setMaxPoolSize(1)
+      .setMaxRecipientsPerTransaction(1));
+    mailClient.sendMail(message(), testContext.asyncAssertSuccess(result -> {
+      mailClient.close();
+      testContext.assertEquals(Arrays.asList("user1@example.com", "user2@example.com"), result.getRecipients());
+      testContext.assertEquals("250 2.0.0 Ok: queued as 1", result.getRecipientReplies().get("user1@example.com"));
+      testContext.assertEquals("250 2.0.0 Ok: queued as 2", result.getRecipientReplies().get("user2@example.com"));
+    }));
+  }
+
+}
@@ -173,6 +173,37 @@ public class MailMessageTest {
     assertEquals("{\"attachment\":[{\"data\":\"bWVzc2FnZTI=\"}]}", message2.toJson().encode());
   }
 
+  @Test
+  public void testCopyHeaders() {
+    MailMessage message = new MailMessage().addHeader("Header", "Value");
+    MultiMap headers = message.getHeaders();
+    MailMessage message2 = new MailMessage(message);
+    message2.addHeader("Header2", "Value2");
+    headers.add("Header3", "Value3");
+    assertEquals("{\"headers\":{\"Header\":[\"Value\"],\"Header3\":[\"Value3\"]}}", message.toJson().encode());
+    assertEquals("{\"headers\":{\"Header\":[\"Value\"],\"Header2\":[\"Value2\"]}}", message2.toJson().encode());
+  }
+
+  @Test
+  public void testCopyFixedHeaders() {
+    assertTrue(new MailMessage(new MailMessage().setFixedHeaders(true)).isFixedHeaders());
+  }
+
+  @Test
+  public void testDeepCopy() {
+    MailMessage message = new MailMessage().setFrom("user@example.com").addHeader("Header", "Value");
+    Buffer data = Buffer.buffer("message");
+    message.setAttachment(new MailAttachment().setData(data));
+    MailMessage message2 = message.deepCopy();
+    assertEquals(message.toJson().encode(), message2.toJson().encode());
+
+    data.appendString("2");
+    message2.getHeaders().add("Header2", "Value2");
+    assertEquals("message", message2.getAttachment().get(0).getData().toString());
+    assertEquals("{\"from\":\"user@example.com\",\"attachment\":[{\"data\":\"bWVzc2FnZTI=\"}],"
+      + "\"headers\":{\"Header\":[\"Value\"]}}", message.toJson().encode());
+  }
+
   @Test
   public void testHash() {
     assertEquals(new MailMessage().hashCode(), new MailMessage().hashCode());
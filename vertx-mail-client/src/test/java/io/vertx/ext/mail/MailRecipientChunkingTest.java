@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mail;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * send a message with more recipients than the server accepts in one transaction
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailRecipientChunkingTest extends SMTPTestWiser {
+
+  private MailMessage message() {
+    return exampleMessage()
+      .setTo(Arrays.asList("user1@example.com", "user2@example.com"))
+      .setBcc(Arrays.asList("user3@example.com", "user4@example.com", "user5@example.com"));
+  }
+
+  @Test
+  public void testChunks(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    wiser.getServer().setMaxRecipients(2);
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setMaxRecipientsPerTransaction(2));
+    mailClient.sendMail(message(), result -> {
+      mailClient.close();
+      testContext.assertTrue(result.succeeded(), String.valueOf(result.cause()));
+      testContext.assertNotNull(result.result().getMessageID());
+      testContext.assertEquals(new HashSet<>(Arrays.asList("user1@example.com", "user2@example.com",
+        "user3@example.com", "user4@example.com", "user5@example.com")),
+        new HashSet<>(result.result().getRecipients()));
+      // wiser stores one message per recipient
+      testContext.assertEquals(5, wiser.getMessages().size());
+      async.complete();
+    });
+  }
+
+  @Test
+  public void testWithoutChunks(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    wiser.getServer().setMaxRecipients(2);
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL());
+    mailClient.sendMail(message(), result -> {
+      mailClient.close();
+      testContext.assertTrue(result.failed());
+      testContext.assertTrue(result.cause().getMessage().startsWith("recipient address not accepted"));
+      async.complete();
+    });
+  }
+
+  /**
+   * the server accepts only one recipient, so the two chunks with two recipients fail and the last one succeeds
+   */
+  @Test
+  public void testFailedChunks(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    wiser.getServer().setMaxRecipients(1);
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setMaxRecipientsPerTransaction(2));
+    mailClient.sendMail(message(), result -> {
+      mailClient.close();
+      testContext.assertTrue(result.failed());
+      String error = result.cause().getMessage();
+      testContext.assertTrue(error.contains("(recipients user1@example.com, user2@example.com)"), error);
+      testContext.assertTrue(error.contains("(recipients user3@example.com, user4@example.com)"), error);
+      testContext.assertFalse(error.contains("user5@example.com"), error);
+      async.complete();
+    });
+  }
+
+}
@@ -27,6 +27,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author <a href="http://oss.lehmann.cx/">Alexander Lehmann</a>
@@ -78,6 +79,31 @@ public class MailResultTest {
     assertEquals("{\"messageId\":\"12345\",\"recipients\":[\"user1\",\"user2\"]}", result.toJson().encode());
   }
 
+  @Test
+  public final void testTimingJson() {
+    MailTiming timing = new MailTiming()
+        .setAcquireTime(1000)
+        .setNewConnection(true)
+        .setConnectTime(500)
+        .setMailFromTime(10)
+        .setRcptToTimes(Arrays.asList(20L, 30L))
+        .setEncodeTime(40)
+        .setDataTime(50)
+        .setFinalReplyTime(60)
+        .setBytesSent(1234)
+        .setQueueId("4A2B3C");
+    MailResult result = new MailResult().setMessageID("12345").setTiming(timing);
+    MailResult result2 = new MailResult(result.toJson());
+    assertEquals(timing, result2.getTiming());
+    assertEquals(timing, new MailResult(result).getTiming());
+  }
+
+  @Test
+  public final void testNoTimingJson() {
+    MailResult result = new MailResult(new JsonObject().put("messageId", "12345"));
+    assertNull(result.getTiming());
+  }
+
   /**
    * Test method for {@link io.vertx.ext.mail.MailResult#getMessageID()}.
    */
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MailSendOptionsTest {
+
+  @Test
+  public void testDefaults() {
+    MailSendOptions options = new MailSendOptions();
+    assertEquals(SendPriority.NORMAL, options.getPriority());
+    assertEquals(0, options.getAcquireTimeout());
+    assertFalse(options.isRecordTiming());
+  }
+
+  @Test
+  public void toJsonTest() {
+    MailSendOptions options = new MailSendOptions();
+    assertEquals("{\"priority\":\"NORMAL\"}", options.toJson().encode());
+    options.setPriority(SendPriority.HIGH).setAcquireTimeout(1000);
+    assertEquals("{\"priority\":\"HIGH\",\"acquireTimeout\":1000}", options.toJson().encode());
+    options.setRecordTiming(true);
+    assertEquals("{\"priority\":\"HIGH\",\"acquireTimeout\":1000,\"recordTiming\":true}", options.toJson().encode());
+  }
+
+  @Test
+  public void fromJsonTest() {
+    MailSendOptions options = new MailSendOptions(new JsonObject("{\"priority\":\"low\",\"acquireTimeout\":500}"));
+    assertEquals(SendPriority.LOW, options.getPriority());
+    assertEquals(500, options.getAcquireTimeout());
+    assertTrue(new MailSendOptions(new JsonObject("{\"recordTiming\":true}")).isRecordTiming());
+    assertEquals(new MailSendOptions(), new MailSendOptions(new JsonObject()));
+  }
+
+  @Test
+  public void testCopy() {
+    MailSendOptions options = new MailSendOptions().setPriority(SendPriority.LOW).setAcquireTimeout(10)
+        .setRecordTiming(true);
+    assertEquals(options, new MailSendOptions(options));
+    assertEquals(options.hashCode(), new MailSendOptions(options).hashCode());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAcquireTimeoutIllegal() {
+    new MailSendOptions().setAcquireTimeout(-1);
+  }
+
+  @Test
+  public void testSendTimeout() {
+    MailSendOptions options = new MailSendOptions();
+    assertEquals(0, options.getSendTimeout());
+    options.setSendTimeout(2000);
+    assertEquals("{\"priority\":\"NORMAL\",\"sendTimeout\":2000}", options.toJson().encode());
+    assertEquals(options, new MailSendOptions(options.toJson()));
+    assertEquals(2000, new MailSendOptions(options).getSendTimeout());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSendTimeoutIllegal() {
+    new MailSendOptions().setSendTimeout(-1);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testPriorityNull() {
+    new MailSendOptions().setPriority(null);
+  }
+
+}
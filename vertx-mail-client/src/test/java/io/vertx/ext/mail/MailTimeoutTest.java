@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * test the command timeouts and the send deadline against a server that stops answering
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailTimeoutTest extends SMTPTestDummy {
+
+  @Test
+  public void testEhloTimeout(TestContext testContext) {
+    this.testContext = testContext;
+    smtpServer.setDialogue("220 example.com ESMTP")
+      .setCloseWaitTime(20);
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setEhloTimeout(500));
+    testTimeout(mailClient, new MailSendOptions(), "timeout waiting for reply from server");
+  }
+
+  @Test
+  public void testDataEndTimeout(TestContext testContext) {
+    this.testContext = testContext;
+    stallAfterData();
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setDataEndTimeout(500));
+    testTimeout(mailClient, new MailSendOptions(), "timeout waiting for reply from server");
+  }
+
+  @Test
+  public void testSendTimeout(TestContext testContext) {
+    this.testContext = testContext;
+    stallAfterData();
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL());
+    testTimeout(mailClient, new MailSendOptions().setSendTimeout(500), "timeout sending mail");
+  }
+
+  private void stallAfterData() {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n"
+        + "250 PIPELINING",
+      "MAIL FROM:",
+      "250 2.1.0 Ok",
+      "RCPT TO:",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>")
+      .setCloseWaitTime(20);
+  }
+
+  private void testTimeout(MailClient mailClient, MailSendOptions options, String expectedMessage) {
+    long start = System.currentTimeMillis();
+    mailClient.sendMailWithOptions(exampleMessage(), options, testContext.asyncAssertFailure(th -> {
+      testContext.assertEquals(expectedMessage, th.getMessage());
+      testContext.assertTrue(System.currentTimeMillis() - start < 5000);
+      mailClient.close();
+    }));
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import java.util.Arrays;
+
+/**
+ * send a message that is encoded on a worker thread with the attachments encoded in parallel
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailWorkerEncodingTest extends SMTPTestWiser {
+
+  @Test
+  public void mailTest(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setWorkerEncodingThreshold(1));
+    MailMessage message = exampleMessage().setAttachment(Arrays.asList(
+      new MailAttachment().setName("first.txt").setContentType("text/plain").setData(Buffer.buffer("first attachment")),
+      new MailAttachment().setName("second.txt").setContentType("text/plain").setData(Buffer.buffer("second attachment"))));
+    testSuccess(mailClient, message, () -> {
+      final MimeMessage mimeMessage = wiser.getMessages().get(0).getMimeMessage();
+      final MimeMultipart multipart = (MimeMultipart) mimeMessage.getContent();
+      testContext.assertEquals(3, multipart.getCount());
+      testContext.assertTrue(TestUtils.inputStreamToString(multipart.getBodyPart(0).getInputStream()).startsWith("Message"));
+      testContext.assertEquals("first attachment",
+        TestUtils.inputStreamToString(multipart.getBodyPart(1).getInputStream()));
+      testContext.assertEquals("second attachment",
+        TestUtils.inputStreamToString(multipart.getBodyPart(2).getInputStream()));
+    });
+  }
+
+}
@@ -26,7 +26,7 @@ import org.junit.Test;
 public class RefCountTest extends VertxTestBase {
 
   private LocalMap<String, Object> getLocalMap() {
-    return vertx.sharedData().getLocalMap("__vertx.MailClient.pools");
+    return vertx.sharedData().getLocalMap("__vertx.MailClient.connectionPools");
   }
 
   @Test
@@ -79,11 +79,13 @@ public class RefCountTest extends VertxTestBase {
     MailClient client3 = MailClient.createShared(vertx, config, "ds1");
     assertEquals(1, map.size());
 
-    MailClient client4 = MailClient.createShared(vertx, config, "ds2");
+    // clients with the same config share the pool regardless of the name, so ds2 uses another server
+    MailConfig config2 = new MailConfig("relay.example.com");
+    MailClient client4 = MailClient.createShared(vertx, config2, "ds2");
     assertEquals(2, map.size());
-    MailClient client5 = MailClient.createShared(vertx, config, "ds2");
+    MailClient client5 = MailClient.createShared(vertx, config2, "ds2");
     assertEquals(2, map.size());
-    MailClient client6 = MailClient.createShared(vertx, config, "ds2");
+    MailClient client6 = MailClient.createShared(vertx, config2, "ds2");
     assertEquals(2, map.size());
 
     client1.close();
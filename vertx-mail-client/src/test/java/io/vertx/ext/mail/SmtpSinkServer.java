@@ -0,0 +1,582 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetServerOptions;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SMTP server that accepts all mails and either discards or captures them, this is meant as target for load tests
+ * of the client
+ * <p>
+ * the server supports PIPELINING and CHUNKING (BDAT), it can inject a latency per command and random transient (4xx)
+ * or permanent (5xx) failures of the MAIL, RCPT and end of data commands. The server runs on the event loop of the
+ * Vert.x instance, several instances can listen on the same port to handle a large number of sessions
+ */
+public class SmtpSinkServer {
+
+  private static final Logger log = LoggerFactory.getLogger(SmtpSinkServer.class);
+
+  /**
+   * key for {@link #setLatency(String, long)} for the greeting after connect
+   */
+  public static final String CONNECT = "CONNECT";
+
+  /**
+   * key for {@link #setLatency(String, long)} for the reply after the end of the message data (the "." line or
+   * BDAT LAST)
+   */
+  public static final String END_OF_DATA = "EOD";
+
+  private final Vertx vertx;
+  private final List<NetServer> servers = new ArrayList<>();
+  private final Map<String, Long> latencies = new HashMap<>();
+  private final Queue<CapturedMail> capturedMails = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger sessions = new AtomicInteger();
+  private final AtomicLong mailCount = new AtomicLong();
+  private final AtomicLong failureCount = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+
+  private String host = "localhost";
+  private int port = 1587;
+  private int instances = 1;
+  private boolean pipelining = true;
+  private boolean chunking = true;
+  private long maxSize = 0;
+  private boolean capture = false;
+  private double transientFailureRate = 0;
+  private double permanentFailureRate = 0;
+  private Random random = new Random();
+
+  public SmtpSinkServer(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  public SmtpSinkServer setHost(String host) {
+    this.host = host;
+    return this;
+  }
+
+  public SmtpSinkServer setPort(int port) {
+    this.port = port;
+    return this;
+  }
+
+  /**
+   * @param instances the number of servers listening on the port, each server uses its own event loop
+   */
+  public SmtpSinkServer setInstances(int instances) {
+    this.instances = instances;
+    return this;
+  }
+
+  public SmtpSinkServer setPipelining(boolean pipelining) {
+    this.pipelining = pipelining;
+    return this;
+  }
+
+  public SmtpSinkServer setChunking(boolean chunking) {
+    this.chunking = chunking;
+    return this;
+  }
+
+  /**
+   * @param maxSize the size announced in the EHLO reply, 0 does not announce a limit
+   */
+  public SmtpSinkServer setMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  /**
+   * @param capture true to keep the received mails, false to discard them
+   */
+  public SmtpSinkServer setCapture(boolean capture) {
+    this.capture = capture;
+    return this;
+  }
+
+  /**
+   * delay the reply to a command
+   *
+   * @param command the command verb (e.g. "MAIL", "RCPT", "DATA", "BDAT"), {@link #CONNECT} or {@link #END_OF_DATA}
+   * @param millis  the latency in milliseconds
+   */
+  public SmtpSinkServer setLatency(String command, long millis) {
+    latencies.put(command.toUpperCase(Locale.ENGLISH), millis);
+    return this;
+  }
+
+  /**
+   * @param rate the probability of a 4xx reply to MAIL, RCPT and the end of data
+   */
+  public SmtpSinkServer setTransientFailureRate(double rate) {
+    this.transientFailureRate = rate;
+    return this;
+  }
+
+  /**
+   * @param rate the probability of a 5xx reply to MAIL, RCPT and the end of data
+   */
+  public SmtpSinkServer setPermanentFailureRate(double rate) {
+    this.permanentFailureRate = rate;
+    return this;
+  }
+
+  /**
+   * @param seed the seed for the fault injection to get reproducible runs
+   */
+  public SmtpSinkServer setSeed(long seed) {
+    this.random = new Random(seed);
+    return this;
+  }
+
+  /**
+   * start the server instances and wait until they are listening, this must not be called on an event loop
+   */
+  public SmtpSinkServer start() {
+    CountDownLatch latch = new CountDownLatch(instances);
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    for (int i = 0; i < instances; i++) {
+      NetServer server = vertx.createNetServer(new NetServerOptions().setHost(host).setPort(port));
+      server.connectHandler(socket -> new Session(socket).start());
+      servers.add(server);
+      server.listen(res -> {
+        if (res.failed()) {
+          failures.add(res.cause());
+        }
+        latch.countDown();
+      });
+    }
+    await(latch);
+    if (!failures.isEmpty()) {
+      stop();
+      throw new IllegalStateException("failed to start sink server", failures.get(0));
+    }
+    log.debug("sink server listening on port " + port + " with " + instances + " instances");
+    return this;
+  }
+
+  /**
+   * stop the server instances and wait until they are closed, this must not be called on an event loop
+   */
+  public void stop() {
+    CountDownLatch latch = new CountDownLatch(servers.size());
+    for (NetServer server : servers) {
+      server.close(v -> latch.countDown());
+    }
+    await(latch);
+    servers.clear();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("timeout waiting for the sink server");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return the number of currently open sessions
+   */
+  public int getSessionCount() {
+    return sessions.get();
+  }
+
+  /**
+   * @return the number of accepted mails
+   */
+  public long getMailCount() {
+    return mailCount.get();
+  }
+
+  /**
+   * @return the number of injected failures
+   */
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+
+  /**
+   * @return the number of message data bytes received
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  /**
+   * @return the captured mails, this is empty unless capture is enabled
+   */
+  public List<CapturedMail> getCapturedMails() {
+    return new ArrayList<>(capturedMails);
+  }
+
+  public void reset() {
+    capturedMails.clear();
+    mailCount.set(0);
+    failureCount.set(0);
+    bytesReceived.set(0);
+  }
+
+  /**
+   * a mail received by the server in capture mode
+   */
+  public static class CapturedMail {
+    private final String from;
+    private final List<String> recipients;
+    private final Buffer data;
+
+    CapturedMail(String from, List<String> recipients, Buffer data) {
+      this.from = from;
+      this.recipients = recipients;
+      this.data = data;
+    }
+
+    public String getFrom() {
+      return from;
+    }
+
+    public List<String> getRecipients() {
+      return recipients;
+    }
+
+    /**
+     * @return the message data, for DATA this is without the dot stuffing and the final "."
+     */
+    public Buffer getData() {
+      return data;
+    }
+  }
+
+  private String injectFailure() {
+    double value = random.nextDouble();
+    if (value < transientFailureRate) {
+      failureCount.incrementAndGet();
+      return "451 4.3.0 injected transient failure";
+    } else if (value < transientFailureRate + permanentFailureRate) {
+      failureCount.incrementAndGet();
+      return "554 5.3.0 injected permanent failure";
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * state of a single connection, all methods run on the event loop of the connection
+   * <p>
+   * the parsed records are queued and processed one after the other, this keeps the replies of pipelined commands in
+   * order when a reply is delayed
+   */
+  private class Session {
+    private final NetSocket socket;
+    private final RecordParser parser;
+    private final Queue<Object> pending = new ArrayDeque<>();
+    private boolean busy;
+    private boolean quit;
+    // state of the parser, this has to be known when the record is parsed
+    private boolean parseData;
+    private boolean parseChunk;
+    // state of the transaction, this is changed when the records are processed
+    private String from;
+    private List<String> recipients = new ArrayList<>();
+    private boolean inData;
+    private Buffer data;
+    private long size;
+
+    Session(NetSocket socket) {
+      this.socket = socket;
+      this.parser = RecordParser.newDelimited("\r\n", this::parsed);
+    }
+
+    void start() {
+      sessions.incrementAndGet();
+      socket.closeHandler(v -> sessions.decrementAndGet());
+      socket.exceptionHandler(th -> log.debug("sink session failed", th));
+      socket.handler(parser);
+      reply(CONNECT, "220 " + host + " ESMTP sink");
+    }
+
+    private void parsed(Buffer buffer) {
+      if (parseChunk) {
+        parseChunk = false;
+        parser.delimitedMode("\r\n");
+        pending.add(new Chunk(buffer));
+      } else {
+        if (parseData) {
+          if (buffer.length() == 1 && buffer.getByte(0) == '.') {
+            parseData = false;
+          }
+        } else if (chunking && buffer.length() > 5 && buffer.getString(0, 5).equalsIgnoreCase("BDAT ")) {
+          long chunkSize = parseChunkSize(buffer.toString());
+          if (chunkSize > 0) {
+            parseChunk = true;
+            parser.fixedSizeMode((int) chunkSize);
+          }
+        }
+        pending.add(buffer);
+      }
+      drain();
+    }
+
+    private void drain() {
+      while (!busy && !pending.isEmpty()) {
+        Object record = pending.poll();
+        if (record instanceof Chunk) {
+          chunk(((Chunk) record).data);
+        } else {
+          process((Buffer) record);
+        }
+      }
+    }
+
+    private void process(Buffer buffer) {
+      if (inData) {
+        if (buffer.length() == 1 && buffer.getByte(0) == '.') {
+          inData = false;
+          endOfData();
+        } else {
+          bytesReceived.addAndGet(buffer.length() + 2);
+          if (data != null) {
+            if (buffer.length() > 0 && buffer.getByte(0) == '.') {
+              data.appendBuffer(buffer, 1, buffer.length() - 1);
+            } else {
+              data.appendBuffer(buffer);
+            }
+            data.appendString("\r\n");
+          }
+        }
+        return;
+      }
+      String line = buffer.toString();
+      int space = line.indexOf(' ');
+      String verb = (space == -1 ? line : line.substring(0, space)).toUpperCase(Locale.ENGLISH);
+      switch (verb) {
+        case "EHLO":
+          reply(verb, ehloReply());
+          break;
+        case "HELO":
+          reply(verb, "250 " + host);
+          break;
+        case "AUTH":
+          reply(verb, "235 2.7.0 Authentication successful");
+          break;
+        case "MAIL":
+          String mailFailure = injectFailure();
+          if (mailFailure == null) {
+            from = argument(line);
+            recipients = new ArrayList<>();
+            reply(verb, "250 2.1.0 Ok");
+          } else {
+            reply(verb, mailFailure);
+          }
+          break;
+        case "RCPT":
+          if (from == null) {
+            reply(verb, "503 5.5.1 Error: need MAIL command");
+          } else {
+            String rcptFailure = injectFailure();
+            if (rcptFailure == null) {
+              recipients.add(argument(line));
+              reply(verb, "250 2.1.5 Ok");
+            } else {
+              reply(verb, rcptFailure);
+            }
+          }
+          break;
+        case "DATA":
+          if (from == null || recipients.isEmpty()) {
+            reply(verb, "503 5.5.1 Error: need RCPT command");
+          } else {
+            inData = true;
+            parseData = true;
+            data = capture ? Buffer.buffer() : null;
+            reply(verb, "354 End data with <CR><LF>.<CR><LF>");
+          }
+          break;
+        case "BDAT":
+          bdat(line);
+          break;
+        case "RSET":
+          resetTransaction();
+          reply(verb, "250 2.0.0 Ok");
+          break;
+        case "NOOP":
+          reply(verb, "250 2.0.0 Ok");
+          break;
+        case "QUIT":
+          quit = true;
+          reply(verb, "221 2.0.0 Bye");
+          break;
+        default:
+          reply(verb, "502 5.5.2 Error: command not recognized");
+      }
+    }
+
+    private void bdat(String line) {
+      if (!chunking) {
+        reply("BDAT", "502 5.5.2 Error: command not recognized");
+        return;
+      }
+      size = parseChunkSize(line);
+      boolean last = line.toUpperCase(Locale.ENGLISH).endsWith(" LAST");
+      if (data == null && capture) {
+        data = Buffer.buffer();
+      }
+      if (size == 0) {
+        if (last) {
+          endOfData();
+        } else {
+          reply("BDAT", "250 2.0.0 0 octets received");
+        }
+      } else {
+        // the data is processed with the next record
+        size = last ? -size : size;
+      }
+    }
+
+    private void chunk(Buffer chunk) {
+      bytesReceived.addAndGet(chunk.length());
+      if (capture && data != null) {
+        data.appendBuffer(chunk);
+      }
+      if (size < 0) {
+        endOfData();
+      } else {
+        reply("BDAT", "250 2.0.0 " + chunk.length() + " octets received");
+      }
+      size = 0;
+    }
+
+    private void endOfData() {
+      String failure = from == null || recipients.isEmpty() ? "503 5.5.1 Error: need RCPT command" : injectFailure();
+      if (failure == null) {
+        long id = mailCount.incrementAndGet();
+        if (capture) {
+          capturedMails.add(new CapturedMail(from, recipients, data));
+        }
+        reply(END_OF_DATA, "250 2.0.0 Ok: queued as " + Long.toHexString(id).toUpperCase(Locale.ENGLISH));
+      } else {
+        reply(END_OF_DATA, failure);
+      }
+      resetTransaction();
+    }
+
+    private void resetTransaction() {
+      from = null;
+      recipients = new ArrayList<>();
+      data = null;
+      inData = false;
+    }
+
+    private String ehloReply() {
+      List<String> lines = new ArrayList<>();
+      lines.add(host);
+      if (pipelining) {
+        lines.add("PIPELINING");
+      }
+      if (chunking) {
+        lines.add("CHUNKING");
+      }
+      if (maxSize > 0) {
+        lines.add("SIZE " + maxSize);
+      }
+      lines.add("8BITMIME");
+      lines.add("AUTH PLAIN LOGIN");
+      lines.add("ENHANCEDSTATUSCODES");
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < lines.size(); i++) {
+        if (i > 0) {
+          sb.append("\r\n");
+        }
+        sb.append(i < lines.size() - 1 ? "250-" : "250 ").append(lines.get(i));
+      }
+      return sb.toString();
+    }
+
+    private void reply(String command, String reply) {
+      Long latency = latencies.get(command);
+      if (latency == null || latency <= 0) {
+        write(reply);
+      } else {
+        busy = true;
+        socket.pause();
+        vertx.setTimer(latency, id -> {
+          write(reply);
+          busy = false;
+          socket.resume();
+          drain();
+        });
+      }
+    }
+
+    private void write(String reply) {
+      socket.write(reply + "\r\n");
+      if (quit) {
+        socket.close();
+      }
+    }
+  }
+
+  private static long parseChunkSize(String line) {
+    String[] parts = line.trim().split(" +");
+    try {
+      return parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static String argument(String line) {
+    int start = line.indexOf('<');
+    int end = line.indexOf('>', start + 1);
+    return start >= 0 && end > start ? line.substring(start + 1, end) : "";
+  }
+
+  private static class Chunk {
+    final Buffer data;
+
+    Chunk(Buffer data) {
+      this.data = data;
+    }
+  }
+
+}
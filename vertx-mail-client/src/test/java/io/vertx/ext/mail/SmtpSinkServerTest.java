@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test the sink server used for load tests
+ */
+@RunWith(VertxUnitRunner.class)
+public class SmtpSinkServerTest extends SMTPTestBase {
+
+  private SmtpSinkServer sink;
+
+  @Test
+  public void testCapture(TestContext testContext) {
+    this.testContext = testContext;
+    MailMessage message = exampleMessage().setTo(Arrays.asList("user1@example.com", "user2@example.com"));
+    testSuccess(mailClientNoSSL(), message, () -> {
+      testContext.assertEquals(1L, sink.getMailCount());
+      SmtpSinkServer.CapturedMail mail = sink.getCapturedMails().get(0);
+      testContext.assertEquals("from@example.com", mail.getFrom());
+      testContext.assertEquals(Arrays.asList("user1@example.com", "user2@example.com"), mail.getRecipients());
+      testContext.assertTrue(mail.getData().toString().contains("Subject: Subject"));
+    });
+  }
+
+  @Test
+  public void testManyMails(TestContext testContext) {
+    this.testContext = testContext;
+    final int count = 200;
+    Async async = testContext.async(count);
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setMaxPoolSize(10));
+    AtomicInteger done = new AtomicInteger();
+    for (int i = 0; i < count; i++) {
+      mailClient.sendMail(exampleMessage(), result -> {
+        testContext.assertTrue(result.succeeded());
+        if (done.incrementAndGet() == count) {
+          testContext.assertEquals((long) count, sink.getMailCount());
+          mailClient.close();
+        }
+        async.countDown();
+      });
+    }
+  }
+
+  @Test
+  public void testPermanentFailure(TestContext testContext) {
+    this.testContext = testContext;
+    sink.setPermanentFailureRate(1.0);
+    testException(mailClientNoSSL());
+  }
+
+  /**
+   * the message is encoded after the DATA command when the server doesn't announce SIZE, an encoding error has to
+   * fail the operation instead of escaping from the reply handler
+   */
+  @Test
+  public void testEncodingError(TestContext testContext) {
+    this.testContext = testContext;
+    MailMessage message = exampleMessage().setFrom("invalid address <").setBounceAddress("bounce@example.com");
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL().setWorkerEncodingThreshold(0));
+    mailClient.sendMail(message, testContext.asyncAssertFailure(th -> {
+      testContext.assertTrue(th instanceof IllegalArgumentException);
+      testContext.assertEquals(0L, sink.getMailCount());
+      mailClient.close();
+    }));
+  }
+
+  @Test
+  public void testLatency(TestContext testContext) {
+    this.testContext = testContext;
+    sink.setLatency("RCPT", 200);
+    long start = System.currentTimeMillis();
+    testSuccess(mailClientNoSSL(), exampleMessage(),
+        () -> testContext.assertTrue(System.currentTimeMillis() - start >= 200));
+  }
+
+  @Test
+  public void testPipeliningAndChunking(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    vertx.createNetClient().connect(1587, "localhost", testContext.asyncAssertSuccess(socket -> {
+      Buffer replies = Buffer.buffer();
+      socket.handler(buffer -> {
+        replies.appendBuffer(buffer);
+        if (replies.toString().contains("queued as")) {
+          String reply = replies.toString();
+          testContext.assertTrue(reply.contains("250-PIPELINING"));
+          testContext.assertTrue(reply.contains("250-CHUNKING"));
+          testContext.assertTrue(reply.contains("250 2.1.5 Ok"));
+          testContext.assertEquals("hello\r\n.world", sink.getCapturedMails().get(0).getData().toString());
+          socket.close();
+          async.complete();
+        }
+      });
+      // the complete transaction is sent in one write without waiting for the replies
+      writePipelined(socket);
+    }));
+  }
+
+  private void writePipelined(NetSocket socket) {
+    socket.write("EHLO example.com\r\n"
+        + "MAIL FROM:<from@example.com>\r\n"
+        + "RCPT TO:<user@example.com>\r\n"
+        + "BDAT 7\r\n"
+        + "hello\r\n"
+        + "BDAT 6 LAST\r\n"
+        + ".world");
+  }
+
+  @Override
+  protected void startSMTP() {
+    sink = new SmtpSinkServer(vertx).setCapture(true).start();
+  }
+
+  @Override
+  protected void stopSMTP() {
+    if (sink != null) {
+      sink.stop();
+      sink = null;
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.ResourceLeakDetector;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetServer;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RunWith(VertxUnitRunner.class)
+public class CommandWriterTest extends VertxTestBase {
+
+  private static final int PORT = 1588;
+
+  /**
+   * run the writer against a server that collects the received data and check the result after the client closes
+   * the connection
+   */
+  private void checkWritten(TestContext testContext, String expected, Consumer<CommandWriter> writes) {
+    Async async = testContext.async();
+    Buffer received = Buffer.buffer();
+    NetServer server = vertx.createNetServer().connectHandler(socket -> {
+      socket.handler(received::appendBuffer);
+      socket.endHandler(v -> {
+        testContext.assertEquals(expected, received.toString());
+        async.complete();
+      });
+    });
+    server.listen(PORT, "localhost", testContext.asyncAssertSuccess(s ->
+      vertx.createNetClient().connect(PORT, "localhost", testContext.asyncAssertSuccess(socket -> {
+        CommandWriter writer = new CommandWriter(socket);
+        writes.accept(writer);
+        socket.close();
+      }))));
+  }
+
+  @Test
+  public void testConstants(TestContext testContext) {
+    checkWritten(testContext, "RSET\r\nDATA\r\n.\r\nQUIT\r\n", writer ->
+      writer.append(CommandWriter.RSET).append(CommandWriter.DATA).append(CommandWriter.END_OF_DATA)
+        .append(CommandWriter.QUIT).flush());
+  }
+
+  @Test
+  public void testAddress(TestContext testContext) {
+    checkWritten(testContext, "MAIL FROM:<from@example.com> SIZE=1000\r\nRCPT TO:<tö@example.com>\r\n", writer -> {
+      writer.appendAddress(CommandWriter.MAIL_FROM, "from@example.com", " SIZE=1000");
+      writer.flush();
+      writer.appendAddress(CommandWriter.RCPT_TO, "tö@example.com", "").flush();
+    });
+  }
+
+  @Test
+  public void testLinesBatched(TestContext testContext) {
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      expected.append("line ").append(i).append("\r\n");
+    }
+    expected.append(".\r\n");
+    checkWritten(testContext, expected.toString(), writer -> {
+      for (int i = 0; i < 1000; i++) {
+        writer.appendLine("line " + i).flushIfFull();
+        testContext.assertTrue(writer.pendingBytes() < CommandWriter.FLUSH_THRESHOLD);
+      }
+      writer.append(CommandWriter.END_OF_DATA).flush();
+      testContext.assertEquals(0, writer.pendingBytes());
+    });
+  }
+
+  /**
+   * the socket doesn't release the buffers it writes, so the writer must not allocate reference counted buffers
+   * that need a release, the leak detector reports any buffer that is garbage collected without being released
+   */
+  @Test
+  public void testNoLeak() {
+    ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+    ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+    try {
+      List<Buffer> written = new ArrayList<>();
+      CommandWriter writer = new CommandWriter(written::add);
+      for (int i = 0; i < 1000; i++) {
+        writer.appendAddress(CommandWriter.RCPT_TO, "user" + i + "@example.com", "").flush();
+        writer.appendLine("line " + i).flushIfFull();
+      }
+      writer.append(CommandWriter.END_OF_DATA).flush();
+      writer.appendLine("discarded");
+      writer.discard();
+      assertEquals(1001, written.size());
+      for (Buffer buffer : written) {
+        ByteBuf buf = buffer.getByteBuf();
+        assertFalse(buf.isDirect());
+        // a heap buffer that isn't pooled is freed by the garbage collector, there is nothing to release
+        assertFalse(buf.alloc() instanceof PooledByteBufAllocator);
+      }
+    } finally {
+      ResourceLeakDetector.setLevel(level);
+    }
+  }
+
+  @Test
+  public void testDiscard(TestContext testContext) {
+    checkWritten(testContext, "QUIT\r\n", writer -> {
+      writer.appendLine("not written");
+      writer.discard();
+      testContext.assertEquals(0, writer.pendingBytes());
+      writer.append(CommandWriter.QUIT).flush();
+    });
+  }
+
+}
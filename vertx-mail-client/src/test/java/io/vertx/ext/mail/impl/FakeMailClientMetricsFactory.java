@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.spi.MailClientMetrics;
+import io.vertx.ext.mail.spi.MailClientMetricsFactory;
+import io.vertx.ext.mail.spi.MailPhase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * metrics factory installed by {@link MailClientMetricsTest}, this records the metrics of the pools created with the
+ * pool name {@link #POOL_NAME} and does nothing for all other pools
+ */
+public class FakeMailClientMetricsFactory implements MailClientMetricsFactory {
+
+  static final String POOL_NAME = "fake-metrics";
+
+  static volatile FakeMetrics lastMetrics;
+
+  @Override
+  public MailClientMetrics metrics(Vertx vertx, MailConfig config, String poolName) {
+    if (POOL_NAME.equals(poolName)) {
+      lastMetrics = new FakeMetrics();
+      return lastMetrics;
+    } else {
+      return new MailClientMetrics() {
+      };
+    }
+  }
+
+  static class FakeMetrics implements MailClientMetrics {
+    final AtomicInteger submitted = new AtomicInteger();
+    final AtomicInteger begin = new AtomicInteger();
+    final AtomicInteger rejected = new AtomicInteger();
+    final AtomicInteger end = new AtomicInteger();
+    final AtomicInteger created = new AtomicInteger();
+    final AtomicInteger closed = new AtomicInteger();
+    final List<MailPhase> phases = new CopyOnWriteArrayList<>();
+    volatile boolean poolClosed;
+
+    @Override
+    public Object submitted() {
+      submitted.incrementAndGet();
+      return null;
+    }
+
+    @Override
+    public Object begin(Object submittedMetric) {
+      begin.incrementAndGet();
+      return null;
+    }
+
+    @Override
+    public void rejected(Object submittedMetric) {
+      rejected.incrementAndGet();
+    }
+
+    @Override
+    public void end(Object beginMetric, boolean succeeded) {
+      end.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated() {
+      created.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed() {
+      closed.incrementAndGet();
+    }
+
+    @Override
+    public void phase(MailPhase phase, long duration, boolean succeeded) {
+      phases.add(phase);
+    }
+
+    @Override
+    public void close() {
+      poolClosed = true;
+    }
+  }
+}
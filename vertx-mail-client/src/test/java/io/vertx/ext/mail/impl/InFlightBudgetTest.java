@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Context;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class InFlightBudgetTest extends VertxTestBase {
+
+  @Test
+  public void testWaitForRelease() {
+    Context context = vertx.getOrCreateContext();
+    InFlightBudget budget = new InFlightBudget(vertx, 1000, -1);
+    budget.acquire(600, 0, context, onSuccess(v -> {}));
+    assertEquals(600, budget.usedBytes());
+    AtomicBoolean admitted = new AtomicBoolean();
+    budget.acquire(600, 0, context, onSuccess(v -> {
+      admitted.set(true);
+      assertEquals(600, budget.usedBytes());
+      testComplete();
+    }));
+    assertFalse(admitted.get());
+    assertEquals(1, budget.waitQueueSize());
+    budget.release(600);
+    await();
+  }
+
+  @Test
+  public void testRejectWhenQueueIsFull() {
+    Context context = vertx.getOrCreateContext();
+    InFlightBudget budget = new InFlightBudget(vertx, 1000, 0);
+    budget.acquire(600, 0, context, onSuccess(v -> {}));
+    budget.acquire(600, 0, context, onFailure(th -> {
+      assertEquals("in-flight byte budget exceeded", th.getMessage());
+      assertEquals(600, budget.usedBytes());
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testLargeMessageAdmittedWhenEmpty() {
+    Context context = vertx.getOrCreateContext();
+    InFlightBudget budget = new InFlightBudget(vertx, 1000, 0);
+    budget.acquire(5000, 0, context, onSuccess(v -> testComplete()));
+    await();
+  }
+
+  @Test
+  public void testWaitTimeout() {
+    Context context = vertx.getOrCreateContext();
+    InFlightBudget budget = new InFlightBudget(vertx, 1000, -1);
+    budget.acquire(600, 0, context, onSuccess(v -> {}));
+    budget.acquire(600, 100, context, onFailure(th -> {
+      assertEquals("timeout waiting for in-flight budget", th.getMessage());
+      assertEquals(0, budget.waitQueueSize());
+      assertEquals(600, budget.usedBytes());
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testTimeoutAdmitsNextWaiter() {
+    Context context = vertx.getOrCreateContext();
+    InFlightBudget budget = new InFlightBudget(vertx, 1000, -1);
+    budget.acquire(600, 0, context, onSuccess(v -> {}));
+    // the large operation times out, the small one behind it fits into the budget
+    budget.acquire(600, 100, context, onFailure(th -> {}));
+    budget.acquire(300, 0, context, onSuccess(v -> {
+      assertEquals(900, budget.usedBytes());
+      testComplete();
+    }));
+    await();
+  }
+
+}
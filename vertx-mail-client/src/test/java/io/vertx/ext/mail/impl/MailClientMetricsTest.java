@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.ext.mail.LoginOption;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.SMTPTestWiser;
+import io.vertx.ext.mail.spi.MailPhase;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * test that the send operations are reported to the MailClientMetrics
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailClientMetricsTest extends SMTPTestWiser {
+
+  @Before
+  public void installMetrics() {
+    SMTPConnectionPool.setMetricsFactory(new FakeMailClientMetricsFactory());
+  }
+
+  @After
+  public void removeMetrics() {
+    SMTPConnectionPool.setMetricsFactory(null);
+  }
+
+  @Test
+  public void testMetrics(TestContext testContext) {
+    Async async = testContext.async();
+    MailClient mailClient = new MailClientImpl(vertx, configNoSSL(), FakeMailClientMetricsFactory.POOL_NAME);
+    FakeMailClientMetricsFactory.FakeMetrics metrics = FakeMailClientMetricsFactory.lastMetrics;
+    testContext.assertNotNull(metrics);
+    mailClient.sendMail(exampleMessage(), result -> {
+      testContext.assertTrue(result.succeeded());
+      testContext.assertEquals(1, metrics.submitted.get());
+      testContext.assertEquals(1, metrics.begin.get());
+      testContext.assertEquals(1, metrics.end.get());
+      testContext.assertEquals(0, metrics.rejected.get());
+      testContext.assertEquals(1, metrics.created.get());
+      testContext.assertEquals(Arrays.asList(MailPhase.CONNECT, MailPhase.EHLO, MailPhase.AUTH, MailPhase.MAIL, MailPhase.RCPT,
+          MailPhase.DATA, MailPhase.FINAL_REPLY), metrics.phases);
+      mailClient.close();
+      vertx.setTimer(1000, v -> {
+        testContext.assertEquals(1, metrics.closed.get());
+        testContext.assertTrue(metrics.poolClosed);
+        async.complete();
+      });
+    });
+  }
+
+  /**
+   * a connection that fails during the login has never been reported as created, so it must not be reported as
+   * closed either
+   */
+  @Test
+  public void testFailedLoginIsNotReported(TestContext testContext) {
+    Async async = testContext.async();
+    MailClient mailClient = new MailClientImpl(vertx, configNoSSL().setLogin(LoginOption.REQUIRED).setUsername("xxx")
+        .setPassword("yyy").setAuthMethods("CRAM-MD5"), FakeMailClientMetricsFactory.POOL_NAME);
+    FakeMailClientMetricsFactory.FakeMetrics metrics = FakeMailClientMetricsFactory.lastMetrics;
+    mailClient.sendMail(exampleMessage(), result -> {
+      testContext.assertTrue(result.failed());
+      testContext.assertEquals(1, metrics.rejected.get());
+      mailClient.close();
+      vertx.setTimer(1000, v -> {
+        testContext.assertEquals(0, metrics.created.get());
+        testContext.assertEquals(0, metrics.closed.get());
+        testContext.assertTrue(metrics.poolClosed);
+        async.complete();
+      });
+    });
+  }
+
+}
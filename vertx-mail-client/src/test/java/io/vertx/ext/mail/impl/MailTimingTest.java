@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.MailTiming;
+import io.vertx.ext.mail.SMTPTestWiser;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * test the timing breakdown returned in the MailResult
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailTimingTest extends SMTPTestWiser {
+
+  @Test
+  public void testTiming(TestContext testContext) {
+    Async async = testContext.async();
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL());
+    MailSendOptions options = new MailSendOptions().setRecordTiming(true);
+    mailClient.sendMailWithOptions(exampleMessage(), options, result -> {
+      testContext.assertTrue(result.succeeded());
+      MailTiming timing = result.result().getTiming();
+      testContext.assertNotNull(timing);
+      testContext.assertTrue(timing.isNewConnection());
+      testContext.assertTrue(timing.getConnectTime() > 0);
+      testContext.assertTrue(timing.getAcquireTime() >= timing.getConnectTime());
+      testContext.assertTrue(timing.getMailFromTime() > 0);
+      testContext.assertEquals(1, timing.getRcptToTimes().size());
+      testContext.assertTrue(timing.getEncodeTime() > 0);
+      testContext.assertTrue(timing.getDataTime() > 0);
+      testContext.assertTrue(timing.getFinalReplyTime() > 0);
+      testContext.assertTrue(timing.getBytesSent() > 0);
+      mailClient.sendMailWithOptions(exampleMessage(), options, result2 -> {
+        testContext.assertTrue(result2.succeeded());
+        MailTiming timing2 = result2.result().getTiming();
+        testContext.assertFalse(timing2.isNewConnection());
+        testContext.assertEquals(0L, timing2.getConnectTime());
+        mailClient.close();
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void testNoTiming(TestContext testContext) {
+    Async async = testContext.async();
+    MailClient mailClient = MailClient.createNonShared(vertx, configNoSSL());
+    mailClient.sendMail(exampleMessage(), result -> {
+      testContext.assertTrue(result.succeeded());
+      testContext.assertNull(result.result().getTiming());
+      mailClient.close();
+      async.complete();
+    });
+  }
+
+  @Test
+  public void testParseQueueId() {
+    assertEquals("4A2B3C1D2E", Utils.parseQueueId("250 2.0.0 Ok: queued as 4A2B3C1D2E"));
+    assertEquals("1abcde-000001-AB", Utils.parseQueueId("250 OK id=1abcde-000001-AB"));
+    assertEquals("v8ABcdef012345", Utils.parseQueueId("250 2.0.0 v8ABcdef012345 Message accepted for delivery"));
+    assertNull(Utils.parseQueueId("250 Ok"));
+    assertNull(Utils.parseQueueId(null));
+  }
+
+}
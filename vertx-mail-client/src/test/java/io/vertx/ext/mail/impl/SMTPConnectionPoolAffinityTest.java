@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.SMTPTestWiser;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CompletableFuture;
+
+@RunWith(VertxUnitRunner.class)
+public class SMTPConnectionPoolAffinityTest extends SMTPTestWiser {
+
+  /**
+   * get two contexts running on different event loops
+   */
+  private Context[] twoEventLoops() throws Exception {
+    Context first = vertx.getOrCreateContext();
+    Thread firstThread = threadOf(first);
+    for (int i = 0; i < 16; i++) {
+      Context other = vertx.getOrCreateContext();
+      if (threadOf(other) != firstThread) {
+        return new Context[]{first, other};
+      }
+    }
+    throw new IllegalStateException("could not get a second event loop");
+  }
+
+  private Thread threadOf(Context context) throws Exception {
+    CompletableFuture<Thread> thread = new CompletableFuture<>();
+    context.runOnContext(v -> thread.complete(Thread.currentThread()));
+    return thread.get();
+  }
+
+  /**
+   * get a connection on a context, check it runs on that event loop and return it to the pool
+   */
+  private void useConnection(SMTPConnectionPool pool, Context context, TestContext testContext,
+                             Handler<SMTPConnection> handler) {
+    context.runOnContext(v -> pool.getConnection("hostname", testContext.asyncAssertSuccess(conn -> {
+      conn.returnToPool();
+      handler.handle(conn);
+    })));
+  }
+
+  @Test
+  public void testSameEventLoopPreferred(TestContext testContext) throws Exception {
+    Async async = testContext.async();
+    Context[] contexts = twoEventLoops();
+    MailConfig config = configNoSSL().setEventLoopAffinity(true).setMaxPoolSize(2);
+    SMTPConnectionPool pool = new SMTPConnectionPool(vertx, config);
+
+    useConnection(pool, contexts[0], testContext, conn1 -> {
+      // the idle connection belongs to the first event loop, so the second one opens a new connection
+      useConnection(pool, contexts[1], testContext, conn2 -> {
+        testContext.assertNotEquals(conn1, conn2);
+        testContext.assertEquals(2, pool.connCount());
+        useConnection(pool, contexts[0], testContext, conn3 -> {
+          testContext.assertEquals(conn1, conn3);
+          useConnection(pool, contexts[1], testContext, conn4 -> {
+            testContext.assertEquals(conn2, conn4);
+            testContext.assertEquals(2, pool.connCount());
+            pool.close(v -> async.complete());
+          });
+        });
+      });
+    });
+  }
+
+  @Test
+  public void testStealWhenPoolIsFull(TestContext testContext) throws Exception {
+    Async async = testContext.async();
+    Context[] contexts = twoEventLoops();
+    MailConfig config = configNoSSL().setEventLoopAffinity(true).setMaxPoolSize(1);
+    SMTPConnectionPool pool = new SMTPConnectionPool(vertx, config);
+
+    useConnection(pool, contexts[0], testContext, conn1 -> {
+      useConnection(pool, contexts[1], testContext, conn2 -> {
+        testContext.assertEquals(conn1, conn2);
+        testContext.assertEquals(1, pool.connCount());
+        pool.close(v -> async.complete());
+      });
+    });
+  }
+
+  @Test
+  public void testWithoutAffinity(TestContext testContext) throws Exception {
+    Async async = testContext.async();
+    Context[] contexts = twoEventLoops();
+    SMTPConnectionPool pool = new SMTPConnectionPool(vertx, configNoSSL().setMaxPoolSize(2));
+
+    useConnection(pool, contexts[0], testContext, conn1 -> {
+      useConnection(pool, contexts[1], testContext, conn2 -> {
+        testContext.assertEquals(conn1, conn2);
+        testContext.assertEquals(1, pool.connCount());
+        pool.close(v -> async.complete());
+      });
+    });
+  }
+
+}
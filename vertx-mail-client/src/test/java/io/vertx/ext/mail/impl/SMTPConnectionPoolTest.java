@@ -19,11 +19,16 @@ package io.vertx.ext.mail.impl;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailSendOptions;
 import io.vertx.ext.mail.SMTPTestWiser;
+import io.vertx.ext.mail.SendPriority;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
@@ -306,6 +311,89 @@ public class SMTPConnectionPoolTest extends SMTPTestWiser {
     });
   }
 
+  /**
+   * test that a full wait queue rejects the operation immediately
+   *
+   * @param testContext
+   */
+  @Test
+  public final void testWaitQueueFull(TestContext testContext) {
+    final MailConfig config = configNoSSL().setMaxPoolSize(1).setMaxWaitQueueSize(0);
+    Async async = testContext.async();
+    SMTPConnectionPool pool = new SMTPConnectionPool(vertx, config);
+    pool.getConnection("hostname", result -> {
+      if (result.succeeded()) {
+        pool.getConnection("hostname", result2 -> {
+          testContext.assertTrue(result2.failed(), "2nd getConnection() should fail");
+          testContext.assertEquals(0, pool.waitQueueSize());
+          result.result().returnToPool();
+          pool.close(v -> async.complete());
+        });
+      } else {
+        log.info(result.cause());
+        testContext.fail(result.cause());
+      }
+    });
+  }
+
+  /**
+   * test that a waiting operation fails when the acquire timeout is reached
+   *
+   * @param testContext
+   */
+  @Test
+  public final void testAcquireTimeout(TestContext testContext) {
+    final MailConfig config = configNoSSL().setMaxPoolSize(1);
+    Async async = testContext.async();
+    SMTPConnectionPool pool = new SMTPConnectionPool(vertx, config);
+    pool.getConnection("hostname", result -> {
+      if (result.succeeded()) {
+        pool.getConnection("hostname", new MailSendOptions().setAcquireTimeout(100), result2 -> {
+          testContext.assertTrue(result2.failed(), "2nd getConnection() should time out");
+          testContext.assertEquals(0, pool.waitQueueSize());
+          result.result().returnToPool();
+          pool.close(v -> async.complete());
+        });
+        testContext.assertEquals(1, pool.waitQueueSize());
+      } else {
+        log.info(result.cause());
+        testContext.fail(result.cause());
+      }
+    });
+  }
+
+  /**
+   * test that waiting operations with a higher priority get a connection first
+   *
+   * @param testContext
+   */
+  @Test
+  public final void testWaitQueuePriority(TestContext testContext) {
+    final MailConfig config = configNoSSL().setMaxPoolSize(1);
+    Async async = testContext.async();
+    SMTPConnectionPool pool = new SMTPConnectionPool(vertx, config);
+    List<SendPriority> order = new ArrayList<>();
+    pool.getConnection("hostname", result -> {
+      if (result.succeeded()) {
+        pool.getConnection("hostname", new MailSendOptions().setPriority(SendPriority.LOW), result2 -> {
+          order.add(SendPriority.LOW);
+          testContext.assertEquals(Arrays.asList(SendPriority.HIGH, SendPriority.LOW), order);
+          result2.result().returnToPool();
+          pool.close(v -> async.complete());
+        });
+        pool.getConnection("hostname", new MailSendOptions().setPriority(SendPriority.HIGH), result3 -> {
+          order.add(SendPriority.HIGH);
+          result3.result().returnToPool();
+        });
+        testContext.assertEquals(2, pool.waitQueueSize());
+        result.result().returnToPool();
+      } else {
+        log.info(result.cause());
+        testContext.fail(result.cause());
+      }
+    });
+  }
+
   /**
    * test what happens if the server closes the connection while idle
    * <p>
@@ -0,0 +1,135 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.net.NetClientOptions;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+
+public class SMTPPoolRegistryTest extends VertxTestBase {
+
+  private LocalMap<Object, Object> getRegistryMap() {
+    return vertx.sharedData().getLocalMap("__vertx.MailClient.connectionPools");
+  }
+
+  @Test
+  public void testSameConfigDifferentNames() {
+    MailClientImpl client1 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig("relay.example.com"), "ds1");
+    MailClientImpl client2 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig("relay.example.com"), "ds2");
+    assertSame(client1.getConnectionPool(), client2.getConnectionPool());
+    assertEquals(1, getRegistryMap().size());
+    client1.close();
+    assertEquals(1, getRegistryMap().size());
+    client2.close();
+    assertEquals(0, getRegistryMap().size());
+  }
+
+  @Test
+  public void testDifferentConfigSameName() {
+    MailClientImpl client1 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig("relay1.example.com"), "ds");
+    MailClientImpl client2 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig("relay2.example.com"), "ds");
+    assertNotSame(client1.getConnectionPool(), client2.getConnectionPool());
+    assertEquals(2, getRegistryMap().size());
+    client1.close();
+    client2.close();
+    assertEquals(0, getRegistryMap().size());
+  }
+
+  @Test
+  public void testCredentialsArePartOfKey() {
+    MailConfig config = new MailConfig("relay.example.com").setUsername("user1").setPassword("pw");
+    MailClientImpl client1 = (MailClientImpl) MailClient.createShared(vertx, config);
+    MailClientImpl client2 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig(config).setUsername("user2"));
+    assertNotSame(client1.getConnectionPool(), client2.getConnectionPool());
+    client1.close();
+    client2.close();
+  }
+
+  @Test
+  public void testAllowRcptErrorsIsNotPartOfKey() {
+    MailConfig config = new MailConfig("relay.example.com");
+    MailClientImpl client1 = (MailClientImpl) MailClient.createShared(vertx, config);
+    MailClientImpl client2 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig(config).setAllowRcptErrors(true));
+    assertSame(client1.getConnectionPool(), client2.getConnectionPool());
+    client1.close();
+    client2.close();
+  }
+
+  @Test
+  public void testWaitQueueAndDataEndTimeoutArePartOfKey() {
+    MailConfig config = new MailConfig("relay.example.com");
+    MailClientImpl client1 = (MailClientImpl) MailClient.createShared(vertx, config);
+    MailClientImpl client2 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig(config).setMaxWaitQueueSize(10));
+    MailClientImpl client3 = (MailClientImpl) MailClient.createShared(vertx, new MailConfig(config).setDataEndTimeout(1000));
+    assertNotSame(client1.getConnectionPool(), client2.getConnectionPool());
+    assertNotSame(client1.getConnectionPool(), client3.getConnectionPool());
+    assertEquals(3, getRegistryMap().size());
+    client1.close();
+    client2.close();
+    client3.close();
+    assertEquals(0, getRegistryMap().size());
+  }
+
+  @Test
+  public void testNetClientOptionsAreCopied() {
+    NetClientOptions options = new NetClientOptions().setSendBufferSize(4096);
+    MailConfig config = new MailConfig("relay.example.com").setNetClientOptions(options);
+    MailClientImpl client1 = (MailClientImpl) MailClient.createShared(vertx, config);
+    // changing the options after creating the client must not change the key of the existing pool
+    options.setSendBufferSize(8192);
+    MailClientImpl client2 = (MailClientImpl) MailClient.createShared(vertx,
+      new MailConfig("relay.example.com").setNetClientOptions(new NetClientOptions().setSendBufferSize(4096)));
+    assertSame(client1.getConnectionPool(), client2.getConnectionPool());
+    client1.close();
+    client2.close();
+    assertEquals(0, getRegistryMap().size());
+  }
+
+  @Test
+  public void testNonShared() {
+    MailClientImpl client1 = (MailClientImpl) MailClient.createNonShared(vertx, new MailConfig("relay.example.com"));
+    MailClientImpl client2 = (MailClientImpl) MailClient.createNonShared(vertx, new MailConfig("relay.example.com"));
+    assertNotSame(client1.getConnectionPool(), client2.getConnectionPool());
+    client1.close();
+    client2.close();
+    assertEquals(0, getRegistryMap().size());
+  }
+
+  @Test
+  public void testBudget() {
+    MailClientImpl client1 = (MailClientImpl) MailClient.createShared(vertx,
+      new MailConfig("relay.example.com").setMaxPoolSize(10));
+    SMTPConnectionPool pool = client1.getConnectionPool();
+    assertEquals(10, pool.maxSockets());
+    MailClientImpl client2 = (MailClientImpl) MailClient.createShared(vertx,
+      new MailConfig("relay.example.com").setMaxPoolSize(3), "other");
+    assertSame(pool, client2.getConnectionPool());
+    assertEquals(3, pool.maxSockets());
+    MailClientImpl client3 = (MailClientImpl) MailClient.createShared(vertx,
+      new MailConfig("relay.example.com").setMaxPoolSize(5));
+    assertEquals(3, pool.maxSockets());
+    client2.close();
+    assertEquals(5, pool.maxSockets());
+    client3.close();
+    assertEquals(10, pool.maxSockets());
+    client1.close();
+  }
+
+}
@@ -19,10 +19,15 @@ package io.vertx.ext.mail.impl;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.ext.mail.MailBatchResult;
 import io.vertx.ext.mail.MailClient;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailEnvelope;
 import io.vertx.ext.mail.MailMessage;
 import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSendOptions;
+
+import java.util.List;
 
 /**
  * MailClient providing a few internal getters for unit tests
@@ -49,6 +54,32 @@ public class TestMailClient implements MailClient {
     return mailClient.sendMail(email, resultHandler);
   }
 
+  /* (non-Javadoc)
+   * @see io.vertx.ext.mail.MailClient#sendMailWithOptions(io.vertx.ext.mail.MailMessage, io.vertx.ext.mail.MailSendOptions, io.vertx.core.Handler)
+   */
+  @Override
+  public MailClient sendMailWithOptions(MailMessage email, MailSendOptions options,
+      Handler<AsyncResult<MailResult>> resultHandler) {
+    return mailClient.sendMailWithOptions(email, options, resultHandler);
+  }
+
+  /* (non-Javadoc)
+   * @see io.vertx.ext.mail.MailClient#sendMails(java.util.List, io.vertx.core.Handler)
+   */
+  @Override
+  public MailClient sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    return mailClient.sendMails(emails, resultHandler);
+  }
+
+  /* (non-Javadoc)
+   * @see io.vertx.ext.mail.MailClient#sendMailEnvelopes(io.vertx.ext.mail.MailMessage, java.util.List, io.vertx.core.Handler)
+   */
+  @Override
+  public MailClient sendMailEnvelopes(MailMessage email, List<MailEnvelope> envelopes,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    return mailClient.sendMailEnvelopes(email, envelopes, resultHandler);
+  }
+
   /* (non-Javadoc)
    * @see io.vertx.ext.mail.MailClient#close()
    */
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+public class DateHeaderTest {
+
+  /**
+   * clock that can be set by the test
+   */
+  private static class TestClock extends Clock {
+
+    private long millis;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.of("UTC");
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+
+  @Test
+  public void testFormat() {
+    DateHeader dateHeader = new DateHeader(Clock.fixed(Instant.ofEpochSecond(1420070400L), ZoneOffset.ofHours(-5)));
+    assertEquals("Wed, 31 Dec 2014 19:00:00 -0500 (-05:00)", dateHeader.format());
+  }
+
+  @Test
+  public void testCachedPerSecond() {
+    TestClock clock = new TestClock();
+    DateHeader dateHeader = new DateHeader(clock);
+
+    clock.millis = 1420070400000L;
+    final String date = dateHeader.format();
+    assertEquals("Thu, 01 Jan 2015 00:00:00 +0000 (UTC)", date);
+
+    clock.millis = 1420070400999L;
+    assertSame(date, dateHeader.format());
+
+    clock.millis = 1420070401000L;
+    assertEquals("Thu, 01 Jan 2015 00:00:01 +0000 (UTC)", dateHeader.format());
+
+    // going back in time works as well
+    clock.millis = 1420070400500L;
+    assertEquals(date, dateHeader.format());
+  }
+
+  @Test
+  public void testSystem() {
+    assertNotNull(Utils.generateDate());
+    assertTrue(Utils.generateDate().matches("[A-Z][a-z]{2}, \\d{2} [A-Z][a-z]{2} \\d{4} \\d{2}:\\d{2}:\\d{2} [+-]\\d{4} \\(.*\\)"));
+  }
+
+}
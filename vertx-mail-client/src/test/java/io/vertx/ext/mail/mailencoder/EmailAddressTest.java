@@ -18,6 +18,8 @@ package io.vertx.ext.mail.mailencoder;
 
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 public class EmailAddressTest {
@@ -43,6 +45,46 @@ public class EmailAddressTest {
     checkAddress("Mailer <>", "[,Mailer]");
   }
 
+  @Test
+  public void testQuotedLocalPart() {
+    checkAddress("\"user name\"@example.com", "[\"user name\"@example.com]");
+    checkAddress("\"user@home\"@example.com", "[\"user@home\"@example.com]");
+    checkAddress("User Name <\"user name\"@example.com>", "[\"user name\"@example.com,User Name]");
+    checkAddress("\"user name\"@example.com (User Name)", "[\"user name\"@example.com,User Name]");
+    checkAddress("\"Name (with comment) <x>\" <user@example.com>", "[user@example.com,\"Name (with comment) <x>\"]");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testQuotedLocalPartInvalid() {
+    new EmailAddress("\"user name\"@example .com");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testQuotedLocalPartNewline() {
+    new EmailAddress("\"user\nname\"@example.com");
+  }
+
+  @Test
+  public void testParseList() {
+    assertEquals("[[user@example.com,User Name]]", EmailAddress.parseList("User Name <user@example.com>").toString());
+    assertEquals("[[user@example.com,Last, First]]", EmailAddress.parseList("Last, First <user@example.com>").toString());
+  }
+
+  @Test
+  public void testParseGroup() {
+    List<EmailAddress> list = EmailAddress.parseList("Team: user1@example.com, \"Last, First\" <user2@example.com>,"
+      + " user3@example.com (Third, User);");
+    assertEquals("[[user1@example.com], [user2@example.com,\"Last, First\"], [user3@example.com,Third, User]]",
+      list.toString());
+    assertEquals(0, EmailAddress.parseList("undisclosed-recipients:;").size());
+    assertEquals(0, EmailAddress.parseList("\"Team: all\": ;").size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseGroupInvalid() {
+    EmailAddress.parseList("Team: user1@example.com, user 2@example.com;");
+  }
+
   private void checkAddress(String input, String string) {
     EmailAddress emailAddress = new EmailAddress(input);
     assertEquals(string, emailAddress.toString());
@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HeaderCacheTest {
+
+  @Before
+  public void clearCache() {
+    HeaderCache.clear();
+  }
+
+  @Test
+  public void testAddressIsCached() {
+    EmailAddress address = HeaderCache.address("Some User <user@example.com>");
+    assertEquals("[user@example.com,Some User]", address.toString());
+    assertSame(address, HeaderCache.address("Some User <user@example.com>"));
+    assertSame(address, EmailAddress.parse("Some User <user@example.com>"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidAddress() {
+    HeaderCache.address("user @example.com");
+  }
+
+  @Test
+  public void testInvalidAddressNotCached() {
+    try {
+      HeaderCache.address("user @example.com");
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(0, HeaderCache.size());
+  }
+
+  @Test
+  public void testEncodedAddress() {
+    final String address = "user@example.com (J\u00fcrgen M\u00fcller)";
+    final String encoded = HeaderCache.encodedAddress(address, 6);
+    assertEquals(Utils.encodeHeaderEmail(address, 6), encoded);
+    assertSame(encoded, HeaderCache.encodedAddress(address, 6));
+  }
+
+  @Test
+  public void testEncodedList() {
+    List<String> list = new ArrayList<>(Arrays.asList("user@example.com (J\u00fcrgen M\u00fcller)", "other@example.com"));
+    final String encoded = HeaderCache.encodedList(list, 4);
+    assertEquals(Utils.encodeEmailList(list, 4), encoded);
+    assertSame(encoded, HeaderCache.encodedList(Arrays.asList("user@example.com (J\u00fcrgen M\u00fcller)", "other@example.com"), 4));
+
+    // changing the list after the call must not change the cached entry
+    list.add("third@example.com");
+    assertEquals(Utils.encodeEmailList(list, 4), HeaderCache.encodedList(list, 4));
+    assertEquals(encoded, HeaderCache.encodedList(Arrays.asList("user@example.com (J\u00fcrgen M\u00fcller)", "other@example.com"), 4));
+  }
+
+  @Test
+  public void testIndexIsPartOfKey() {
+    final String address = "user@example.com (J\u00fcrgen M\u00fcller)";
+    assertEquals(Utils.encodeHeaderEmail(address, 6), HeaderCache.encodedAddress(address, 6));
+    assertEquals(Utils.encodeHeaderEmail(address, 60), HeaderCache.encodedAddress(address, 60));
+  }
+
+  @Test
+  public void testBounded() {
+    for (int i = 0; i < HeaderCache.MAX_ENTRIES * 2; i++) {
+      HeaderCache.address("user" + i + "@example.com");
+    }
+    assertEquals(HeaderCache.MAX_ENTRIES, HeaderCache.size());
+  }
+
+}
@@ -29,6 +29,10 @@ import io.vertx.ext.mail.MailAttachment;
 import io.vertx.ext.mail.MailMessage;
 import io.vertx.ext.mail.TestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -90,6 +94,15 @@ public class MailEncoderTest {
     assertThat(TestUtils.getMessage(mime).getHeader("Message-ID")[0], containsString(".vertxmail."));
   }
 
+  @Test
+  public void testDateClock() throws Exception {
+    MailMessage message = new MailMessage();
+    Clock clock = Clock.fixed(Instant.ofEpochSecond(1420070400L), ZoneId.of("Europe/Berlin"));
+    String mime = new MailEncoder(message, HOSTNAME).setClock(clock).encode();
+    assertThat(mime, containsString("Date: Thu, 01 Jan 2015 01:00:00 +0100 (CET)\n"));
+    assertEquals(1420070400000L, TestUtils.getMessage(mime).getSentDate().getTime());
+  }
+
   @Test
   public void testSubject() throws Exception {
     MailMessage message = new MailMessage();
@@ -596,4 +609,58 @@ public class MailEncoderTest {
     assertThat(mime, not(containsString("你好")));
   }
 
+  @Test
+  public void testSize() {
+    checkSize(new MailMessage());
+    checkSize(new MailMessage().setText("text without line break"));
+    checkSize(new MailMessage().setText("text with line break\n"));
+    checkSize(new MailMessage().setSubject("Subject with ÄÖÜ").setFrom("from@example.com (Ä Name)")
+      .setTo(Arrays.asList("user@example.com", "user2@example.com (User with Ü)"))
+      .setText("äöü\n\ttab=equals\u0001control\r\n ends with space \n"
+        + "this is a long line with a lot of characters that will be wrapped by the quoted-printable encoding="));
+    checkSize(new MailMessage().setText("text").setHtml("<p>html äöü</p>"));
+    MultiMap headers = new CaseInsensitiveHeaders();
+    headers.set("X-Header", "value with ü");
+    checkSize(new MailMessage().setText("text").setHeaders(headers));
+    for (int length = 0; length < 120; length++) {
+      MailAttachment attachment = new MailAttachment().setData(Buffer.buffer(new byte[length])).setName("file.bin");
+      checkSize(new MailMessage().setHtml("html").setAttachment(attachment).setInlineAttachment(attachment));
+    }
+  }
+
+  /*
+   * the size has to match the number of octets written in the DATA command, i.e. utf-8 with CRLF line breaks
+   */
+  private void checkSize(MailMessage message) {
+    MailEncoder encoder = new MailEncoder(message, HOSTNAME);
+    long size = encoder.size();
+    String encoded = encoder.encode();
+    long expected = 0;
+    for (String line : encoded.split("\n", -1)) {
+      expected += line.getBytes(StandardCharsets.UTF_8).length + 2;
+    }
+    if (encoded.endsWith("\n")) {
+      // there is no empty line after the last line break
+      expected -= 2;
+    }
+    assertEquals(encoded, expected, size);
+  }
+
+  @Test
+  public void testEncodeParallel() {
+    MailMessage message = new MailMessage().setText("text");
+    List<MailAttachment> attachments = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      attachments.add(new MailAttachment().setName("file" + i + ".txt").setData(Buffer.buffer("attachment " + i)));
+    }
+    message.setAttachment(attachments);
+    MailEncoder encoder = new MailEncoder(message, HOSTNAME);
+    long size = encoder.size();
+    String encoded = encoder.encodeParallel();
+    for (int i = 0; i < 4; i++) {
+      assertThat(encoded, containsString(Utils.base64(("attachment " + i).getBytes(StandardCharsets.UTF_8))));
+    }
+    assertEquals(size, encoded.length() + encoded.split("\n", -1).length - 1 + (encoded.endsWith("\n") ? 0 : 2));
+  }
+
 }
@@ -18,6 +18,9 @@ package io.vertx.ext.mail.mailencoder;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -42,6 +45,15 @@ public class UtilsTest {
       sb.toString());
   }
 
+  @Test
+  public void testEncodeEmailListGroup() {
+    assertEquals("undisclosed-recipients:;",
+      Utils.encodeEmailList(Collections.singletonList("undisclosed-recipients:;"), 4));
+    assertEquals("user@example.com,Team:user1@example.com,user2@example.com (User Two);",
+      Utils.encodeEmailList(Arrays.asList("user@example.com", "Team: user1@example.com, user2@example.com (User Two);"),
+        4));
+  }
+
   @Test
   public void testDate() {
     System.out.println(Utils.generateDate());
@@ -17,8 +17,13 @@
 package examples;
 
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.MailDeliveryReport;
 import io.vertx.ext.mail.MailMessage;
 import io.vertx.ext.mail.MailService;
+import io.vertx.ext.mail.MailSubmitStream;
+
+import java.util.List;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -29,6 +34,10 @@ public class Examples {
     MailService mailService = MailService.createEventBusProxy(vertx, "vertx.mail");
   }
 
+  public void createBinaryService(Vertx vertx) {
+    MailService mailService = MailService.createBinaryEventBusProxy(vertx, "vertx.mail");
+  }
+
   public void exampleService(Vertx vertx) {
     MailService mailService = MailService.createEventBusProxy(vertx, "vertx.mail");
 
@@ -48,4 +57,42 @@ public class Examples {
     });
   }
 
+  public void submitStream(Vertx vertx, List<MailMessage> emails) {
+    MailService mailService = MailService.createEventBusProxy(vertx, "vertx.mail");
+
+    // send batches of 100 mails with at most 4 batches waiting for their result
+    MailSubmitStream stream = new MailSubmitStream(mailService, 100, 4);
+    stream.resultHandler(batch -> {
+      System.out.println(batch.getSucceededCount() + " mails sent");
+    });
+    stream.drainHandler(v -> {
+      // continue writing mails
+    });
+    for (MailMessage email : emails) {
+      stream.write(email);
+    }
+    stream.end();
+  }
+
+  public void submitMail(Vertx vertx, MailMessage email) {
+    MailService mailService = MailService.createEventBusProxy(vertx, "vertx.mail");
+
+    vertx.eventBus().<JsonObject>consumer("mail.reports", msg -> {
+      MailDeliveryReport report = new MailDeliveryReport(msg.body());
+      if (report.isSucceeded()) {
+        System.out.println("mail " + report.getMessageId() + " was sent");
+      } else {
+        System.out.println("mail " + report.getMessageId() + " failed: " + report.getError());
+      }
+    });
+
+    mailService.submitMail(email, "mail.reports", result -> {
+      if (result.succeeded()) {
+        System.out.println("mail " + result.result() + " was accepted");
+      } else {
+        result.cause().printStackTrace();
+      }
+    });
+  }
+
 }
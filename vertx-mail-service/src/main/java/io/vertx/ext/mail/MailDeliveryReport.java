@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Objects;
+
+/**
+ * Report of the delivery of a mail that was sent with {@link MailService#submitMail}
+ * <p>
+ * the report is published to the report address when the SMTP transaction has finished, it is correlated to the
+ * submitted mail by the Message-ID
+ */
+@DataObject
+public class MailDeliveryReport {
+
+  private String messageId;
+  private boolean succeeded;
+  private MailResult result;
+  private String error;
+
+  public MailDeliveryReport() {
+  }
+
+  public MailDeliveryReport(MailDeliveryReport other) {
+    Objects.requireNonNull(other);
+    messageId = other.messageId;
+    succeeded = other.succeeded;
+    result = other.result == null ? null : new MailResult(other.result);
+    error = other.error;
+  }
+
+  public MailDeliveryReport(JsonObject json) {
+    Objects.requireNonNull(json);
+    messageId = json.getString("messageId");
+    succeeded = json.getBoolean("succeeded", false);
+    JsonObject jsonResult = json.getJsonObject("result");
+    result = jsonResult == null ? null : new MailResult(jsonResult);
+    error = json.getString("error");
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (messageId != null) {
+      json.put("messageId", messageId);
+    }
+    json.put("succeeded", succeeded);
+    if (result != null) {
+      json.put("result", result.toJson());
+    }
+    if (error != null) {
+      json.put("error", error);
+    }
+    return json;
+  }
+
+  /**
+   * @return the Message-ID of the mail, this is the value returned by submitMail
+   */
+  public String getMessageId() {
+    return messageId;
+  }
+
+  /**
+   * @param messageId the messageId to set
+   */
+  public MailDeliveryReport setMessageId(String messageId) {
+    this.messageId = messageId;
+    return this;
+  }
+
+  /**
+   * @return true if the server has accepted the mail
+   */
+  public boolean isSucceeded() {
+    return succeeded;
+  }
+
+  /**
+   * @param succeeded the succeeded to set
+   */
+  public MailDeliveryReport setSucceeded(boolean succeeded) {
+    this.succeeded = succeeded;
+    return this;
+  }
+
+  /**
+   * @return the result of the send operation, null if it failed
+   */
+  public MailResult getResult() {
+    return result;
+  }
+
+  /**
+   * @param result the result to set
+   */
+  public MailDeliveryReport setResult(MailResult result) {
+    this.result = result;
+    return this;
+  }
+
+  /**
+   * @return the error message including the reply of the server if the send operation failed
+   */
+  public String getError() {
+    return error;
+  }
+
+  /**
+   * @param error the error to set
+   */
+  public MailDeliveryReport setError(String error) {
+    this.error = error;
+    return this;
+  }
+
+  public String toString() {
+    return toJson().encode();
+  }
+
+}
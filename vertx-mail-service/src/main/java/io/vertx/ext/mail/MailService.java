@@ -23,8 +23,11 @@ import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.ext.mail.impl.BinaryMailServiceProxy;
 import io.vertx.serviceproxy.ProxyHelper;
 
+import java.util.List;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
@@ -43,10 +46,54 @@ public interface MailService extends MailClient {
     return ProxyHelper.createProxy(MailService.class, vertx, address);
   }
 
+  /**
+   * create a proxy of MailService that sends the mails in a binary format via the event bus
+   * <p>
+   * attachments are transferred as raw bytes instead of base64 encoded json, which reduces the size of the
+   * messages in a clustered event bus. The mail service has to be run by a MailServiceVerticle
+   *
+   * @param vertx the Vertx instance the proxy will be run in
+   * @param address the eb address of the mail service running somewhere, default is "vertx.mail"
+   * @return MailService instance that can then be used to send multiple mails
+   */
+  static MailService createBinaryEventBusProxy(Vertx vertx, String address) {
+    return new BinaryMailServiceProxy(vertx, address);
+  }
+
   @Override
   @Fluent
   MailService sendMail(MailMessage email, Handler<AsyncResult<MailResult>> resultHandler);
 
+  @Override
+  @Fluent
+  MailService sendMailWithOptions(MailMessage email, MailSendOptions options, Handler<AsyncResult<MailResult>> resultHandler);
+
+  @Override
+  @Fluent
+  MailService sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler);
+
+  @Override
+  @Fluent
+  MailService sendMailEnvelopes(MailMessage email, List<MailEnvelope> envelopes,
+      Handler<AsyncResult<MailBatchResult>> resultHandler);
+
+  /**
+   * submit a mail without waiting for the SMTP transaction
+   * <p>
+   * the operation finishes when the mail was accepted by the service, the result is the Message-ID of the mail (if
+   * the mail doesn't have a Message-ID header, the service adds one). When the mail has been sent or has failed, a
+   * MailDeliveryReport with the same Message-ID is published as json to the report address
+   *
+   * @param email         MailMessage object containing the mail text, from/to, attachments etc
+   * @param reportAddress the event bus address the delivery report is published to, if null the report address of
+   *                      the service config is used
+   * @param resultHandler will be called with the Message-ID when the mail was accepted
+   *                      (may be null to ignore the result)
+   * @return this MailService instance so the method can be used fluently
+   */
+  @Fluent
+  MailService submitMail(MailMessage email, String reportAddress, Handler<AsyncResult<String>> resultHandler);
+
   @Override
   @ProxyIgnore
   void close();
@@ -17,6 +17,8 @@
 package io.vertx.ext.mail;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.ext.mail.impl.BinaryMailServiceHandler;
+import io.vertx.ext.mail.impl.MailServiceDispatcher;
 import io.vertx.ext.mail.impl.MailServiceImpl;
 import io.vertx.serviceproxy.ProxyHelper;
 
@@ -29,29 +31,62 @@ import io.vertx.serviceproxy.ProxyHelper;
  * <pre>{@code vertx run client:io.vertx.mail-client}</pre>
  * and send mails from other machines via the event bus with the client address vertx.mail
  * (on the other hand, if you can send mails via localhost:25, you do not really need the event bus)
+ * <p>
+ * when the verticle is deployed with several instances, the config option poolName lets all instances share one
+ * connection pool, so that maxPoolSize is the limit for the node, and maxInFlight dispatches each operation to an
+ * instance that runs less than maxInFlight operations
  *
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 public class MailServiceVerticle extends AbstractVerticle {
 
   private MailService service;
+  private MailServiceDispatcher dispatcher;
+  private Object worker;
 
   @Override
   public void start() {
 
-    service = new MailServiceImpl(MailClient.createNonShared(vertx, new MailConfig(config())));
-
     // And register it on the event bus against the configured address
     final String address = config().getString("address");
     if (address == null) {
       throw new IllegalStateException("address field must be specified in config for client verticle");
     }
-    ProxyHelper.registerService(MailService.class, vertx, service, address);
+
+    // with a pool name, all instances of the verticle on this node share one connection pool
+    final MailConfig mailConfig = new MailConfig(config());
+    final String poolName = config().getString("poolName");
+    // the delivery reports of submitMail are published here if the operation doesn't specify an address
+    final String reportAddress = config().getString("reportAddress");
+    if (poolName == null) {
+      service = new MailServiceImpl(vertx, MailClient.createNonShared(vertx, mailConfig), reportAddress);
+    } else {
+      service = new MailServiceImpl(vertx, MailClient.createShared(vertx, mailConfig, poolName), reportAddress);
+    }
+
+    // with maxInFlight, the operations are dispatched to the instance that has a free credit
+    // instead of the round robin of the event bus
+    final int maxInFlight = config().getInteger("maxInFlight", 0);
+    MailService endpoint = service;
+    if (maxInFlight > 0) {
+      dispatcher = MailServiceDispatcher.lookup(vertx, address);
+      dispatcher.setDefaultReportAddress(reportAddress);
+      // operations waiting for a credit are limited like the operations waiting for a pooled connection
+      dispatcher.setMaxPending(mailConfig.getMaxWaitQueueSize());
+      worker = dispatcher.addWorker(service, maxInFlight);
+      endpoint = dispatcher;
+    }
+
+    ProxyHelper.registerService(MailService.class, vertx, endpoint, address);
+    BinaryMailServiceHandler.register(vertx, endpoint, address);
 
   }
 
   @Override
   public void stop() {
+    if (dispatcher != null) {
+      dispatcher.removeWorker(worker);
+    }
     if (service != null) {
       service.close();
     }
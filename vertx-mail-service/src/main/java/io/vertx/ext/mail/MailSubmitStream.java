@@ -0,0 +1,182 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.Handler;
+import io.vertx.core.streams.WriteStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * WriteStream that submits mails in batches with {@link MailService#sendMails}
+ * <p>
+ * the stream collects the written mails until a batch is full and sends the batch as one event bus request. The
+ * number of batches waiting for their result is limited by credits, when no credit is left {@link #writeQueueFull()}
+ * returns true and the drain handler is called when a batch has finished, so that a Pump or a producer that checks
+ * writeQueueFull doesn't overrun the mail service
+ * <p>
+ * the stream is not thread safe, it should be used from one context
+ */
+public class MailSubmitStream implements WriteStream<MailMessage> {
+
+  public static final int DEFAULT_BATCH_SIZE = 100;
+  public static final int DEFAULT_CREDITS = 4;
+
+  private final MailClient service;
+  private final int batchSize;
+  private int credits;
+
+  private List<MailMessage> batch;
+  private int inFlight;
+  private boolean ended;
+  private Handler<MailBatchResult> resultHandler;
+  private Handler<Throwable> exceptionHandler;
+  private Handler<Void> drainHandler;
+  private Handler<Void> endHandler;
+
+  /**
+   * create a stream with the default batch size and credits
+   *
+   * @param service the service the mails are sent to (usually an event bus proxy)
+   */
+  public MailSubmitStream(MailClient service) {
+    this(service, DEFAULT_BATCH_SIZE, DEFAULT_CREDITS);
+  }
+
+  /**
+   * @param service   the service the mails are sent to (usually an event bus proxy)
+   * @param batchSize the number of mails sent in one request
+   * @param credits   the number of requests that may wait for their result at the same time
+   */
+  public MailSubmitStream(MailClient service, int batchSize, int credits) {
+    Objects.requireNonNull(service);
+    if (batchSize < 1 || credits < 1) {
+      throw new IllegalArgumentException("batchSize and credits must be >= 1");
+    }
+    this.service = service;
+    this.batchSize = batchSize;
+    this.credits = credits;
+    this.batch = new ArrayList<>(batchSize);
+  }
+
+  /**
+   * set the handler that receives the result of each batch
+   *
+   * @param handler the handler
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailSubmitStream resultHandler(Handler<MailBatchResult> handler) {
+    this.resultHandler = handler;
+    return this;
+  }
+
+  /**
+   * set the handler that is called when all batches have finished after {@link #end()}
+   *
+   * @param handler the handler
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailSubmitStream endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  @Override
+  public MailSubmitStream exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public MailSubmitStream write(MailMessage email) {
+    if (ended) {
+      throw new IllegalStateException("stream has been ended");
+    }
+    batch.add(email);
+    if (batch.size() >= batchSize) {
+      flush();
+    }
+    return this;
+  }
+
+  /**
+   * send the collected mails even if the batch is not full yet
+   *
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailSubmitStream flush() {
+    if (!batch.isEmpty()) {
+      List<MailMessage> emails = batch;
+      batch = new ArrayList<>(batchSize);
+      inFlight++;
+      service.sendMails(emails, result -> {
+        inFlight--;
+        if (result.succeeded()) {
+          if (resultHandler != null) {
+            resultHandler.handle(result.result());
+          }
+        } else if (exceptionHandler != null) {
+          exceptionHandler.handle(result.cause());
+        }
+        if (drainHandler != null && !writeQueueFull()) {
+          Handler<Void> handler = drainHandler;
+          drainHandler = null;
+          handler.handle(null);
+        }
+        checkEnd();
+      });
+    }
+    return this;
+  }
+
+  @Override
+  public void end() {
+    ended = true;
+    flush();
+    checkEnd();
+  }
+
+  private void checkEnd() {
+    if (ended && inFlight == 0 && endHandler != null) {
+      Handler<Void> handler = endHandler;
+      endHandler = null;
+      handler.handle(null);
+    }
+  }
+
+  /**
+   * set the number of mails that may be submitted and not finished, this is converted to credits of whole batches
+   */
+  @Override
+  public MailSubmitStream setWriteQueueMaxSize(int maxSize) {
+    credits = Math.max(1, maxSize / batchSize);
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return inFlight >= credits;
+  }
+
+  @Override
+  public MailSubmitStream drainHandler(Handler<Void> handler) {
+    this.drainHandler = handler;
+    return this;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.MailEnvelope;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.MailService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * event bus handler for the mails sent by {@link BinaryMailServiceProxy}
+ */
+public class BinaryMailServiceHandler implements Handler<Message<MailMessage>> {
+
+  private static final DeliveryOptions REPLY_OPTIONS = new DeliveryOptions().setCodecName(MailResultCodec.NAME);
+
+  private final MailService service;
+
+  public BinaryMailServiceHandler(MailService service) {
+    this.service = service;
+  }
+
+  /**
+   * register the handler at the binary address of the service
+   *
+   * @param vertx   the Vertx instance
+   * @param service the service that sends the mails
+   * @param address the address of the service
+   * @return the consumer of the binary address
+   */
+  public static MessageConsumer<MailMessage> register(Vertx vertx, MailService service, String address) {
+    MailCodecs.register(vertx.eventBus());
+    return vertx.eventBus().consumer(BinaryMailServiceProxy.binaryAddress(address),
+        new BinaryMailServiceHandler(service));
+  }
+
+  @Override
+  public void handle(Message<MailMessage> msg) {
+    String action = msg.headers().get(BinaryMailServiceProxy.ACTION_HEADER);
+    if (BinaryMailServiceProxy.SUBMIT_ACTION.equals(action)) {
+      String reportAddress = msg.headers().get(BinaryMailServiceProxy.REPORT_ADDRESS_HEADER);
+      service.submitMail(msg.body(), reportAddress, res -> {
+        if (res.succeeded()) {
+          msg.reply(res.result());
+        } else {
+          msg.fail(-1, res.cause().getMessage());
+        }
+      });
+      return;
+    }
+    if (BinaryMailServiceProxy.ENVELOPES_ACTION.equals(action)) {
+      sendMailEnvelopes(msg);
+      return;
+    }
+    if (BinaryMailServiceProxy.BATCH_ACTION.equals(action)) {
+      sendMails(msg);
+      return;
+    }
+    MailSendOptions options;
+    try {
+      String header = msg.headers().get(BinaryMailServiceProxy.OPTIONS_HEADER);
+      options = header == null ? new MailSendOptions() : new MailSendOptions(new JsonObject(header));
+    } catch (RuntimeException e) {
+      msg.fail(-1, "invalid send options: " + e.getMessage());
+      return;
+    }
+    service.sendMailWithOptions(msg.body(), options, res -> {
+      if (res.succeeded()) {
+        msg.reply(res.result(), REPLY_OPTIONS);
+      } else {
+        msg.fail(-1, res.cause().getMessage());
+      }
+    });
+  }
+
+  /*
+   * the consumer is registered for MailMessage bodies, the batch action is sent with the list codec
+   */
+  @SuppressWarnings("unchecked")
+  private void sendMails(Message<?> msg) {
+    service.sendMails((List<MailMessage>) msg.body(), res -> {
+      if (res.succeeded()) {
+        msg.reply(res.result().toJson());
+      } else {
+        msg.fail(-1, res.cause().getMessage());
+      }
+    });
+  }
+
+  private void sendMailEnvelopes(Message<MailMessage> msg) {
+    List<MailEnvelope> envelopes = new ArrayList<>();
+    try {
+      JsonArray jsonEnvelopes = new JsonArray(msg.headers().get(BinaryMailServiceProxy.ENVELOPES_HEADER));
+      for (int i = 0; i < jsonEnvelopes.size(); i++) {
+        envelopes.add(new MailEnvelope(jsonEnvelopes.getJsonObject(i)));
+      }
+    } catch (RuntimeException e) {
+      msg.fail(-1, "invalid envelopes: " + e.getMessage());
+      return;
+    }
+    service.sendMailEnvelopes(msg.body(), envelopes, res -> {
+      if (res.succeeded()) {
+        msg.reply(res.result().toJson());
+      } else {
+        msg.fail(-1, res.cause().getMessage());
+      }
+    });
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.MailBatchResult;
+import io.vertx.ext.mail.MailEnvelope;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.MailService;
+
+import java.util.List;
+
+/**
+ * MailService proxy that sends the mails with the binary codecs instead of the json based service proxy
+ * <p>
+ * the mails are sent to the binary address of a MailServiceVerticle, see {@link #binaryAddress(String)}
+ */
+public class BinaryMailServiceProxy implements MailService {
+
+  static final String OPTIONS_HEADER = "options";
+  static final String ACTION_HEADER = "action";
+  static final String REPORT_ADDRESS_HEADER = "reportAddress";
+  static final String ENVELOPES_HEADER = "envelopes";
+  static final String SUBMIT_ACTION = "submit";
+  static final String ENVELOPES_ACTION = "envelopes";
+  static final String BATCH_ACTION = "batch";
+
+  private final Vertx vertx;
+  private final String address;
+  private boolean closed;
+
+  public BinaryMailServiceProxy(Vertx vertx, String address) {
+    this.vertx = vertx;
+    this.address = binaryAddress(address);
+    MailCodecs.register(vertx.eventBus());
+  }
+
+  /**
+   * get the address the binary messages are sent to
+   *
+   * @param address the address of the service
+   * @return the binary address of the service
+   */
+  public static String binaryAddress(String address) {
+    return address + ".binary";
+  }
+
+  @Override
+  public MailService sendMail(MailMessage email, Handler<AsyncResult<MailResult>> resultHandler) {
+    return sendMailWithOptions(email, new MailSendOptions(), resultHandler);
+  }
+
+  @Override
+  public MailService sendMailWithOptions(MailMessage email, MailSendOptions options,
+      Handler<AsyncResult<MailResult>> resultHandler) {
+    if (closed) {
+      handleResult(Future.failedFuture(new IllegalStateException("Proxy is closed")), resultHandler);
+      return this;
+    }
+    DeliveryOptions deliveryOptions = new DeliveryOptions()
+        .setCodecName(MailMessageCodec.NAME)
+        .addHeader(OPTIONS_HEADER, options.toJson().encode());
+    vertx.eventBus().<MailResult>send(address, email, deliveryOptions, res -> {
+      if (res.succeeded()) {
+        handleResult(Future.succeededFuture(res.result().body()), resultHandler);
+      } else {
+        handleResult(Future.failedFuture(res.cause()), resultHandler);
+      }
+    });
+    return this;
+  }
+
+  /**
+   * the mails are sent as one binary message, so the attachments don't have to be encoded and the batch needs a single
+   * round trip
+   */
+  @Override
+  public MailService sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    if (closed) {
+      if (resultHandler != null) {
+        resultHandler.handle(Future.failedFuture(new IllegalStateException("Proxy is closed")));
+      }
+      return this;
+    }
+    DeliveryOptions deliveryOptions = new DeliveryOptions()
+        .setCodecName(MailMessageListCodec.NAME)
+        .addHeader(ACTION_HEADER, BATCH_ACTION);
+    vertx.eventBus().<JsonObject>send(address, emails, deliveryOptions, res -> {
+      if (resultHandler != null) {
+        if (res.succeeded()) {
+          resultHandler.handle(Future.succeededFuture(new MailBatchResult(res.result().body())));
+        } else {
+          resultHandler.handle(Future.failedFuture(res.cause()));
+        }
+      }
+    });
+    return this;
+  }
+
+  /**
+   * the mail is sent as a single binary message with the envelopes in a header, so it is encoded only once by the
+   * service
+   */
+  @Override
+  public MailService sendMailEnvelopes(MailMessage email, List<MailEnvelope> envelopes,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    if (closed) {
+      if (resultHandler != null) {
+        resultHandler.handle(Future.failedFuture(new IllegalStateException("Proxy is closed")));
+      }
+      return this;
+    }
+    JsonArray jsonEnvelopes = new JsonArray();
+    for (MailEnvelope envelope : envelopes) {
+      jsonEnvelopes.add(envelope.toJson());
+    }
+    DeliveryOptions deliveryOptions = new DeliveryOptions()
+        .setCodecName(MailMessageCodec.NAME)
+        .addHeader(ACTION_HEADER, ENVELOPES_ACTION)
+        .addHeader(ENVELOPES_HEADER, jsonEnvelopes.encode());
+    vertx.eventBus().<JsonObject>send(address, email, deliveryOptions, res -> {
+      if (resultHandler != null) {
+        if (res.succeeded()) {
+          resultHandler.handle(Future.succeededFuture(new MailBatchResult(res.result().body())));
+        } else {
+          resultHandler.handle(Future.failedFuture(res.cause()));
+        }
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public MailService submitMail(MailMessage email, String reportAddress, Handler<AsyncResult<String>> resultHandler) {
+    if (closed) {
+      if (resultHandler != null) {
+        resultHandler.handle(Future.failedFuture(new IllegalStateException("Proxy is closed")));
+      }
+      return this;
+    }
+    DeliveryOptions deliveryOptions = new DeliveryOptions()
+        .setCodecName(MailMessageCodec.NAME)
+        .addHeader(ACTION_HEADER, SUBMIT_ACTION);
+    if (reportAddress != null) {
+      deliveryOptions.addHeader(REPORT_ADDRESS_HEADER, reportAddress);
+    }
+    vertx.eventBus().<String>send(address, email, deliveryOptions, res -> {
+      if (resultHandler != null) {
+        if (res.succeeded()) {
+          resultHandler.handle(Future.succeededFuture(res.result().body()));
+        } else {
+          resultHandler.handle(Future.failedFuture(res.cause()));
+        }
+      }
+    });
+    return this;
+  }
+
+  private void handleResult(AsyncResult<MailResult> result, Handler<AsyncResult<MailResult>> resultHandler) {
+    if (resultHandler != null) {
+      resultHandler.handle(result);
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+}
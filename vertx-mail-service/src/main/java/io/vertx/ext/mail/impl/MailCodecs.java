@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * registration of the binary codecs, this has to be done on both sides of the event bus
+ */
+public final class MailCodecs {
+
+  /**
+   * utility class only
+   */
+  private MailCodecs() {
+  }
+
+  /**
+   * register the MailMessage, MailMessage list and MailResult codecs if they are not registered yet
+   *
+   * @param eventBus the event bus of the Vert.x instance
+   */
+  public static void register(EventBus eventBus) {
+    synchronized (eventBus) {
+      register(eventBus, new MailMessageCodec());
+      register(eventBus, new MailMessageListCodec());
+      register(eventBus, new MailResultCodec());
+    }
+  }
+
+  private static void register(EventBus eventBus, MessageCodec<?, ?> codec) {
+    try {
+      eventBus.registerCodec(codec);
+    } catch (IllegalStateException e) {
+      // the event bus doesn't tell us which codecs are registered, so we get an exception
+      // when the codec is already registered by another proxy or verticle
+    }
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.ext.mail.MailAttachment;
+import io.vertx.ext.mail.MailMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * binary event bus codec for MailMessage
+ * <p>
+ * the attachments are written as raw bytes instead of base64 encoded JSON. Local delivery passes a deep copy of the
+ * message, so the sender and the receiver don't share the lists, headers or attachment data of the message and the
+ * sender may keep changing its message and the attachment Buffers after sending it
+ */
+public class MailMessageCodec implements MessageCodec<MailMessage, MailMessage> {
+
+  public static final String NAME = "vertx.mail.MailMessage";
+
+  // increment when the wire format changes
+  private static final byte VERSION = 1;
+
+  @Override
+  public void encodeToWire(Buffer buffer, MailMessage message) {
+    buffer.appendByte(VERSION);
+    writeMessage(buffer, message);
+  }
+
+  /**
+   * write the message without the version byte, this is also used by {@link MailMessageListCodec}
+   */
+  static void writeMessage(Buffer buffer, MailMessage message) {
+    WireFormat.writeString(buffer, message.getBounceAddress());
+    WireFormat.writeString(buffer, message.getFrom());
+    WireFormat.writeStringList(buffer, message.getTo());
+    WireFormat.writeStringList(buffer, message.getCc());
+    WireFormat.writeStringList(buffer, message.getBcc());
+    WireFormat.writeString(buffer, message.getSubject());
+    WireFormat.writeString(buffer, message.getText());
+    WireFormat.writeString(buffer, message.getHtml());
+    writeAttachments(buffer, message.getAttachment());
+    writeAttachments(buffer, message.getInlineAttachment());
+    WireFormat.writeHeaders(buffer, message.getHeaders());
+    buffer.appendByte((byte) (message.isFixedHeaders() ? 1 : 0));
+  }
+
+  private static void writeAttachments(Buffer buffer, List<MailAttachment> attachments) {
+    if (attachments == null) {
+      buffer.appendInt(-1);
+    } else {
+      buffer.appendInt(attachments.size());
+      for (MailAttachment attachment : attachments) {
+        WireFormat.writeBuffer(buffer, attachment.getData());
+        WireFormat.writeString(buffer, attachment.getName());
+        WireFormat.writeString(buffer, attachment.getContentType());
+        WireFormat.writeString(buffer, attachment.getDisposition());
+        WireFormat.writeString(buffer, attachment.getDescription());
+        WireFormat.writeString(buffer, attachment.getContentId());
+        WireFormat.writeHeaders(buffer, attachment.getHeaders());
+      }
+    }
+  }
+
+  @Override
+  public MailMessage decodeFromWire(int pos, Buffer buffer) {
+    byte version = buffer.getByte(pos);
+    if (version != VERSION) {
+      throw new IllegalStateException("unsupported MailMessage wire format version " + version);
+    }
+    return readMessage(new WireFormat.Reader(buffer, pos + 1));
+  }
+
+  /**
+   * read a message written by {@link #writeMessage}
+   */
+  static MailMessage readMessage(WireFormat.Reader reader) {
+    MailMessage message = new MailMessage();
+    message.setBounceAddress(reader.readString());
+    message.setFrom(reader.readString());
+    message.setTo(reader.readStringList());
+    message.setCc(reader.readStringList());
+    message.setBcc(reader.readStringList());
+    message.setSubject(reader.readString());
+    message.setText(reader.readString());
+    message.setHtml(reader.readString());
+    message.setAttachment(readAttachments(reader));
+    message.setInlineAttachment(readAttachments(reader));
+    message.setHeaders(reader.readHeaders());
+    message.setFixedHeaders(reader.readBoolean());
+    return message;
+  }
+
+  private static List<MailAttachment> readAttachments(WireFormat.Reader reader) {
+    int size = reader.readInt();
+    if (size == -1) {
+      return null;
+    }
+    List<MailAttachment> attachments = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      MailAttachment attachment = new MailAttachment();
+      attachment.setData(reader.readBuffer());
+      attachment.setName(reader.readString());
+      attachment.setContentType(reader.readString());
+      attachment.setDisposition(reader.readString());
+      attachment.setDescription(reader.readString());
+      attachment.setContentId(reader.readString());
+      attachment.setHeaders(reader.readHeaders());
+      attachments.add(attachment);
+    }
+    return attachments;
+  }
+
+  @Override
+  public MailMessage transform(MailMessage message) {
+    return message.deepCopy();
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
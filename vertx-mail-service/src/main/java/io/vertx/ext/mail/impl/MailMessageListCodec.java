@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.ext.mail.MailMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * binary event bus codec for the list of messages of a sendMails operation, the messages are written in the format
+ * of {@link MailMessageCodec}
+ * <p>
+ * Local delivery passes a copy of the list and deep copies of the messages like {@link MailMessageCodec}
+ */
+public class MailMessageListCodec implements MessageCodec<List<MailMessage>, List<MailMessage>> {
+
+  public static final String NAME = "vertx.mail.MailMessageList";
+
+  // increment when the wire format changes
+  private static final byte VERSION = 1;
+
+  @Override
+  public void encodeToWire(Buffer buffer, List<MailMessage> messages) {
+    buffer.appendByte(VERSION);
+    buffer.appendInt(messages.size());
+    for (MailMessage message : messages) {
+      MailMessageCodec.writeMessage(buffer, message);
+    }
+  }
+
+  @Override
+  public List<MailMessage> decodeFromWire(int pos, Buffer buffer) {
+    byte version = buffer.getByte(pos);
+    if (version != VERSION) {
+      throw new IllegalStateException("unsupported MailMessage list wire format version " + version);
+    }
+    WireFormat.Reader reader = new WireFormat.Reader(buffer, pos + 1);
+    int size = reader.readInt();
+    List<MailMessage> messages = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      messages.add(MailMessageCodec.readMessage(reader));
+    }
+    return messages;
+  }
+
+  @Override
+  public List<MailMessage> transform(List<MailMessage> messages) {
+    List<MailMessage> copy = new ArrayList<>(messages.size());
+    for (MailMessage message : messages) {
+      copy.add(message.deepCopy());
+    }
+    return copy;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
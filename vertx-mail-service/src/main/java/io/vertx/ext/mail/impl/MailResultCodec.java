@@ -0,0 +1,82 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailTiming;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * binary event bus codec for MailResult, local delivery passes the instance without copying
+ */
+public class MailResultCodec implements MessageCodec<MailResult, MailResult> {
+
+  public static final String NAME = "vertx.mail.MailResult";
+
+  // increment when the wire format changes
+  private static final byte VERSION = 2;
+
+  @Override
+  public void encodeToWire(Buffer buffer, MailResult result) {
+    buffer.appendByte(VERSION);
+    WireFormat.writeString(buffer, result.getMessageID());
+    WireFormat.writeStringList(buffer, result.getRecipients());
+    // the timing is only present on request, so the json representation is good enough here
+    MailTiming timing = result.getTiming();
+    WireFormat.writeString(buffer, timing == null ? null : timing.toJson().encode());
+    WireFormat.writeStringMap(buffer, result.getRecipientReplies());
+  }
+
+  @Override
+  public MailResult decodeFromWire(int pos, Buffer buffer) {
+    byte version = buffer.getByte(pos);
+    if (version != VERSION) {
+      throw new IllegalStateException("unsupported MailResult wire format version " + version);
+    }
+    WireFormat.Reader reader = new WireFormat.Reader(buffer, pos + 1);
+    MailResult result = new MailResult();
+    result.setMessageID(reader.readString());
+    List<String> recipients = reader.readStringList();
+    result.setRecipients(recipients == null ? new ArrayList<>() : recipients);
+    String timing = reader.readString();
+    if (timing != null) {
+      result.setTiming(new MailTiming(new JsonObject(timing)));
+    }
+    result.setRecipientReplies(reader.readStringMap());
+    return result;
+  }
+
+  @Override
+  public MailResult transform(MailResult result) {
+    return result;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.mail.MailBatchResult;
+import io.vertx.ext.mail.MailEnvelope;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.MailService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+
+/**
+ * dispatches the send operations of a service address to the verticle instances of this node by credits
+ * <p>
+ * every instance registers as a worker with a number of credits (the send operations it may run at the same time),
+ * an operation is given to the worker with the most free credits and runs on the context of the worker. When no
+ * worker has a free credit, the operation waits until a worker finishes an operation, so a busy instance is not
+ * handed more work. The number of waiting operations can be limited with {@link #setMaxPending(int)}, further
+ * operations fail immediately when the queue is full
+ */
+public class MailServiceDispatcher implements MailService, Shareable {
+
+  private static final Logger log = LoggerFactory.getLogger(MailServiceDispatcher.class);
+
+  private static final String DISPATCHER_LOCAL_MAP_NAME = "__vertx.MailService.dispatchers";
+
+  private final Vertx vertx;
+  private final Runnable closeRunner;
+  private final List<Worker> workers = new ArrayList<>();
+  private final Queue<Operation<?>> pending = new ArrayDeque<>();
+  private volatile String defaultReportAddress;
+  // -1 means unbounded
+  private volatile int maxPending = -1;
+
+  private MailServiceDispatcher(Vertx vertx, Runnable closeRunner) {
+    this.vertx = vertx;
+    this.closeRunner = closeRunner;
+  }
+
+  /**
+   * get the dispatcher of the service address, the dispatcher is created when it doesn't exist yet
+   *
+   * @param vertx   the Vertx instance
+   * @param address the address of the service
+   * @return the dispatcher
+   */
+  public static MailServiceDispatcher lookup(Vertx vertx, String address) {
+    synchronized (vertx) {
+      LocalMap<String, MailServiceDispatcher> map = vertx.sharedData().getLocalMap(DISPATCHER_LOCAL_MAP_NAME);
+      MailServiceDispatcher dispatcher = map.get(address);
+      if (dispatcher == null) {
+        dispatcher = new MailServiceDispatcher(vertx, () -> {
+          synchronized (vertx) {
+            map.remove(address);
+            if (map.isEmpty()) {
+              map.close();
+            }
+          }
+        });
+        map.put(address, dispatcher);
+      }
+      return dispatcher;
+    }
+  }
+
+  /**
+   * add a worker that runs operations on the current context (usually the context of a verticle instance)
+   *
+   * @param service the service that sends the mails
+   * @param credits the number of operations the worker runs at the same time
+   * @return the worker, this is used to remove the worker again
+   */
+  public Object addWorker(MailService service, int credits) {
+    if (credits < 1) {
+      throw new IllegalArgumentException("credits must be >= 1");
+    }
+    Worker worker = new Worker(vertx.getOrCreateContext(), service, credits);
+    synchronized (this) {
+      workers.add(worker);
+    }
+    dispatchPending();
+    return worker;
+  }
+
+  /**
+   * remove a worker, operations that are running on the worker are finished
+   *
+   * @param worker the worker returned by {@link #addWorker(MailService, int)}
+   */
+  public void removeWorker(Object worker) {
+    boolean empty;
+    synchronized (this) {
+      workers.remove(worker);
+      empty = workers.isEmpty();
+      if (empty) {
+        // there will not be a worker to run these anymore
+        for (Operation<?> op : pending) {
+          op.fail("mail service has been undeployed");
+        }
+        pending.clear();
+      }
+    }
+    if (empty && closeRunner != null) {
+      closeRunner.run();
+    }
+  }
+
+  @Override
+  public MailService sendMail(MailMessage email, Handler<AsyncResult<MailResult>> resultHandler) {
+    return sendMailWithOptions(email, new MailSendOptions(), resultHandler);
+  }
+
+  @Override
+  public MailService sendMailWithOptions(MailMessage email, MailSendOptions options,
+      Handler<AsyncResult<MailResult>> resultHandler) {
+    dispatch(new Operation<>((service, handler) -> service.sendMailWithOptions(email, options, handler),
+        resultHandler, Vertx.currentContext()));
+    return this;
+  }
+
+  /**
+   * each mail of the list is dispatched as single operation, so the mails take one credit each. At most as many mails
+   * as the workers have credits are dispatched at the same time, so a large batch doesn't fill the pending queue of
+   * the dispatcher
+   */
+  @Override
+  public MailService sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    MailBatch.sendMails(this, emails, totalCredits(), resultHandler);
+    return this;
+  }
+
+  /**
+   * the sum of the credits of all workers, at least 1
+   */
+  private synchronized int totalCredits() {
+    int credits = 0;
+    for (Worker worker : workers) {
+      credits += worker.credits;
+    }
+    return Math.max(credits, 1);
+  }
+
+  /**
+   * the envelopes are sent by a single worker so the mail is encoded only once, the operation takes one credit
+   */
+  @Override
+  public MailService sendMailEnvelopes(MailMessage email, List<MailEnvelope> envelopes,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    dispatch(new Operation<>((service, handler) -> service.sendMailEnvelopes(email, envelopes, handler),
+        resultHandler, Vertx.currentContext()));
+    return this;
+  }
+
+  private void dispatch(Operation<?> op) {
+    Worker worker;
+    synchronized (this) {
+      worker = selectWorker();
+      if (worker == null) {
+        if (maxPending < 0 || pending.size() < maxPending) {
+          log.debug("no free worker, queueing operation");
+          pending.add(op);
+          return;
+        }
+      } else {
+        worker.inFlight++;
+      }
+    }
+    if (worker == null) {
+      log.debug("dispatch queue is full, rejecting operation");
+      op.fail("mail service dispatch queue is full");
+    } else {
+      worker.run(op);
+    }
+  }
+
+  /**
+   * the mail is acknowledged when it is queued in the dispatcher, the send operation takes a credit like sendMail
+   */
+  @Override
+  public MailService submitMail(MailMessage email, String reportAddress, Handler<AsyncResult<String>> resultHandler) {
+    MailSubmitter.submit(vertx, this, email, reportAddress != null ? reportAddress : defaultReportAddress,
+        resultHandler);
+    return this;
+  }
+
+  /**
+   * @param defaultReportAddress the report address of submitMail if the operation doesn't specify one
+   */
+  public void setDefaultReportAddress(String defaultReportAddress) {
+    this.defaultReportAddress = defaultReportAddress;
+  }
+
+  /**
+   * @param maxPending the max number of operations that wait for a free credit, -1 means unbounded
+   */
+  public void setMaxPending(int maxPending) {
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * the worker with the most free credits, null if all workers are busy
+   */
+  private Worker selectWorker() {
+    Worker selected = null;
+    for (Worker worker : workers) {
+      if (worker.inFlight < worker.credits
+          && (selected == null || worker.credits - worker.inFlight > selected.credits - selected.inFlight)) {
+        selected = worker;
+      }
+    }
+    return selected;
+  }
+
+  private void finished(Worker worker) {
+    synchronized (this) {
+      worker.inFlight--;
+    }
+    dispatchPending();
+  }
+
+  private void dispatchPending() {
+    while (true) {
+      Worker worker;
+      Operation<?> op;
+      synchronized (this) {
+        if (pending.isEmpty()) {
+          return;
+        }
+        worker = selectWorker();
+        if (worker == null) {
+          return;
+        }
+        op = pending.poll();
+        worker.inFlight++;
+      }
+      worker.run(op);
+    }
+  }
+
+  /**
+   * the dispatcher is closed when the last worker is removed, the workers close their own services
+   */
+  @Override
+  public void close() {
+  }
+
+  private class Worker {
+    final Context context;
+    final MailService service;
+    final int credits;
+    // guarded by the dispatcher
+    int inFlight;
+
+    Worker(Context context, MailService service, int credits) {
+      this.context = context;
+      this.service = service;
+      this.credits = credits;
+    }
+
+    <T> void run(Operation<T> op) {
+      context.runOnContext(v -> op.action.accept(service, result -> {
+        finished(this);
+        op.complete(result);
+      }));
+    }
+  }
+
+  private static class Operation<T> {
+    // runs the operation on the service of a worker
+    final BiConsumer<MailService, Handler<AsyncResult<T>>> action;
+    final Handler<AsyncResult<T>> resultHandler;
+    final Context context;
+
+    Operation(BiConsumer<MailService, Handler<AsyncResult<T>>> action, Handler<AsyncResult<T>> resultHandler,
+        Context context) {
+      this.action = action;
+      this.resultHandler = resultHandler;
+      this.context = context;
+    }
+
+    void complete(AsyncResult<T> result) {
+      if (resultHandler != null) {
+        if (context != null) {
+          context.runOnContext(v -> resultHandler.handle(result));
+        } else {
+          resultHandler.handle(result);
+        }
+      }
+    }
+
+    void fail(String message) {
+      complete(Future.failedFuture(message));
+    }
+  }
+}
@@ -17,21 +17,46 @@
 package io.vertx.ext.mail.impl;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.ext.mail.MailBatchResult;
 import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailEnvelope;
 import io.vertx.ext.mail.MailMessage;
 import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSendOptions;
 import io.vertx.ext.mail.MailService;
 
+import java.util.List;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 public class MailServiceImpl implements MailService {
 
+  private final Vertx vertx;
   private final MailClient client;
+  private final String defaultReportAddress;
 
+  /**
+   * @param client the client that sends the mails, submitMail is only supported if this is a client created by
+   *               MailClient.createShared or MailClient.createNonShared, the delivery reports are published with its
+   *               Vertx instance
+   */
   public MailServiceImpl(MailClient client) {
+    this(client instanceof MailClientImpl ? ((MailClientImpl) client).getVertx() : null, client, null);
+  }
+
+  /**
+   * @param vertx                the Vertx instance used to publish the delivery reports of submitMail
+   * @param client               the client that sends the mails
+   * @param defaultReportAddress the report address if submitMail doesn't specify one, may be null
+   */
+  public MailServiceImpl(Vertx vertx, MailClient client, String defaultReportAddress) {
+    this.vertx = vertx;
     this.client = client;
+    this.defaultReportAddress = defaultReportAddress;
   }
 
   @Override
@@ -40,6 +65,39 @@ public class MailServiceImpl implements MailService {
     return this;
   }
 
+  @Override
+  public MailService sendMailWithOptions(MailMessage email, MailSendOptions options,
+      Handler<AsyncResult<MailResult>> resultHandler) {
+    client.sendMailWithOptions(email, options, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MailService sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    client.sendMails(emails, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MailService sendMailEnvelopes(MailMessage email, List<MailEnvelope> envelopes,
+      Handler<AsyncResult<MailBatchResult>> resultHandler) {
+    client.sendMailEnvelopes(email, envelopes, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MailService submitMail(MailMessage email, String reportAddress, Handler<AsyncResult<String>> resultHandler) {
+    if (vertx == null) {
+      if (resultHandler != null) {
+        resultHandler.handle(Future.failedFuture("submitMail is not supported by this service"));
+      }
+      return this;
+    }
+    MailSubmitter.submit(vertx, client, email, reportAddress != null ? reportAddress : defaultReportAddress,
+        resultHandler);
+    return this;
+  }
+
   @Override
   public void close() {
     client.close();
@@ -0,0 +1,153 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailDeliveryReport;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.mailencoder.EmailAddress;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * implementation of the fire-and-forget submitMail operation
+ * <p>
+ * the mail gets a Message-ID if it doesn't have one, the submit is acknowledged with this id when the connection pool
+ * has accepted the send operation and the delivery report is published to the report address when the send operation
+ * has finished
+ */
+public final class MailSubmitter {
+
+  private static final Logger log = LoggerFactory.getLogger(MailSubmitter.class);
+
+  /**
+   * utility class only
+   */
+  private MailSubmitter() {
+  }
+
+  /**
+   * submit a mail
+   *
+   * @param vertx         the Vertx instance used to publish the report
+   * @param client        the client sending the mail
+   * @param email         the mail
+   * @param reportAddress the address the report is published to, or null to drop the report
+   * @param resultHandler receives the Message-ID when the mail was accepted, fails if the pool rejected the mail
+   */
+  public static void submit(Vertx vertx, MailClient client, MailMessage email, String reportAddress,
+      Handler<AsyncResult<String>> resultHandler) {
+    // check what can be checked without the connection, everything else is reported later
+    String error = null;
+    if (email.getBounceAddress() == null && email.getFrom() == null) {
+      error = "sender address is not present";
+    } else if (isEmpty(email.getTo()) && isEmpty(email.getCc()) && isEmpty(email.getBcc())) {
+      error = "no recipient addresses are present";
+    }
+    if (error != null) {
+      if (resultHandler != null) {
+        resultHandler.handle(Future.failedFuture(error));
+      }
+      return;
+    }
+
+    final MailMessage message;
+    String messageId = email.getHeaders() == null ? null : email.getHeaders().get("Message-ID");
+    if (messageId == null) {
+      try {
+        messageId = generateMessageId(email);
+      } catch (IllegalArgumentException e) {
+        if (resultHandler != null) {
+          resultHandler.handle(Future.failedFuture(e));
+        }
+        return;
+      }
+      // don't change the message of the caller
+      message = new MailMessage(email).addHeader("Message-ID", messageId);
+    } else {
+      message = email;
+    }
+
+    final String id = messageId;
+    if (!(client instanceof MailClientImpl)) {
+      // other clients don't tell when the operation is queued, so the submit is acknowledged right away
+      client.sendMail(message, result -> report(vertx, id, result, reportAddress));
+      if (resultHandler != null) {
+        resultHandler.handle(Future.succeededFuture(id));
+      }
+      return;
+    }
+    // the submit is acknowledged when the pool has accepted the operation, an operation that is rejected before
+    // (e.g. since the wait queue is full) fails the submit and doesn't publish a report
+    final AtomicBoolean acknowledged = new AtomicBoolean();
+    ((MailClientImpl) client).sendMail(message, new MailSendOptions(), v -> {
+      if (acknowledged.compareAndSet(false, true) && resultHandler != null) {
+        resultHandler.handle(Future.succeededFuture(id));
+      }
+    }, result -> {
+      if (acknowledged.compareAndSet(false, true)) {
+        if (resultHandler != null) {
+          resultHandler.handle(result.succeeded() ? Future.succeededFuture(id) : Future.failedFuture(result.cause()));
+        }
+        if (result.failed()) {
+          return;
+        }
+      }
+      report(vertx, id, result, reportAddress);
+    });
+  }
+
+  private static void report(Vertx vertx, String id, AsyncResult<MailResult> result, String reportAddress) {
+    MailDeliveryReport report = new MailDeliveryReport().setMessageId(id).setSucceeded(result.succeeded());
+    if (result.succeeded()) {
+      report.setResult(result.result());
+    } else {
+      report.setError(String.valueOf(result.cause().getMessage()));
+    }
+    if (reportAddress != null) {
+      vertx.eventBus().publish(reportAddress, report.toJson());
+    } else {
+      log.debug("dropping delivery report " + report);
+    }
+  }
+
+  private static boolean isEmpty(List<String> list) {
+    return list == null || list.isEmpty();
+  }
+
+  /**
+   * the Message-ID uses the domain of the sender, the hostname of the mail client is not known here
+   */
+  private static String generateMessageId(MailMessage email) {
+    String sender = email.getFrom() != null ? email.getFrom() : email.getBounceAddress();
+    String address = new EmailAddress(sender).getEmail();
+    int index = address.lastIndexOf('@');
+    String domain = index >= 0 ? address.substring(index + 1) : "localhost";
+    return "<" + UUID.randomUUID() + ".vertxmail@" + domain + ">";
+  }
+
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * helpers for the binary representation of the mail objects on the event bus
+ * <p>
+ * strings are written as length and UTF-8 bytes, lists and maps as count and elements, a length or count of -1
+ * represents null
+ */
+class WireFormat {
+
+  /**
+   * utility class only
+   */
+  private WireFormat() {
+  }
+
+  static void writeString(Buffer buffer, String value) {
+    if (value == null) {
+      buffer.appendInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      buffer.appendInt(bytes.length);
+      buffer.appendBytes(bytes);
+    }
+  }
+
+  static void writeBuffer(Buffer buffer, Buffer value) {
+    if (value == null) {
+      buffer.appendInt(-1);
+    } else {
+      buffer.appendInt(value.length());
+      buffer.appendBuffer(value);
+    }
+  }
+
+  static void writeStringList(Buffer buffer, List<String> list) {
+    if (list == null) {
+      buffer.appendInt(-1);
+    } else {
+      buffer.appendInt(list.size());
+      for (String value : list) {
+        writeString(buffer, value);
+      }
+    }
+  }
+
+  static void writeStringMap(Buffer buffer, Map<String, String> map) {
+    if (map == null) {
+      buffer.appendInt(-1);
+    } else {
+      buffer.appendInt(map.size());
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        writeString(buffer, entry.getKey());
+        writeString(buffer, entry.getValue());
+      }
+    }
+  }
+
+  static void writeHeaders(Buffer buffer, MultiMap headers) {
+    if (headers == null) {
+      buffer.appendInt(-1);
+    } else {
+      List<Map.Entry<String, String>> entries = headers.entries();
+      buffer.appendInt(entries.size());
+      for (Map.Entry<String, String> entry : entries) {
+        writeString(buffer, entry.getKey());
+        writeString(buffer, entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * reads the values in the order they were written
+   */
+  static class Reader {
+    private final Buffer buffer;
+    private int pos;
+
+    Reader(Buffer buffer, int pos) {
+      this.buffer = buffer;
+      this.pos = pos;
+    }
+
+    int readInt() {
+      int value = buffer.getInt(pos);
+      pos += 4;
+      return value;
+    }
+
+    boolean readBoolean() {
+      return buffer.getByte(pos++) != 0;
+    }
+
+    String readString() {
+      int length = readInt();
+      if (length == -1) {
+        return null;
+      }
+      String value = buffer.getString(pos, pos + length, StandardCharsets.UTF_8.name());
+      pos += length;
+      return value;
+    }
+
+    Buffer readBuffer() {
+      int length = readInt();
+      if (length == -1) {
+        return null;
+      }
+      Buffer value = buffer.getBuffer(pos, pos + length);
+      pos += length;
+      return value;
+    }
+
+    List<String> readStringList() {
+      int size = readInt();
+      if (size == -1) {
+        return null;
+      }
+      List<String> list = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        list.add(readString());
+      }
+      return list;
+    }
+
+    Map<String, String> readStringMap() {
+      int size = readInt();
+      if (size == -1) {
+        return null;
+      }
+      Map<String, String> map = new LinkedHashMap<>();
+      for (int i = 0; i < size; i++) {
+        map.put(readString(), readString());
+      }
+      return map;
+    }
+
+    MultiMap readHeaders() {
+      int size = readInt();
+      if (size == -1) {
+        return null;
+      }
+      MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+      for (int i = 0; i < size; i++) {
+        headers.add(readString(), readString());
+      }
+      return headers;
+    }
+  }
+
+}
@@ -57,6 +57,15 @@
  * The behaviour of MailClient and MailService is the same, if you like you can use the
  * MailClient interface to store the MailService instance.
  *
+ * The service proxy transfers the mails as JSON, which contains the attachments base64 encoded. When mails with
+ * large attachments are sent via a clustered event bus, a proxy that uses a binary format with the attachments as raw
+ * bytes can be used instead, the MailServiceVerticle accepts both formats.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#createBinaryService}
+ * ----
+ *
  * A more complete example for sending a mail via the event bus is this:
  *
  * [source,$lang]
@@ -64,6 +73,27 @@
  * {@link examples.Examples#exampleService}
  * ----
  *
+ * Bulk producers can reduce the number of event bus requests by sending a list of mails with `sendMails`. For a
+ * continuous flow of mails, the MailSubmitStream collects the mails into batches and limits the number of batches that
+ * wait for their result, it is a WriteStream so it can be used with a Pump or by checking `writeQueueFull`.
+ * A mail that is sent to many envelopes with `sendMailEnvelopes` is a single request, it is encoded once by the
+ * service and takes one credit of the verticle instance that sends it.
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#submitStream}
+ * ----
+ *
+ * When the producer doesn't need to wait for the SMTP transaction, a mail can be submitted with `submitMail`. The
+ * operation finishes as soon as the service has accepted the mail and returns the Message-ID of the mail. The
+ * MailDeliveryReport with the result or the error (including the server reply) is published as json to the report
+ * address later, the report contains the same Message-ID.
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#submitMail}
+ * ----
+ *
  * == Service listener
  *
  * To run the service listener that sends the mails, you need to start it separately
@@ -77,6 +107,23 @@
  *
  * If you have a smtp server running on the machine on port 25, you can use the default config.
  *
+ * The config of the verticle contains the `address` of the service and the MailConfig options. When the verticle is
+ * deployed with several instances to use more cores, two more options are useful
+ *
+ * * `poolName` all instances on the node share the connection pool with this name, so `maxPoolSize` limits the
+ * connections of the node instead of each instance
+ * * `reportAddress` the address the delivery reports of `submitMail` are published to, if the operation doesn't
+ * specify one
+ * * `maxInFlight` the number of send operations an instance runs at the same time, operations are given to the
+ * instance with the most free credits and wait when all instances are busy, instead of being distributed round robin
+ * by the event bus. At most `maxWaitQueueSize` operations wait for a free instance, further operations fail
+ * immediately
+ *
+ * [source,shell]
+ * ----
+ * vertx run service:io.vertx.mail-service -instances 4 -conf '{"address":"vertx.mail","hostname":"smtp.example.com","maxPoolSize":8,"poolName":"mail","maxInFlight":8}'
+ * ----
+ *
  */
 @Document(fileName = "index.adoc")
 @ModuleGen(name = "vertx-mail", groupPackage = "io.vertx") package io.vertx.ext.mail;
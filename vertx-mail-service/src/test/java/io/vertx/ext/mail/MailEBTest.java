@@ -42,6 +42,12 @@ public class MailEBTest extends SMTPTestDummy {
     testSuccess(MailService.createEventBusProxy(vertx, "vertx.mail"));
   }
 
+  @Test
+  public void mailTestBinary(TestContext testContext) {
+    this.testContext=testContext;
+    testSuccess(MailService.createBinaryEventBusProxy(vertx, "vertx.mail"));
+  }
+
   @Before
   public void startVerticle(TestContext testContext) {
     Async async = testContext.async();
@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test sendMails and the MailSubmitStream via the event bus
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailServiceBatchTest extends SMTPTestBase {
+
+  private SmtpSinkServer sink;
+
+  @Test
+  public void testSendMails(TestContext testContext) {
+    testSendMails(testContext, MailService.createEventBusProxy(vertx, "vertx.mail.batch"));
+  }
+
+  @Test
+  public void testSendMailsBinary(TestContext testContext) {
+    testSendMails(testContext, MailService.createBinaryEventBusProxy(vertx, "vertx.mail.batch"));
+  }
+
+  private void testSendMails(TestContext testContext, MailService service) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    List<MailMessage> emails = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      emails.add(exampleMessage());
+    }
+    service.sendMails(emails, testContext.asyncAssertSuccess(batch -> {
+      testContext.assertEquals(10, batch.getSucceededCount());
+      testContext.assertEquals(10L, sink.getMailCount());
+      async.complete();
+    }));
+  }
+
+  @Test
+  public void testSubmitStream(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    final int count = 250;
+    MailService service = MailService.createEventBusProxy(vertx, "vertx.mail.batch");
+    MailSubmitStream stream = new MailSubmitStream(service, 20, 2);
+    AtomicInteger succeeded = new AtomicInteger();
+    stream.resultHandler(batch -> succeeded.addAndGet(batch.getSucceededCount()));
+    stream.exceptionHandler(testContext::fail);
+    stream.endHandler(v -> {
+      testContext.assertEquals(count, succeeded.get());
+      testContext.assertEquals((long) count, sink.getMailCount());
+      async.complete();
+    });
+    AtomicInteger written = new AtomicInteger();
+    writeAll(stream, written, count);
+  }
+
+  // write until the credits are used up and continue in the drain handler
+  private void writeAll(MailSubmitStream stream, AtomicInteger written, int count) {
+    while (written.get() < count) {
+      if (stream.writeQueueFull()) {
+        stream.drainHandler(v -> writeAll(stream, written, count));
+        return;
+      }
+      stream.write(exampleMessage());
+      written.incrementAndGet();
+    }
+    stream.end();
+  }
+
+  @Before
+  public void startVerticle(TestContext testContext) {
+    JsonObject config = new JsonObject()
+        .put("address", "vertx.mail.batch")
+        .put("hostname", "localhost")
+        .put("port", 1587)
+        .put("starttls", "DISABLED");
+    vertx.deployVerticle("io.vertx.ext.mail.MailServiceVerticle", new DeploymentOptions().setConfig(config),
+        testContext.asyncAssertSuccess());
+  }
+
+  @Override
+  protected void startSMTP() {
+    sink = new SmtpSinkServer(vertx).start();
+  }
+
+  @Override
+  protected void stopSMTP() {
+    if (sink != null) {
+      sink.stop();
+      sink = null;
+    }
+  }
+
+}
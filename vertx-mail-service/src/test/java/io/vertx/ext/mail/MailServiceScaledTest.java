@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * run the service verticle with several instances, a shared pool and credit based dispatching
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailServiceScaledTest extends SMTPTestBase {
+
+  private SmtpSinkServer sink;
+
+  @Test
+  public void testScaledService(TestContext testContext) {
+    this.testContext = testContext;
+    final int count = 20;
+    Async async = testContext.async(count);
+    JsonObject config = new JsonObject()
+        .put("address", "vertx.mail.scaled")
+        .put("hostname", "localhost")
+        .put("port", 1587)
+        .put("starttls", "DISABLED")
+        .put("maxPoolSize", 2)
+        .put("poolName", "scaled-test")
+        .put("maxInFlight", 2);
+    vertx.deployVerticle("io.vertx.ext.mail.MailServiceVerticle",
+        new DeploymentOptions().setConfig(config).setInstances(3), testContext.asyncAssertSuccess(id -> {
+          MailService service = MailService.createEventBusProxy(vertx, "vertx.mail.scaled");
+          for (int i = 0; i < count; i++) {
+            service.sendMail(exampleMessage(), result -> {
+              testContext.assertTrue(result.succeeded());
+              // the shared pool limits the connections of all instances
+              testContext.assertTrue(sink.getSessionCount() <= 2);
+              async.countDown();
+            });
+          }
+        }));
+  }
+
+  @Override
+  protected void startSMTP() {
+    sink = new SmtpSinkServer(vertx).start();
+  }
+
+  @Override
+  protected void stopSMTP() {
+    if (sink != null) {
+      sink.stop();
+      sink = null;
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.impl.MailServiceImpl;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * test submitMail with the delivery reports on the event bus
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailServiceSubmitTest extends SMTPTestBase {
+
+  private SmtpSinkServer sink;
+
+  @Test
+  public void testSubmit(TestContext testContext) {
+    testSubmit(testContext, MailService.createEventBusProxy(vertx, "vertx.mail.submit"));
+  }
+
+  @Test
+  public void testSubmitBinary(TestContext testContext) {
+    testSubmit(testContext, MailService.createBinaryEventBusProxy(vertx, "vertx.mail.submit"));
+  }
+
+  private void testSubmit(TestContext testContext, MailService service) {
+    this.testContext = testContext;
+    Async async = testContext.async(2);
+    AtomicReference<String> messageId = new AtomicReference<>();
+    vertx.eventBus().<JsonObject>consumer("vertx.mail.reports", msg -> {
+      MailDeliveryReport report = new MailDeliveryReport(msg.body());
+      testContext.assertTrue(report.isSucceeded());
+      testContext.assertNotNull(report.getResult());
+      testContext.assertEquals(report.getMessageId(), report.getResult().getMessageID());
+      // the report may arrive before the acknowledgement
+      vertx.setTimer(100, id -> {
+        testContext.assertEquals(messageId.get(), report.getMessageId());
+        async.countDown();
+      });
+    });
+    service.submitMail(exampleMessage(), null, testContext.asyncAssertSuccess(id -> {
+      testContext.assertTrue(id.endsWith("@example.com>"));
+      messageId.set(id);
+      async.countDown();
+    }));
+  }
+
+  @Test
+  public void testSubmitFailure(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    sink.setPermanentFailureRate(1.0);
+    MailService service = MailService.createEventBusProxy(vertx, "vertx.mail.submit");
+    vertx.eventBus().<JsonObject>consumer("vertx.mail.reports.failed", msg -> {
+      MailDeliveryReport report = new MailDeliveryReport(msg.body());
+      testContext.assertFalse(report.isSucceeded());
+      testContext.assertEquals("<1234@example.com>", report.getMessageId());
+      testContext.assertTrue(report.getError().contains("554"));
+      async.complete();
+    });
+    MailMessage email = exampleMessage().addHeader("Message-ID", "<1234@example.com>");
+    service.submitMail(email, "vertx.mail.reports.failed", testContext.asyncAssertSuccess(
+        id -> testContext.assertEquals("<1234@example.com>", id)));
+  }
+
+  @Test
+  public void testSubmitInvalid(TestContext testContext) {
+    this.testContext = testContext;
+    MailService service = MailService.createEventBusProxy(vertx, "vertx.mail.submit");
+    service.submitMail(new MailMessage().setFrom("from@example.com"), null, testContext.asyncAssertFailure());
+  }
+
+  /**
+   * the submit is acknowledged only when the pool accepts the operation, with a full wait queue it fails
+   */
+  @Test
+  public void testSubmitWaitQueueFull(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    sink.setLatency("RCPT", 500);
+    MailClient client = MailClient.createNonShared(vertx, configNoSSL().setMaxPoolSize(1).setMaxWaitQueueSize(0));
+    // the service gets the Vertx instance for the reports from the client
+    MailService service = new MailServiceImpl(client);
+    service.submitMail(exampleMessage(), null, testContext.asyncAssertSuccess(id ->
+        service.submitMail(exampleMessage(), null, testContext.asyncAssertFailure(th -> {
+          testContext.assertEquals("connection pool wait queue is full", th.getMessage());
+          service.close();
+          async.complete();
+        }))));
+  }
+
+  @Before
+  public void startVerticle(TestContext testContext) {
+    JsonObject config = new JsonObject()
+        .put("address", "vertx.mail.submit")
+        .put("reportAddress", "vertx.mail.reports")
+        .put("hostname", "localhost")
+        .put("port", 1587)
+        .put("starttls", "DISABLED");
+    vertx.deployVerticle("io.vertx.ext.mail.MailServiceVerticle", new DeploymentOptions().setConfig(config),
+        testContext.asyncAssertSuccess());
+  }
+
+  @Override
+  protected void startSMTP() {
+    sink = new SmtpSinkServer(vertx).start();
+  }
+
+  @Override
+  protected void stopSMTP() {
+    if (sink != null) {
+      sink.stop();
+      sink = null;
+    }
+  }
+
+}
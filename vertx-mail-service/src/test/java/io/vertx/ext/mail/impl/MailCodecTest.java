@@ -0,0 +1,154 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.mail.MailAttachment;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailTiming;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * test the binary event bus codecs
+ */
+public class MailCodecTest {
+
+  private final MailMessageCodec messageCodec = new MailMessageCodec();
+  private final MailResultCodec resultCodec = new MailResultCodec();
+
+  @Test
+  public void testMailMessage() {
+    MailMessage message = new MailMessage()
+        .setFrom("Jürgen <from@example.com>")
+        .setTo(Arrays.asList("user1@example.com", "user2@example.com"))
+        .setBcc("bcc@example.com")
+        .setSubject("Grüße")
+        .setText("text")
+        .setHtml("<b>html</b>")
+        .setAttachment(new MailAttachment()
+            .setData(Buffer.buffer(new byte[]{0, 1, 2, (byte) 255}))
+            .setName("data.bin")
+            .setContentType("application/octet-stream")
+            .addHeader("X-Header", "value"))
+        .setFixedHeaders(true);
+    message.addHeader("X-Mailer", "test");
+    MailMessage decoded = roundTrip(message);
+    assertEquals(message.toJson(), decoded.toJson());
+    assertEquals(message.getAttachment().get(0).getData(), decoded.getAttachment().get(0).getData());
+  }
+
+  @Test
+  public void testEmptyMailMessage() {
+    MailMessage decoded = roundTrip(new MailMessage());
+    assertNull(decoded.getFrom());
+    assertNull(decoded.getTo());
+    assertNull(decoded.getAttachment());
+    assertEquals(new MailMessage().toJson(), decoded.toJson());
+  }
+
+  @Test
+  public void testMailResult() {
+    MailResult result = new MailResult()
+        .setMessageID("<1234@example.com>")
+        .setRecipients(Arrays.asList("user1@example.com", "user2@example.com"))
+        .setTiming(new MailTiming().setAcquireTime(10).setQueueId("4A2B3C"));
+    Buffer buffer = Buffer.buffer("prefix");
+    resultCodec.encodeToWire(buffer, result);
+    MailResult decoded = resultCodec.decodeFromWire(6, buffer);
+    assertEquals(result.toJson(), decoded.toJson());
+    assertNull(decoded.getRecipientReplies());
+  }
+
+  @Test
+  public void testMailResultRecipientReplies() {
+    Map<String, String> replies = new LinkedHashMap<>();
+    replies.put("user1@example.com", "250 2.0.0 Ok");
+    replies.put("user2@example.com", "552 5.2.2 Mailbox full");
+    MailResult result = new MailResult()
+        .setMessageID("<1234@example.com>")
+        .setRecipients(Collections.singletonList("user1@example.com"))
+        .setRecipientReplies(replies);
+    Buffer buffer = Buffer.buffer("prefix");
+    resultCodec.encodeToWire(buffer, result);
+    MailResult decoded = resultCodec.decodeFromWire(6, buffer);
+    assertEquals(replies, decoded.getRecipientReplies());
+    assertEquals(result.toJson(), decoded.toJson());
+  }
+
+  @Test
+  public void testMailMessageList() {
+    MailMessageListCodec listCodec = new MailMessageListCodec();
+    List<MailMessage> messages = Arrays.asList(
+        new MailMessage("from@example.com", "user1@example.com", "Subject 1", "text 1"),
+        new MailMessage(),
+        new MailMessage("from@example.com", "user2@example.com", "Subject 2", "text 2")
+            .setAttachment(new MailAttachment().setData(Buffer.buffer(new byte[]{0, (byte) 255}))));
+    Buffer buffer = Buffer.buffer("prefix");
+    listCodec.encodeToWire(buffer, messages);
+    List<MailMessage> decoded = listCodec.decodeFromWire(6, buffer);
+    assertEquals(3, decoded.size());
+    for (int i = 0; i < messages.size(); i++) {
+      assertEquals(messages.get(i).toJson(), decoded.get(i).toJson());
+    }
+    List<MailMessage> transformed = listCodec.transform(messages);
+    assertEquals(messages, transformed);
+    assertNotSame(messages.get(0), transformed.get(0));
+  }
+
+  @Test
+  public void testLocalDelivery() {
+    MailMessage message = new MailMessage().setFrom("from@example.com");
+    MailMessage transformed = messageCodec.transform(message);
+    assertNotSame(message, transformed);
+    assertEquals(message, transformed);
+    assertEquals(message.toJson(), transformed.toJson());
+    // the receiver must not change the message of the sender
+    transformed.setTo("other@example.com");
+    assertNull(message.getTo());
+  }
+
+  @Test
+  public void testLocalDeliveryCopiesAttachmentData() {
+    Buffer data = Buffer.buffer("data");
+    MailMessage message = new MailMessage().setAttachment(new MailAttachment().setData(data));
+    MailMessage transformed = messageCodec.transform(message);
+    // the sender may reuse the Buffer and the receiver may change its copy
+    data.setString(0, "xxxx");
+    transformed.getAttachment().get(0).getData().appendString("2");
+    assertEquals("xxxx", message.getAttachment().get(0).getData().toString());
+    assertEquals("data2", transformed.getAttachment().get(0).getData().toString());
+  }
+
+  private MailMessage roundTrip(MailMessage message) {
+    // the codec has to start reading at the position it is given
+    Buffer buffer = Buffer.buffer("prefix");
+    messageCodec.encodeToWire(buffer, message);
+    return messageCodec.decodeFromWire(6, buffer);
+  }
+
+}
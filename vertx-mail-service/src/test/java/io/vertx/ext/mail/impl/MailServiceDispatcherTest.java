@@ -0,0 +1,182 @@
+/*
+ *  Copyright (c) 2011-2015 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.ext.mail.MailBatchResult;
+import io.vertx.ext.mail.MailEnvelope;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSendOptions;
+import io.vertx.ext.mail.MailService;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test the credit based dispatching of send operations
+ */
+public class MailServiceDispatcherTest extends VertxTestBase {
+
+  /**
+   * service that keeps the operations until they are completed by the test
+   */
+  private static class HoldingService implements MailService {
+    final List<Handler<AsyncResult<MailResult>>> running = new ArrayList<>();
+
+    @Override
+    public synchronized MailService sendMail(MailMessage email, Handler<AsyncResult<MailResult>> resultHandler) {
+      running.add(resultHandler);
+      return this;
+    }
+
+    @Override
+    public MailService sendMailWithOptions(MailMessage email, MailSendOptions options,
+        Handler<AsyncResult<MailResult>> resultHandler) {
+      return sendMail(email, resultHandler);
+    }
+
+    @Override
+    public MailService sendMails(List<MailMessage> emails, Handler<AsyncResult<MailBatchResult>> resultHandler) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MailService sendMailEnvelopes(MailMessage email, List<MailEnvelope> envelopes,
+        Handler<AsyncResult<MailBatchResult>> resultHandler) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MailService submitMail(MailMessage email, String reportAddress,
+        Handler<AsyncResult<String>> resultHandler) {
+      throw new UnsupportedOperationException();
+    }
+
+    synchronized int running() {
+      return running.size();
+    }
+
+    synchronized void completeOne() {
+      running.remove(0).handle(Future.succeededFuture(new MailResult()));
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  @Test
+  public void testCredits() {
+    HoldingService service1 = new HoldingService();
+    HoldingService service2 = new HoldingService();
+    MailServiceDispatcher dispatcher = MailServiceDispatcher.lookup(vertx, "test.dispatcher");
+    Object worker1 = dispatcher.addWorker(service1, 1);
+    Object worker2 = dispatcher.addWorker(service2, 2);
+    AtomicInteger finished = new AtomicInteger();
+    for (int i = 0; i < 4; i++) {
+      dispatcher.sendMail(new MailMessage(), result -> {
+        assertTrue(result.succeeded());
+        finished.incrementAndGet();
+      });
+    }
+    waitUntil(() -> service1.running() + service2.running() == 3);
+    // the fourth operation waits for a credit
+    assertEquals(1, service1.running());
+    assertEquals(2, service2.running());
+    service1.completeOne();
+    waitUntil(() -> finished.get() == 1 && service1.running() == 1);
+    service1.completeOne();
+    service2.completeOne();
+    service2.completeOne();
+    waitUntil(() -> finished.get() == 4);
+    dispatcher.removeWorker(worker1);
+    dispatcher.removeWorker(worker2);
+    assertNotSame(dispatcher, MailServiceDispatcher.lookup(vertx, "test.dispatcher"));
+  }
+
+  @Test
+  public void testRemoveLastWorker() {
+    MailServiceDispatcher dispatcher = MailServiceDispatcher.lookup(vertx, "test.dispatcher2");
+    HoldingService service = new HoldingService();
+    Object worker = dispatcher.addWorker(service, 1);
+    dispatcher.sendMail(new MailMessage(), result -> {
+    });
+    waitUntil(() -> service.running() == 1);
+    dispatcher.sendMail(new MailMessage(), result -> {
+      assertTrue(result.failed());
+      testComplete();
+    });
+    dispatcher.removeWorker(worker);
+    await();
+  }
+
+  @Test
+  public void testPendingQueueFull() {
+    MailServiceDispatcher dispatcher = MailServiceDispatcher.lookup(vertx, "test.dispatcher3");
+    dispatcher.setMaxPending(1);
+    HoldingService service = new HoldingService();
+    Object worker = dispatcher.addWorker(service, 1);
+    AtomicInteger succeeded = new AtomicInteger();
+    for (int i = 0; i < 2; i++) {
+      dispatcher.sendMail(new MailMessage(), result -> {
+        assertTrue(result.succeeded());
+        succeeded.incrementAndGet();
+      });
+    }
+    waitUntil(() -> service.running() == 1);
+    // one operation is running and one is waiting, the third is rejected
+    dispatcher.sendMail(new MailMessage(), result -> {
+      assertTrue(result.failed());
+      assertEquals("mail service dispatch queue is full", result.cause().getMessage());
+      service.completeOne();
+      waitUntil(() -> service.running() == 1);
+      service.completeOne();
+      waitUntil(() -> succeeded.get() == 2);
+      dispatcher.removeWorker(worker);
+      testComplete();
+    });
+    await();
+  }
+
+  @Test
+  public void testSendMailsUsesCredits() {
+    MailServiceDispatcher dispatcher = MailServiceDispatcher.lookup(vertx, "test.dispatcher4");
+    // the batch must not put its mails into the pending queue
+    dispatcher.setMaxPending(0);
+    HoldingService service = new HoldingService();
+    Object worker = dispatcher.addWorker(service, 1);
+    dispatcher.sendMails(Arrays.asList(new MailMessage(), new MailMessage(), new MailMessage()), result -> {
+      assertTrue(result.succeeded());
+      assertEquals(3, result.result().getSucceededCount());
+      dispatcher.removeWorker(worker);
+      testComplete();
+    });
+    for (int i = 0; i < 3; i++) {
+      waitUntil(() -> service.running() == 1);
+      service.completeOne();
+    }
+    await();
+  }
+
+}